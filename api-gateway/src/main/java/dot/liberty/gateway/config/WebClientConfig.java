@@ -1,17 +1,60 @@
 package dot.liberty.gateway.config;
 
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @Configuration
 public class WebClientConfig {
 
+    /**
+     * Pool for gateway-to-service calls (token validation etc.).
+     * Limits apply per remote host. Pool gauges are published under
+     * reactor.netty.connection.provider.* with name=gateway-client.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider gatewayClientConnectionProvider(
+            @Value("${gateway.http-client.max-connections:200}") int maxConnections,
+            @Value("${gateway.http-client.pending-acquire-max-count:1000}") int pendingAcquireMaxCount,
+            @Value("${gateway.http-client.pending-acquire-timeout:2s}") Duration pendingAcquireTimeout,
+            @Value("${gateway.http-client.max-idle-time:30s}") Duration maxIdleTime,
+            @Value("${gateway.http-client.max-life-time:5m}") Duration maxLifeTime,
+            @Value("${gateway.http-client.evict-in-background:30s}") Duration evictInBackground) {
+
+        return ConnectionProvider.builder("gateway-client")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(evictInBackground)
+                .metrics(true)
+                .build();
+    }
+
     @Bean
     @LoadBalanced
-    public WebClient.Builder webClientBuilder() {
-        return WebClient.builder();
+    public WebClient.Builder webClientBuilder(
+            ConnectionProvider gatewayClientConnectionProvider,
+            @Value("${gateway.http-client.connect-timeout:1s}") Duration connectTimeout,
+            @Value("${gateway.http-client.response-timeout:2s}") Duration responseTimeout) {
+
+        HttpClient httpClient = HttpClient.create(gatewayClientConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .responseTimeout(responseTimeout)
+                .keepAlive(true);
+
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient));
     }
 
 }
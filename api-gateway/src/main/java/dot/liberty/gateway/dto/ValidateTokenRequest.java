@@ -0,0 +1,14 @@
+package dot.liberty.gateway.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ValidateTokenRequest {
+
+    private String token;
+
+}
@@ -0,0 +1,27 @@
+package dot.liberty.gateway.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ValidateTokenResponse {
+
+    /**
+     * {@code jti} of the token, {@code null} for tokens issued before it was added.
+     */
+    private String tokenId;
+
+    private Long userId;
+    private String email;
+    private String role;
+
+    private Instant expiresAt;
+
+}
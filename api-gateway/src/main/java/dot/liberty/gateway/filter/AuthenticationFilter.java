@@ -1,5 +1,8 @@
 package dot.liberty.gateway.filter;
 
+import dot.liberty.gateway.validation.RevokedTokenCheck;
+import dot.liberty.gateway.validation.TokenValidationCache;
+import dot.liberty.gateway.validation.TokenValidator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
@@ -9,7 +12,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
-import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
@@ -17,12 +19,18 @@ import reactor.core.publisher.Mono;
 @Slf4j
 public class AuthenticationFilter extends AbstractGatewayFilterFactory<AuthenticationFilter.Config> {
 
-    private final WebClient.Builder webClientBuilder;
+    private final TokenValidator tokenValidator;
+    private final TokenValidationCache tokenValidationCache;
+    private final RevokedTokenCheck revokedTokenCheck;
 
-    public AuthenticationFilter(WebClient.Builder webClientBuilder) {
+    public AuthenticationFilter(TokenValidator tokenValidator,
+                                TokenValidationCache tokenValidationCache,
+                                RevokedTokenCheck revokedTokenCheck) {
         super(Config.class);
 
-        this.webClientBuilder = webClientBuilder;
+        this.tokenValidator = tokenValidator;
+        this.tokenValidationCache = tokenValidationCache;
+        this.revokedTokenCheck = revokedTokenCheck;
     }
 
     @Override
@@ -52,7 +60,8 @@ public class AuthenticationFilter extends AbstractGatewayFilterFactory<Authentic
 
             String token = authHeader.substring(7);
 
-            return validateToken(token)
+            return tokenValidationCache.getOrValidate(token, tokenValidator::validate)
+                    .flatMap(revokedTokenCheck::check)
                     .flatMap(validationResponse -> {
                         ServerHttpRequest modifiedRequest = exchange.getRequest().mutate()
                                 .header("X-User-Id", validationResponse.getUserId().toString())
@@ -70,16 +79,6 @@ public class AuthenticationFilter extends AbstractGatewayFilterFactory<Authentic
         };
     }
 
-    private Mono<ValidateTokenResponse> validateToken(String token) {
-        return webClientBuilder.build()
-                .post()
-                .uri("lb://auth-service/api/auth/validate")
-                .header(HttpHeaders.CONTENT_TYPE, "application/json")
-                .bodyValue(new ValidateTokenRequest(token))
-                .retrieve()
-                .bodyToMono(ValidateTokenResponse.class);
-    }
-
     private boolean isPublicPath(String path) {
         return path.startsWith("/api/auth/")
             || path.startsWith("/actuator/");
@@ -112,50 +111,4 @@ public class AuthenticationFilter extends AbstractGatewayFilterFactory<Authentic
 
     }
 
-    private static class ValidateTokenRequest {
-        private String token;
-
-        public ValidateTokenRequest(String token) {
-            this.token = token;
-        }
-
-        public String getToken() {
-            return token;
-        }
-
-        public void setToken(String token) {
-            this.token = token;
-        }
-    }
-
-    private static class ValidateTokenResponse {
-        private Long userId;
-        private String email;
-        private String role;
-
-        public Long getUserId() {
-            return userId;
-        }
-
-        public void setUserId(Long userId) {
-            this.userId = userId;
-        }
-
-        public String getEmail() {
-            return email;
-        }
-
-        public void setEmail(String email) {
-            this.email = email;
-        }
-
-        public String getRole() {
-            return role;
-        }
-
-        public void setRole(String role) {
-            this.role = role;
-        }
-    }
-
 }
@@ -0,0 +1,9 @@
+package dot.liberty.gateway.validation;
+
+public class InvalidTokenException extends RuntimeException {
+
+    public InvalidTokenException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,173 @@
+package dot.liberty.gateway.validation;
+
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.security.PublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Public signing keys of auth-service, indexed by key id.
+ * <p>
+ * The JWKS document is refreshed periodically with If-None-Match and on
+ * demand when a token refers to an unknown key id. On-demand refreshes
+ * are rate limited and concurrent ones share a single request.
+ */
+@Component
+@ConditionalOnProperty(
+        name = "gateway.auth.validation-mode",
+        havingValue = "local",
+        matchIfMissing = true)
+@Slf4j
+public class JwksKeySource {
+
+    private final WebClient webClient;
+    private final String jwksUri;
+
+    private final Duration refreshInterval;
+    private final Duration minRefreshInterval;
+
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private volatile String eTag;
+    private volatile Instant lastRefreshAt = Instant.EPOCH;
+
+    private final AtomicReference<Mono<Void>> inFlightRefresh = new AtomicReference<>();
+    private Disposable scheduledRefresh;
+
+    public JwksKeySource(
+            WebClient.Builder webClientBuilder,
+            @Value("${gateway.auth.jwks.uri:lb://auth-service/api/auth/.well-known/jwks.json}") String jwksUri,
+            @Value("${gateway.auth.jwks.refresh-interval:5m}") Duration refreshInterval,
+            @Value("${gateway.auth.jwks.min-refresh-interval:10s}") Duration minRefreshInterval) {
+
+        this.webClient = webClientBuilder.clone()
+                .build();
+
+        this.jwksUri = jwksUri;
+        this.refreshInterval = refreshInterval;
+        this.minRefreshInterval = minRefreshInterval;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startScheduledRefresh() {
+        scheduledRefresh = Flux.interval(Duration.ZERO, refreshInterval)
+                .concatMap(tick -> fetch())
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stopScheduledRefresh() {
+        if (scheduledRefresh != null) {
+            scheduledRefresh.dispose();
+        }
+    }
+
+    public Optional<PublicKey> findKey(String keyId) {
+        return Optional.ofNullable(keys.get(keyId));
+    }
+
+    /**
+     * Refreshes the keys unless that was done less than
+     * the minimal refresh interval ago.
+     */
+    public Mono<Void> refresh() {
+        if (lastRefreshAt.plus(minRefreshInterval).isAfter(Instant.now())) {
+            return Mono.empty();
+        }
+
+        Mono<Void> existing = inFlightRefresh.get();
+
+        if (existing != null) {
+            return existing;
+        }
+
+        Mono<Void> refresh = fetch()
+                .doFinally(signal -> inFlightRefresh.set(null))
+                .share();
+
+        return inFlightRefresh.compareAndSet(null, refresh)
+                ? refresh
+                : Optional.ofNullable(inFlightRefresh.get()).orElse(Mono.empty());
+    }
+
+    private Mono<Void> fetch() {
+        return Mono.defer(() -> {
+                    lastRefreshAt = Instant.now();
+
+                    return requestKeys();
+                })
+                .onErrorResume(error -> {
+                    log.warn("Failed to refresh JWKS from {}: {}", jwksUri, error.getMessage());
+
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> requestKeys() {
+        return webClient.get()
+                .uri(jwksUri)
+                .headers(headers -> {
+                    if (eTag != null) {
+                        headers.setIfNoneMatch(eTag);
+                    }
+                })
+                .exchangeToMono(response -> {
+                    if (response.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                        return response.releaseBody();
+                    }
+
+                    if (response.statusCode().isError()) {
+                        return response.createError();
+                    }
+
+                    String newETag = response.headers()
+                            .asHttpHeaders()
+                            .getETag();
+
+                    return response.bodyToMono(String.class)
+                            .doOnNext(json -> {
+                                keys = parse(json);
+                                eTag = newETag;
+
+                                log.info("JWKS refreshed, key ids: {}", keys.keySet());
+                            })
+                            .then();
+                });
+    }
+
+    private static Map<String, PublicKey> parse(String json) {
+        JwkSet jwkSet = Jwks.setParser()
+                .build()
+                .parse(json);
+
+        Map<String, PublicKey> parsedKeys = new HashMap<>();
+
+        for (Jwk<?> jwk : jwkSet.getKeys()) {
+            if (jwk instanceof PublicJwk<?> publicJwk && publicJwk.getId() != null) {
+                parsedKeys.put(publicJwk.getId(), publicJwk.toKey());
+            }
+        }
+
+        return Map.copyOf(parsedKeys);
+    }
+
+}
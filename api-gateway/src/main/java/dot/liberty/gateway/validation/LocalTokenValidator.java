@@ -0,0 +1,107 @@
+package dot.liberty.gateway.validation;
+
+import dot.liberty.gateway.dto.ValidateTokenResponse;
+import io.jsonwebtoken.*;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Date;
+
+/**
+ * Verifies tokens in-process against the public keys that auth-service
+ * publishes as JWKS, so protected routes don't need a call to auth-service.
+ * <p>
+ * A token signed with a key id the gateway doesn't know yet triggers
+ * one JWKS refresh before it is rejected.
+ */
+@Component
+@ConditionalOnProperty(
+        name = "gateway.auth.validation-mode",
+        havingValue = "local",
+        matchIfMissing = true)
+public class LocalTokenValidator implements TokenValidator {
+
+    private final JwksKeySource keySource;
+
+    /**
+     * Key of HS256 tokens issued before the key ring was introduced,
+     * or {@code null} when such tokens are no longer accepted.
+     */
+    private final SecretKey legacySigningKey;
+
+    private final JwtParser jwtParser;
+
+    public LocalTokenValidator(
+            JwksKeySource keySource,
+            @Value("${jwt.secret:}") String secret,
+            @Value("${jwt.legacy-hmac-verification:false}") boolean legacyHmacVerification) {
+
+        this.keySource = keySource;
+
+        this.legacySigningKey = legacyHmacVerification && StringUtils.hasText(secret)
+                ? Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8))
+                : null;
+
+        this.jwtParser = Jwts.parser()
+                .keyLocator(this::locateVerificationKey)
+                .build();
+    }
+
+    @Override
+    public Mono<ValidateTokenResponse> validate(String token) {
+        return Mono.fromCallable(() -> parse(token))
+                .onErrorResume(UnknownSigningKeyException.class, error -> keySource.refresh()
+                        .then(Mono.fromCallable(() -> parse(token))));
+    }
+
+    private Key locateVerificationKey(Header header) {
+        if (!(header instanceof JwsHeader jwsHeader)) {
+            throw new JwtException("Token is not signed");
+        }
+
+        String keyId = jwsHeader.getKeyId();
+
+        if (keyId == null) {
+            if (legacySigningKey == null) {
+                throw new JwtException("Token has no key id");
+            }
+
+            return legacySigningKey;
+        }
+
+        return keySource.findKey(keyId)
+                .orElseThrow(() -> new UnknownSigningKeyException(keyId));
+    }
+
+    private ValidateTokenResponse parse(String token) {
+        Claims claims = jwtParser.parseSignedClaims(token)
+                .getPayload();
+
+        Long userId = claims.get("userId", Long.class);
+        String email = claims.getSubject();
+        String role = claims.get("role", String.class);
+
+        Date expiration = claims.getExpiration();
+
+        if (userId == null || email == null || role == null
+                || expiration == null) {
+            throw new JwtException("Token doesn't contain required claims");
+        }
+
+        return ValidateTokenResponse.builder()
+                .tokenId(claims.getId())
+                .userId(userId)
+                .email(email)
+                .role(role)
+                .expiresAt(expiration.toInstant())
+                .build();
+    }
+
+}
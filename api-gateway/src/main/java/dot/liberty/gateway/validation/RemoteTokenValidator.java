@@ -0,0 +1,39 @@
+package dot.liberty.gateway.validation;
+
+import dot.liberty.gateway.dto.ValidateTokenRequest;
+import dot.liberty.gateway.dto.ValidateTokenResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Delegates validation to auth-service. Kept as a fallback mode
+ * for setups where the gateway must not hold the signing key.
+ */
+@Component
+@ConditionalOnProperty(
+        name = "gateway.auth.validation-mode",
+        havingValue = "remote")
+public class RemoteTokenValidator implements TokenValidator {
+
+    private final WebClient authServiceClient;
+
+    public RemoteTokenValidator(WebClient.Builder webClientBuilder) {
+        this.authServiceClient = webClientBuilder.clone()
+                .baseUrl("lb://auth-service")
+                .build();
+    }
+
+    @Override
+    public Mono<ValidateTokenResponse> validate(String token) {
+        return authServiceClient.post()
+                .uri("/api/auth/validate")
+                .header(HttpHeaders.CONTENT_TYPE, "application/json")
+                .bodyValue(new ValidateTokenRequest(token))
+                .retrieve()
+                .bodyToMono(ValidateTokenResponse.class);
+    }
+
+}
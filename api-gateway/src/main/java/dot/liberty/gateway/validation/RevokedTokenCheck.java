@@ -0,0 +1,156 @@
+package dot.liberty.gateway.validation;
+
+import dot.liberty.gateway.dto.ValidateTokenResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rejects tokens that auth-service revoked before they expired, e.g. on
+ * logout or refresh token reuse.
+ * <p>
+ * Runs on every request after {@link TokenValidationCache}, since a
+ * cached validation doesn't know about later revocations, and checks
+ * an in-memory set of revoked token ids without any I/O. auth-service
+ * spreads revocations through Redis: the set is loaded from a sorted
+ * set on startup and every resync interval, and kept current between
+ * loads by a pub/sub channel. While Redis is down known revocations
+ * stay in force; new ones arrive once it is back.
+ */
+@Component
+@Slf4j
+public class RevokedTokenCheck {
+
+    /**
+     * Written by auth-service's RevokedTokenRegistry, keep both in sync.
+     */
+    private static final String KEY = "auth:revoked-tokens";
+    private static final String CHANNEL = "auth:revoked-tokens";
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final Duration resyncInterval;
+
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+
+    private final Counter syncFailedCounter;
+
+    private Disposable subscription;
+    private Disposable scheduledResync;
+
+    public RevokedTokenCheck(
+            ReactiveStringRedisTemplate redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${gateway.auth.revoked-tokens.resync-interval:1m}") Duration resyncInterval) {
+
+        this.redisTemplate = redisTemplate;
+        this.resyncInterval = resyncInterval;
+
+        Gauge.builder("gateway.revoked-tokens.size", revoked, Map::size)
+                .description("Revoked access tokens that have not expired yet")
+                .register(meterRegistry);
+
+        this.syncFailedCounter = Counter.builder("gateway.revoked-tokens.sync.failed")
+                .description("Failed loads of, or subscriptions to, the revoked token ids")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startSync() {
+        subscription = redisTemplate.listenToChannel(CHANNEL)
+                .doOnNext(message -> add(message.getMessage()))
+                .doOnError(error -> {
+                    log.warn("Lost the token revocation channel: {}", error.getMessage());
+                    syncFailedCounter.increment();
+                })
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(resyncInterval))
+                .subscribe();
+
+        scheduledResync = Flux.interval(Duration.ZERO, resyncInterval)
+                .concatMap(tick -> resync())
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stopSync() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+
+        if (scheduledResync != null) {
+            scheduledResync.dispose();
+        }
+    }
+
+    public Mono<ValidateTokenResponse> check(ValidateTokenResponse response) {
+        return isRevoked(response.getTokenId())
+                ? Mono.error(new InvalidTokenException("Token was revoked"))
+                : Mono.just(response);
+    }
+
+    /**
+     * Loads the revocations that haven't expired and forgets the ones
+     * that have.
+     */
+    Mono<Void> resync() {
+        return Mono.defer(() -> {
+                    Instant now = Instant.now();
+
+                    return redisTemplate.opsForZSet()
+                            .rangeByScoreWithScores(KEY, Range.closed((double) now.toEpochMilli(), Double.MAX_VALUE))
+                            .doOnNext(tuple -> revoked.put(
+                                    tuple.getValue(),
+                                    Instant.ofEpochMilli(tuple.getScore().longValue())))
+                            .then()
+                            .doFinally(signal -> revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now)));
+                })
+                .onErrorResume(error -> {
+                    log.warn("Can't load revoked tokens: {}", error.getMessage());
+                    syncFailedCounter.increment();
+
+                    return Mono.empty();
+                });
+    }
+
+    private boolean isRevoked(String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+
+        Instant expiresAt = revoked.get(tokenId);
+
+        return expiresAt != null && expiresAt.isAfter(Instant.now());
+    }
+
+    /**
+     * Published by auth-service as {@code <expires at epoch millis>:<jti>}.
+     */
+    private void add(String message) {
+        int separator = message.indexOf(':');
+
+        try {
+            long expiresAt = Long.parseLong(message.substring(0, separator));
+
+            revoked.put(message.substring(separator + 1), Instant.ofEpochMilli(expiresAt));
+        } catch (RuntimeException e) {
+            log.warn("Ignoring malformed token revocation \"{}\"", message);
+        }
+    }
+
+}
@@ -0,0 +1,172 @@
+package dot.liberty.gateway.validation;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import dot.liberty.gateway.dto.ValidateTokenResponse;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of validation results keyed by the SHA-256 hash of a token.
+ * <p>
+ * Accepted tokens are kept until their own expiration, rejected tokens
+ * only for a short negative TTL. Transport failures are never cached.
+ * <p>
+ * A miss installs the pending validation in the cache in the same atomic
+ * step as the lookup, so concurrent misses for the same token share one
+ * upstream call. The validation runs to completion even if every waiting
+ * request cancels, so its result can still be cached.
+ */
+@Component
+public class TokenValidationCache {
+
+    private static final String CACHE_NAME = "gateway.token-validation";
+
+    private final AsyncCache<String, CachedValidation> cache;
+    private final Duration negativeTtl;
+
+    private final Counter coalescedCounter;
+
+    public TokenValidationCache(
+            @Value("${gateway.auth.cache.maximum-size:100000}") long maximumSize,
+            @Value("${gateway.auth.cache.negative-ttl:10s}") Duration negativeTtl,
+            MeterRegistry meterRegistry) {
+
+        this.negativeTtl = negativeTtl;
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new CachedValidationExpiry())
+                .recordStats()
+                .buildAsync();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+
+        this.coalescedCounter = Counter.builder(CACHE_NAME + ".coalesced")
+                .description("Validations that joined an in-flight validation of the same token")
+                .register(meterRegistry);
+    }
+
+    public Mono<ValidateTokenResponse> getOrValidate(
+            String token,
+            Function<String, Mono<ValidateTokenResponse>> validator) {
+
+        return Mono.defer(() -> {
+            AtomicBoolean loaded = new AtomicBoolean();
+
+            CompletableFuture<CachedValidation> validation = cache.get(hash(token), (key, executor) -> {
+                loaded.set(true);
+
+                return validate(token, validator);
+            });
+
+            if (!loaded.get() && !validation.isDone()) {
+                coalescedCounter.increment();
+            }
+
+            return Mono.fromFuture(validation, true)
+                    .flatMap(CachedValidation::toMono);
+        });
+    }
+
+    private CompletableFuture<CachedValidation> validate(
+            String token,
+            Function<String, Mono<ValidateTokenResponse>> validator) {
+
+        return Mono.defer(() -> validator.apply(token))
+                .map(this::accepted)
+                .onErrorResume(this::isRejection, this::rejected)
+                .toFuture();
+    }
+
+    private Mono<CachedValidation> rejected(Throwable error) {
+        Instant expiresAt = Instant.now()
+                .plus(negativeTtl);
+
+        return Mono.just(new CachedValidation(null, expiresAt));
+    }
+
+    private CachedValidation accepted(ValidateTokenResponse response) {
+        Instant expiresAt = response.getExpiresAt();
+
+        // A response without remaining lifetime still answers the requests
+        // waiting for it, but expires from the cache immediately
+        return new CachedValidation(response, expiresAt != null ? expiresAt : Instant.EPOCH);
+    }
+
+    private boolean isRejection(Throwable error) {
+        if (error instanceof WebClientResponseException responseException) {
+            return responseException.getStatusCode()
+                    .is4xxClientError();
+        }
+
+        return error instanceof JwtException;
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8));
+
+            return Base64.getEncoder()
+                    .encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record CachedValidation(ValidateTokenResponse response, Instant expiresAt) {
+
+        Mono<ValidateTokenResponse> toMono() {
+            if (response == null) {
+                return Mono.error(new InvalidTokenException("Token was rejected recently"));
+            }
+
+            return Mono.just(response);
+        }
+
+    }
+
+    private static class CachedValidationExpiry implements Expiry<String, CachedValidation> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedValidation value, long currentTime) {
+            Duration timeLeft = Duration.between(Instant.now(), value.expiresAt());
+
+            return Math.max(0, timeLeft.toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedValidation value,
+                                      long currentTime, long currentDuration) {
+
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedValidation value,
+                                    long currentTime, long currentDuration) {
+
+            return currentDuration;
+        }
+
+    }
+
+}
@@ -0,0 +1,16 @@
+package dot.liberty.gateway.validation;
+
+import dot.liberty.gateway.dto.ValidateTokenResponse;
+import reactor.core.publisher.Mono;
+
+/**
+ * Checks a bearer token and resolves the user it was issued for.
+ * <p>
+ * Implementations signal an error when the token is malformed,
+ * has an invalid signature or is expired.
+ */
+public interface TokenValidator {
+
+    Mono<ValidateTokenResponse> validate(String token);
+
+}
@@ -0,0 +1,11 @@
+package dot.liberty.gateway.validation;
+
+import io.jsonwebtoken.JwtException;
+
+public class UnknownSigningKeyException extends JwtException {
+
+    public UnknownSigningKeyException(String keyId) {
+        super("Unknown signing key id: " + keyId);
+    }
+
+}
@@ -0,0 +1,139 @@
+package dot.liberty.gateway.validation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dot.liberty.gateway.dto.ValidateTokenResponse;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalTokenValidatorTests {
+
+	private static final String SECRET = "gateway-test-secret-gateway-test-secret-gateway";
+
+	private final KeyPair publishedKey = Jwts.SIG.ES256.keyPair().build();
+	private final KeyPair otherKey = Jwts.SIG.ES256.keyPair().build();
+
+	private final AtomicInteger jwksRequests = new AtomicInteger();
+
+	private final JwksKeySource keySource = new JwksKeySource(
+			WebClient.builder().exchangeFunction(request -> {
+				jwksRequests.incrementAndGet();
+
+				return Mono.just(ClientResponse.create(HttpStatus.OK)
+						.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+						.body(jwks())
+						.build());
+			}),
+			"http://auth-service/api/auth/.well-known/jwks.json",
+			Duration.ofMinutes(5),
+			Duration.ofSeconds(10));
+
+	private final LocalTokenValidator validator = new LocalTokenValidator(keySource, SECRET, true);
+
+	@Test
+	void tokenSignedWithAPublishedKeyResolvesItsUser() {
+		ValidateTokenResponse response = validator.validate(token("key-1", publishedKey.getPrivate(), 60_000)).block();
+
+		assertNotNull(response);
+		assertEquals("jti-1", response.getTokenId());
+		assertEquals(42L, response.getUserId());
+		assertEquals("user@dot.liberty", response.getEmail());
+		assertEquals("CUSTOMER", response.getRole());
+		assertNotNull(response.getExpiresAt());
+	}
+
+	@Test
+	void expiredTokenIsRejected() {
+		String token = token("key-1", publishedKey.getPrivate(), -60_000);
+
+		assertThrows(ExpiredJwtException.class, () -> validator.validate(token).block());
+	}
+
+	@Test
+	void tokenSignedWithAnotherKeyIsRejected() {
+		String token = token("key-1", otherKey.getPrivate(), 60_000);
+
+		assertThrows(SignatureException.class, () -> validator.validate(token).block());
+	}
+
+	@Test
+	void unknownKeyIdIsRejectedAfterOneJwksRefresh() {
+		String token = token("key-2", otherKey.getPrivate(), 60_000);
+
+		assertThrows(UnknownSigningKeyException.class, () -> validator.validate(token).block());
+		assertThrows(UnknownSigningKeyException.class, () -> validator.validate(token).block());
+
+		assertEquals(1, jwksRequests.get());
+	}
+
+	@Test
+	void legacyHmacTokenIsAcceptedOnlyWhileEnabled() {
+		String token = Jwts.builder()
+				.claim("userId", 42L)
+				.claim("role", "CUSTOMER")
+				.subject("user@dot.liberty")
+				.expiration(new Date(System.currentTimeMillis() + 60_000))
+				.signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+				.compact();
+
+		assertNotNull(validator.validate(token).block());
+
+		LocalTokenValidator withoutLegacy = new LocalTokenValidator(keySource, SECRET, false);
+
+		assertThrows(JwtException.class, () -> withoutLegacy.validate(token).block());
+	}
+
+	@Test
+	void tokenWithoutRequiredClaimsIsRejected() {
+		String token = Jwts.builder()
+				.header().keyId("key-1").and()
+				.subject("user@dot.liberty")
+				.expiration(new Date(System.currentTimeMillis() + 60_000))
+				.signWith(publishedKey.getPrivate(), Jwts.SIG.ES256)
+				.compact();
+
+		assertThrows(JwtException.class, () -> validator.validate(token).block());
+	}
+
+	private String jwks() {
+		try {
+			return new ObjectMapper().writeValueAsString(Jwks.set()
+					.add(Jwks.builder().key(publishedKey.getPublic()).id("key-1").build())
+					.build());
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String token(String keyId, PrivateKey signingKey, long expiresInMillis) {
+		return Jwts.builder()
+				.header().keyId(keyId).and()
+				.id("jti-1")
+				.claim("userId", 42L)
+				.claim("role", "CUSTOMER")
+				.subject("user@dot.liberty")
+				.expiration(new Date(System.currentTimeMillis() + expiresInMillis))
+				.signWith(signingKey, Jwts.SIG.ES256)
+				.compact();
+	}
+
+}
@@ -0,0 +1,57 @@
+package dot.liberty.gateway.validation;
+
+import dot.liberty.gateway.dto.ValidateTokenResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RemoteTokenValidatorTests {
+
+	private final List<URI> requested = new ArrayList<>();
+
+	private final WebClient.Builder sharedBuilder = WebClient.builder()
+			.exchangeFunction(request -> {
+				requested.add(request.url());
+
+				return Mono.just(ClientResponse.create(HttpStatus.OK)
+						.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+						.body("{\"userId\":1,\"email\":\"user@dot.liberty\",\"role\":\"CUSTOMER\"}")
+						.build());
+			});
+
+	@Test
+	void callsAuthServiceThroughTheLoadBalancer() {
+		RemoteTokenValidator validator = new RemoteTokenValidator(sharedBuilder);
+
+		ValidateTokenResponse response = validator.validate("token").block();
+
+		assertNotNull(response);
+		assertEquals(1L, response.getUserId());
+		assertEquals(URI.create("lb://auth-service/api/auth/validate"), requested.getFirst());
+	}
+
+	@Test
+	void leavesTheSharedBuilderUnchanged() {
+		new RemoteTokenValidator(sharedBuilder);
+
+		sharedBuilder.build()
+				.get()
+				.uri("/api/orders")
+				.retrieve()
+				.toBodilessEntity()
+				.block();
+
+		assertEquals(URI.create("/api/orders"), requested.getFirst());
+	}
+
+}
@@ -0,0 +1,120 @@
+package dot.liberty.gateway.validation;
+
+import dot.liberty.gateway.dto.ValidateTokenResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveZSetOperations;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RevokedTokenCheckTests {
+
+	@SuppressWarnings("unchecked")
+	private final ReactiveZSetOperations<String, String> zSet = mock(ReactiveZSetOperations.class);
+	private final ReactiveStringRedisTemplate redisTemplate = mock(ReactiveStringRedisTemplate.class);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final RevokedTokenCheck check = new RevokedTokenCheck(redisTemplate, meterRegistry, Duration.ofMinutes(1));
+
+	@BeforeEach
+	void setUp() {
+		when(redisTemplate.opsForZSet()).thenReturn(zSet);
+	}
+
+	@AfterEach
+	void tearDown() {
+		check.stopSync();
+	}
+
+	@Test
+	void revokedTokenIsRejectedWithoutAskingRedis() {
+		loads(revocation("jti-1", Instant.now().plusSeconds(60)));
+		check.resync().block();
+
+		clearInvocations(redisTemplate, zSet);
+
+		assertThrows(InvalidTokenException.class, () -> check.check(response("jti-1")).block());
+
+		ValidateTokenResponse other = response("jti-2");
+
+		assertSame(other, check.check(other).block());
+		verifyNoInteractions(redisTemplate, zSet);
+	}
+
+	@Test
+	void revocationPublishedByAuthServiceIsApplied() {
+		long expiresAt = Instant.now().plusSeconds(60).toEpochMilli();
+
+		loads();
+		doReturn(Flux.just(
+				new ReactiveSubscription.ChannelMessage<>("auth:revoked-tokens", expiresAt + ":jti-1"),
+				new ReactiveSubscription.ChannelMessage<>("auth:revoked-tokens", "not-a-revocation")))
+				.when(redisTemplate).listenToChannel("auth:revoked-tokens");
+
+		check.startSync();
+
+		assertThrows(InvalidTokenException.class, () -> check.check(response("jti-1")).block());
+	}
+
+	@Test
+	void tokenWithoutIdPasses() {
+		ValidateTokenResponse response = response(null);
+
+		assertSame(response, check.check(response).block());
+	}
+
+	@Test
+	void expiredRevocationsAreForgotten() {
+		loads(revocation("jti-1", Instant.now().minusSeconds(1)));
+		check.resync().block();
+
+		ValidateTokenResponse response = response("jti-1");
+
+		assertSame(response, check.check(response).block());
+	}
+
+	@Test
+	void knownRevocationsStayInForceWhileRedisIsDown() {
+		loads(revocation("jti-1", Instant.now().plusSeconds(60)));
+		check.resync().block();
+
+		when(zSet.rangeByScoreWithScores(eq("auth:revoked-tokens"), any()))
+				.thenReturn(Flux.error(new RedisConnectionFailureException("connection refused")));
+		check.resync().block();
+
+		assertThrows(InvalidTokenException.class, () -> check.check(response("jti-1")).block());
+		assertEquals(1, meterRegistry.get("gateway.revoked-tokens.sync.failed").counter().count());
+	}
+
+	@SafeVarargs
+	private void loads(DefaultTypedTuple<String>... revocations) {
+		when(zSet.rangeByScoreWithScores(eq("auth:revoked-tokens"), any())).thenReturn(Flux.just(revocations));
+	}
+
+	private static DefaultTypedTuple<String> revocation(String tokenId, Instant expiresAt) {
+		return new DefaultTypedTuple<>(tokenId, (double) expiresAt.toEpochMilli());
+	}
+
+	private static ValidateTokenResponse response(String tokenId) {
+		return ValidateTokenResponse.builder()
+				.tokenId(tokenId)
+				.userId(42L)
+				.email("user@dot.liberty")
+				.role("CUSTOMER")
+				.build();
+	}
+
+}
@@ -0,0 +1,192 @@
+package dot.liberty.gateway.validation;
+
+import dot.liberty.gateway.dto.ValidateTokenResponse;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenValidationCacheTests {
+
+	private final TokenValidationCache cache = new TokenValidationCache(
+			100, Duration.ofSeconds(10), new SimpleMeterRegistry());
+
+	@Test
+	void concurrentValidationsOfSameTokenShareOneUpstreamCall() {
+		AtomicInteger calls = new AtomicInteger();
+		Sinks.One<ValidateTokenResponse> upstream = Sinks.one();
+
+		AtomicReference<ValidateTokenResponse> first = new AtomicReference<>();
+		AtomicReference<ValidateTokenResponse> second = new AtomicReference<>();
+
+		cache.getOrValidate("token", token -> countedCall(calls, upstream)).subscribe(first::set);
+		cache.getOrValidate("token", token -> countedCall(calls, upstream)).subscribe(second::set);
+
+		upstream.tryEmitValue(response());
+
+		assertEquals(1, calls.get());
+		assertNotNull(first.get());
+		assertSame(first.get(), second.get());
+	}
+
+	@Test
+	void concurrentMissesFromManyThreadsMakeOneUpstreamCall() throws InterruptedException {
+		int threads = 16;
+		AtomicInteger calls = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(threads);
+		AtomicInteger accepted = new AtomicInteger();
+
+		Function<String, Mono<ValidateTokenResponse>> slowUpstream = token -> {
+			calls.incrementAndGet();
+			return Mono.delay(Duration.ofMillis(100)).map(ignored -> response());
+		};
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+		try {
+			for (int i = 0; i < threads; i++) {
+				executor.execute(() -> {
+					try {
+						start.await();
+
+						if (cache.getOrValidate("token", slowUpstream).block() != null) {
+							accepted.incrementAndGet();
+						}
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					} finally {
+						done.countDown();
+					}
+				});
+			}
+
+			start.countDown();
+
+			assertTrue(done.await(5, TimeUnit.SECONDS));
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(1, calls.get());
+		assertEquals(threads, accepted.get());
+	}
+
+	@Test
+	void cancelledSubscriberDoesNotCancelOthers() {
+		AtomicInteger calls = new AtomicInteger();
+		Sinks.One<ValidateTokenResponse> upstream = Sinks.one();
+
+		AtomicReference<ValidateTokenResponse> survivor = new AtomicReference<>();
+
+		Disposable cancelled = cache.getOrValidate("token", token -> countedCall(calls, upstream))
+				.subscribe();
+		cache.getOrValidate("token", token -> countedCall(calls, upstream))
+				.subscribe(survivor::set);
+
+		cancelled.dispose();
+		upstream.tryEmitValue(response());
+
+		assertEquals(1, calls.get());
+		assertNotNull(survivor.get());
+	}
+
+	@Test
+	void acceptedTokenIsServedFromCache() {
+		AtomicInteger calls = new AtomicInteger();
+
+		cache.getOrValidate("token", token -> {
+			calls.incrementAndGet();
+			return Mono.just(response());
+		}).block();
+
+		ValidateTokenResponse cached = cache.getOrValidate("token", token -> {
+			calls.incrementAndGet();
+			return Mono.just(response());
+		}).block();
+
+		assertEquals(1, calls.get());
+		assertNotNull(cached);
+	}
+
+	@Test
+	void rejectedTokenIsNegativelyCached() {
+		AtomicInteger calls = new AtomicInteger();
+
+		for (int i = 0; i < 2; i++) {
+			Mono<ValidateTokenResponse> validation = cache.getOrValidate("token", token -> {
+				calls.incrementAndGet();
+				return Mono.error(new JwtException("bad signature"));
+			});
+
+			assertThrows(RuntimeException.class, validation::block);
+		}
+
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	void transportFailureIsNotCached() {
+		AtomicInteger calls = new AtomicInteger();
+
+		for (int i = 0; i < 2; i++) {
+			Mono<ValidateTokenResponse> validation = cache.getOrValidate("token", token -> {
+				calls.incrementAndGet();
+				return Mono.error(new IOException("connection reset"));
+			});
+
+			assertThrows(RuntimeException.class, validation::block);
+		}
+
+		assertEquals(2, calls.get());
+	}
+
+	@Test
+	void responseWithoutRemainingLifetimeIsNotCached() {
+		AtomicInteger calls = new AtomicInteger();
+		ValidateTokenResponse expired = response();
+		expired.setExpiresAt(Instant.now().minusSeconds(1));
+
+		for (int i = 0; i < 2; i++) {
+			cache.getOrValidate("token", token -> {
+				calls.incrementAndGet();
+				return Mono.just(expired);
+			}).block();
+		}
+
+		assertEquals(2, calls.get());
+	}
+
+	private static Mono<ValidateTokenResponse> countedCall(
+			AtomicInteger calls, Sinks.One<ValidateTokenResponse> upstream) {
+
+		calls.incrementAndGet();
+
+		return upstream.asMono();
+	}
+
+	private static ValidateTokenResponse response() {
+		return ValidateTokenResponse.builder()
+				.userId(1L)
+				.email("user@dot.liberty")
+				.role("CUSTOMER")
+				.expiresAt(Instant.now().plus(Duration.ofHours(1)))
+				.build();
+	}
+
+}
@@ -0,0 +1,281 @@
+package dot.liberty.auth.cache;
+
+import dot.liberty.auth.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter of registered emails.
+ * <p>
+ * "Absent" answers are definite for emails registered through this
+ * instance or present at the last rebuild, so register can skip the
+ * existence query for them. Registrations on other instances show up
+ * after the next rebuild; until then the unique constraint on
+ * users.email is what rejects a duplicate.
+ * <p>
+ * Rebuilds stream the whole users table, so they run on their own
+ * thread instead of the shared {@code @Scheduled} one.
+ */
+@Component
+@Slf4j
+public class EmailBloomFilter {
+
+    private static final String METRIC_NAME = "auth.email-bloom-filter";
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Duration rebuildInterval;
+    private final ScheduledExecutorService rebuildExecutor;
+
+    private final int bitCount;
+    private final int hashCount;
+
+    /**
+     * Held shared by {@link #put} and exclusively while a rebuild starts
+     * or swaps filters, so no put lands only in the discarded filter.
+     */
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    private volatile AtomicLongArray bits;
+    private volatile AtomicLongArray rebuildingBits;
+
+    private volatile boolean ready;
+
+    private final Counter absentCounter;
+    private final Counter mightContainCounter;
+
+    public EmailBloomFilter(
+            UserRepository userRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${email-bloom-filter.expected-insertions:1000000}") long expectedInsertions,
+            @Value("${email-bloom-filter.false-positive-probability:0.01}") double falsePositiveProbability,
+            @Value("${email-bloom-filter.rebuild-interval:1h}") Duration rebuildInterval) {
+
+        this.userRepository = userRepository;
+        this.rebuildInterval = rebuildInterval;
+
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        this.rebuildExecutor = Executors.newSingleThreadScheduledExecutor(
+                new CustomizableThreadFactory("email-bloom-filter-"));
+
+        long optimalBits = (long) Math.ceil(
+                -expectedInsertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+
+        this.bitCount = (int) Math.min(Math.max(optimalBits, Long.SIZE), Integer.MAX_VALUE - Long.SIZE);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+
+        this.bits = newBits();
+
+        Gauge.builder(METRIC_NAME + ".false-positive-rate", this, EmailBloomFilter::estimatedFalsePositiveRate)
+                .description("Estimated false positive rate from the share of set bits")
+                .register(meterRegistry);
+
+        Gauge.builder(METRIC_NAME + ".memory", this, filter -> filter.bits.length() * (double) Long.BYTES)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        this.absentCounter = Counter.builder(METRIC_NAME + ".checks")
+                .tag("result", "absent")
+                .register(meterRegistry);
+
+        this.mightContainCounter = Counter.builder(METRIC_NAME + ".checks")
+                .tag("result", "might-contain")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return {@code false} only if the email is definitely not registered
+     */
+    public boolean mightContain(String email) {
+        if (!ready) {
+            return true;
+        }
+
+        boolean mightContain = contains(bits, email);
+
+        (mightContain ? mightContainCounter : absentCounter).increment();
+
+        return mightContain;
+    }
+
+    public void put(String email) {
+        swapLock.readLock().lock();
+
+        try {
+            add(bits, email);
+
+            AtomicLongArray rebuilding = rebuildingBits;
+
+            if (rebuilding != null) {
+                add(rebuilding, email);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        rebuildExecutor.scheduleWithFixedDelay(
+                this::rebuildSafely, 0, rebuildInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    /**
+     * Builds a fresh filter from the users table and swaps it in.
+     * Emails put while the rebuild runs are added to both filters.
+     */
+    public void rebuild() {
+        AtomicLongArray rebuilding = newBits();
+        setRebuildingBits(rebuilding);
+
+        LongAdder count = new LongAdder();
+
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<String> emails = userRepository.streamAllEmails()) {
+                    emails.forEach(email -> {
+                        add(rebuilding, email);
+                        count.increment();
+                    });
+                }
+            });
+        } catch (RuntimeException e) {
+            setRebuildingBits(null);
+
+            throw e;
+        }
+
+        swapLock.writeLock().lock();
+
+        try {
+            bits = rebuilding;
+            rebuildingBits = null;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        ready = true;
+
+        log.info("Email bloom filter rebuilt with {} emails, estimated false positive rate {}",
+                count, estimatedFalsePositiveRate());
+    }
+
+    private void rebuildSafely() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("Email bloom filter rebuild failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void setRebuildingBits(AtomicLongArray rebuilding) {
+        swapLock.writeLock().lock();
+
+        try {
+            rebuildingBits = rebuilding;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    private double estimatedFalsePositiveRate() {
+        AtomicLongArray current = bits;
+
+        long setBits = 0;
+
+        for (int i = 0; i < current.length(); i++) {
+            setBits += Long.bitCount(current.get(i));
+        }
+
+        return Math.pow((double) setBits / bitCount, hashCount);
+    }
+
+    private AtomicLongArray newBits() {
+        return new AtomicLongArray((bitCount + Long.SIZE - 1) / Long.SIZE);
+    }
+
+    private void add(AtomicLongArray target, String email) {
+        long hash1 = hash(email);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+
+        for (int i = 0; i < hashCount; i++) {
+            int bit = index(hash1 + i * hash2);
+
+            target.getAndUpdate(bit >>> 6, word -> word | (1L << bit));
+        }
+    }
+
+    private boolean contains(AtomicLongArray target, String email) {
+        long hash1 = hash(email);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+
+        for (int i = 0; i < hashCount; i++) {
+            int bit = index(hash1 + i * hash2);
+
+            if ((target.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private int index(long combinedHash) {
+        return (int) Long.remainderUnsigned(combinedHash, bitCount);
+    }
+
+    /**
+     * 64-bit FNV-1a over UTF-8 bytes, finished with the MurmurHash3 mixer.
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+
+        return mix(hash);
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb93fe53ec9b3L;
+        value ^= value >>> 33;
+
+        return value;
+    }
+
+}
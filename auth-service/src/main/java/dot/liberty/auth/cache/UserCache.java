@@ -0,0 +1,133 @@
+package dot.liberty.auth.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import dot.liberty.auth.entity.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded near-cache of users by email, including "not found" entries.
+ * <p>
+ * Keys are emails exactly as the users table compares them. Callers get
+ * copies, so changing a returned entity never changes the cached one.
+ * Entries of other instances are not invalidated, the TTLs bound how
+ * long they may stay stale.
+ */
+@Component
+public class UserCache {
+
+    private static final String CACHE_NAME = "auth.users";
+
+    private final boolean enabled;
+    private final Cache<String, Optional<User>> cache;
+
+    public UserCache(
+            @Value("${user-cache.enabled:true}") boolean enabled,
+            @Value("${user-cache.maximum-size:50000}") long maximumSize,
+            @Value("${user-cache.ttl:60s}") Duration ttl,
+            @Value("${user-cache.negative-ttl:5s}") Duration negativeTtl,
+            MeterRegistry meterRegistry) {
+
+        this.enabled = enabled;
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new UserExpiry(ttl, negativeTtl))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public Optional<User> findByEmail(String email, Function<String, Optional<User>> loader) {
+        if (!enabled) {
+            return loader.apply(email);
+        }
+
+        return cache.get(email, loader.andThen(user -> user.map(UserCache::copy)))
+                .map(UserCache::copy);
+    }
+
+    public boolean existsByEmail(String email, Supplier<Boolean> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        Optional<User> cached = cache.getIfPresent(email);
+
+        if (cached != null) {
+            return cached.isPresent();
+        }
+
+        boolean exists = loader.get();
+
+        if (!exists) {
+            cache.put(email, Optional.empty());
+        }
+
+        return exists;
+    }
+
+    /**
+     * Drops the entry now and once more after the current transaction
+     * completes, so a concurrent read can't cache the pre-commit state.
+     */
+    public void evict(String email) {
+        if (!enabled) {
+            return;
+        }
+
+        cache.invalidate(email);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(email);
+                }
+            });
+        }
+    }
+
+    private static User copy(User user) {
+        return user.toBuilder()
+                .build();
+    }
+
+    private record UserExpiry(Duration ttl, Duration negativeTtl) implements Expiry<String, Optional<User>> {
+
+        @Override
+        public long expireAfterCreate(String key, Optional<User> value, long currentTime) {
+            return value.isPresent()
+                    ? ttl.toNanos()
+                    : negativeTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Optional<User> value,
+                                      long currentTime, long currentDuration) {
+
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Optional<User> value,
+                                    long currentTime, long currentDuration) {
+
+            return currentDuration;
+        }
+
+    }
+
+}
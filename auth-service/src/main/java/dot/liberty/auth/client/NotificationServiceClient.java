@@ -1,14 +1,20 @@
 package dot.liberty.auth.client;
 
+import dot.liberty.auth.client.dto.SendBatchResponse;
 import dot.liberty.auth.client.dto.SendEmailRequest;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
+import java.util.List;
+
 @FeignClient(name = "notification-service")
 public interface NotificationServiceClient {
 
     @PostMapping("/api/notifications/send-email")
     void sendEmail(@RequestBody SendEmailRequest request);
 
+    @PostMapping("/api/notifications/send-batch")
+    SendBatchResponse sendBatch(@RequestBody List<SendEmailRequest> requests);
+
 }
@@ -0,0 +1,23 @@
+package dot.liberty.auth.client.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResult {
+
+    private int index;
+
+    private boolean accepted;
+    private String messageId;
+
+    private Map<String, String> errors;
+
+}
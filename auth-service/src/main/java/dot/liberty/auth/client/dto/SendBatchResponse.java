@@ -0,0 +1,21 @@
+package dot.liberty.auth.client.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SendBatchResponse {
+
+    private int accepted;
+    private int rejected;
+
+    private List<BatchItemResult> results;
+
+}
@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Map;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -14,5 +16,8 @@ public class SendEmailRequest {
     private String to;
     private String subject;
     private String body;
+    private String templateId;
+    private Map<String, String> params;
+    private String idempotencyKey;
 
 }
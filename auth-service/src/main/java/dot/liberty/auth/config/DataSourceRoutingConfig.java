@@ -0,0 +1,114 @@
+package dot.liberty.auth.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import dot.liberty.auth.datasource.ReadWriteRoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured pool with a primary pool and one pool
+ * per replica, routed by {@link ReadWriteRoutingDataSource}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource-routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    private static final String PRIMARY_POOL_NAME = "auth-primary";
+    private static final String REPLICA_POOL_NAME = "auth-replica-";
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(
+            DataSourceProperties primaryProperties,
+            DataSourceRoutingProperties routingProperties,
+            Environment environment,
+            MeterRegistry meterRegistry) {
+
+        HikariDataSource primary = primaryProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+
+        Binder.get(environment)
+                .bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+
+        primary.setPoolName(PRIMARY_POOL_NAME);
+        primary.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+        List<DataSource> replicas = new ArrayList<>();
+
+        for (DataSourceRoutingProperties.Replica replica : routingProperties.getReplicas()) {
+            replicas.add(createReplica(
+                    replica,
+                    primaryProperties,
+                    REPLICA_POOL_NAME + replicas.size(),
+                    meterRegistry));
+        }
+
+        return new ReadWriteRoutingDataSource(primary, replicas, meterRegistry);
+    }
+
+    /**
+     * The lazy proxy only fetches a connection on the first statement,
+     * after the transaction has been marked read-only, so the routing
+     * sees the flag.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * Hibernate otherwise keeps a session's connection until the session
+     * closes. A session that outlives one transaction (open-in-view) would
+     * then run a write on the replica it read from; releasing the
+     * connection after each transaction routes every transaction anew.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(
+                AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    private static HikariDataSource createReplica(
+            DataSourceRoutingProperties.Replica replica,
+            DataSourceProperties primaryProperties,
+            String poolName,
+            MeterRegistry meterRegistry) {
+
+        HikariDataSource dataSource = new HikariDataSource();
+
+        dataSource.setPoolName(poolName);
+        dataSource.setJdbcUrl(replica.getUrl());
+        dataSource.setDriverClassName(primaryProperties.determineDriverClassName());
+        dataSource.setUsername(StringUtils.hasText(replica.getUsername())
+                ? replica.getUsername()
+                : primaryProperties.determineUsername());
+        dataSource.setPassword(StringUtils.hasText(replica.getPassword())
+                ? replica.getPassword()
+                : primaryProperties.determinePassword());
+        dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+        dataSource.setReadOnly(true);
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+        return dataSource;
+    }
+
+}
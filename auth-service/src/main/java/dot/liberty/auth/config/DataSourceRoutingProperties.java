@@ -0,0 +1,34 @@
+package dot.liberty.auth.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas of {@code spring.datasource}.
+ * <p>
+ * Username and password default to the primary's when left empty.
+ */
+@Data
+@ConfigurationProperties(prefix = "datasource-routing")
+public class DataSourceRoutingProperties {
+
+    private boolean enabled;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Data
+    public static class Replica {
+
+        private String url;
+
+        private String username;
+        private String password;
+
+        private int maximumPoolSize = 10;
+
+    }
+
+}
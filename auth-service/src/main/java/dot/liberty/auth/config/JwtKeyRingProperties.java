@@ -0,0 +1,40 @@
+package dot.liberty.auth.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ES256 keys used to sign and verify tokens.
+ * <p>
+ * Keys are base64-encoded DER: PKCS#8 for private keys, X.509 for public keys.
+ * Retiring keys only need a public key and should stay in the ring until
+ * every token signed with them has expired.
+ */
+@Data
+@ConfigurationProperties(prefix = "jwt.key-ring")
+public class JwtKeyRingProperties {
+
+    private String activeKeyId;
+
+    /**
+     * Generate a throwaway key pair when no keys are configured. Tokens
+     * then don't survive a restart and can't be verified by other instances.
+     */
+    private boolean allowEphemeralKey;
+
+    private List<Key> keys = new ArrayList<>();
+
+    @Data
+    public static class Key {
+
+        private String id;
+
+        private String privateKey;
+        private String publicKey;
+
+    }
+
+}
@@ -0,0 +1,31 @@
+package dot.liberty.auth.config;
+
+import dot.liberty.auth.store.RevokedTokenRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Subscribes the revoked token registry to the revocations published
+ * by every auth-service instance. The container resubscribes on its
+ * own after Redis comes back.
+ */
+@Configuration
+public class RevokedTokenSyncConfig {
+
+    @Bean
+    public RedisMessageListenerContainer revokedTokenListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            RevokedTokenRegistry revokedTokenRegistry) {
+
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(revokedTokenRegistry, new ChannelTopic(RevokedTokenRegistry.CHANNEL));
+
+        return container;
+    }
+
+}
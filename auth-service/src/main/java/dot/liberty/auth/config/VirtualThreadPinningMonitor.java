@@ -0,0 +1,131 @@
+package dot.liberty.auth.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that block while pinned to their carrier,
+ * e.g. on I/O inside a {@code synchronized} block of a driver.
+ * <p>
+ * Listens to the JFR {@code jdk.VirtualThreadPinned} event in-process.
+ * The first pinning at a call site is logged with its stack trace,
+ * every pinning is recorded in the {@value #METRIC_NAME} timer.
+ * <p>
+ * The services are built and deployed on their own and share no library
+ * module, so notification-service keeps an identical copy; change both
+ * together.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+    private static final String METRIC_NAME = "jvm.threads.virtual.pinned";
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final int LOGGED_FRAMES = 20;
+
+    private static final List<String> JDK_PACKAGES = List.of("java.", "javax.", "jdk.", "sun.");
+
+    private final RecordingStream recordingStream;
+    private final Timer pinnedTimer;
+
+    private final Map<String, Boolean> reportedSites = new ConcurrentHashMap<>();
+
+    public VirtualThreadPinningMonitor(
+            MeterRegistry meterRegistry,
+            @Value("${virtual-threads.pinning-threshold:20ms}") Duration threshold) {
+
+        this.pinnedTimer = Timer.builder(METRIC_NAME)
+                .description("Time virtual threads were blocked while pinned to a carrier")
+                .register(meterRegistry);
+
+        this.recordingStream = new RecordingStream();
+
+        recordingStream.enable(PINNED_EVENT)
+                .withThreshold(threshold)
+                .withStackTrace();
+
+        recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+        recordingStream.startAsync();
+
+        log.info("Virtual thread pinning monitor started, threshold {}", threshold);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        recordingStream.close();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedTimer.record(event.getDuration());
+
+        List<RecordedFrame> frames = javaFrames(event.getStackTrace());
+
+        if (frames.isEmpty()) {
+            return;
+        }
+
+        String site = describe(callSite(frames));
+
+        if (reportedSites.putIfAbsent(site, Boolean.TRUE) == null) {
+            String stackTrace = frames.stream()
+                    .limit(LOGGED_FRAMES)
+                    .map(frame -> "\tat " + describe(frame))
+                    .collect(Collectors.joining(System.lineSeparator()));
+
+            log.warn("Virtual thread pinned for {} ms at {}{}{}",
+                    event.getDuration().toMillis(), site, System.lineSeparator(), stackTrace);
+        } else {
+            log.debug("Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(), site);
+        }
+    }
+
+    private static List<RecordedFrame> javaFrames(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return List.of();
+        }
+
+        return stackTrace.getFrames().stream()
+                .filter(RecordedFrame::isJavaFrame)
+                .toList();
+    }
+
+    /**
+     * The topmost frame outside the JDK, which is usually the driver
+     * or library code holding the monitor.
+     */
+    private static RecordedFrame callSite(List<RecordedFrame> frames) {
+        return frames.stream()
+                .filter(frame -> JDK_PACKAGES.stream().noneMatch(className(frame)::startsWith))
+                .findFirst()
+                .orElse(frames.getFirst());
+    }
+
+    private static String className(RecordedFrame frame) {
+        return frame.getMethod().getType().getName();
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return className(frame)
+                + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber();
+    }
+
+}
@@ -2,6 +2,7 @@ package dot.liberty.auth.controller;
 
 import dot.liberty.auth.dto.request.*;
 import dot.liberty.auth.dto.response.AuthResponse;
+import dot.liberty.auth.dto.response.ValidateTokenBatchResponse;
 import dot.liberty.auth.dto.response.ValidateTokenResponse;
 import dot.liberty.auth.dto.response.VerificationSentResponse;
 import dot.liberty.auth.service.AuthService;
@@ -51,6 +52,20 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        AuthResponse response = authService.refreshToken(request);
+
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@Valid @RequestBody LogoutRequest request) {
+        authService.logout(request);
+
+        return ResponseEntity.noContent().build();
+    }
+
     @PostMapping("/validate")
     public ResponseEntity<ValidateTokenResponse> validateToken(@Valid @RequestBody ValidateTokenRequest request) {
         ValidateTokenResponse response = authService.validateToken(request);
@@ -58,4 +73,11 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/validate-batch")
+    public ResponseEntity<ValidateTokenBatchResponse> validateTokenBatch(@Valid @RequestBody ValidateTokenBatchRequest request) {
+        ValidateTokenBatchResponse response = authService.validateTokenBatch(request);
+
+        return ResponseEntity.ok(response);
+    }
+
 }
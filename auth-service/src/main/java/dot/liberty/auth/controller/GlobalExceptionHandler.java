@@ -1,6 +1,7 @@
 package dot.liberty.auth.controller;
 
 import dot.liberty.auth.exception.*;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -43,6 +44,21 @@ public class GlobalExceptionHandler {
         return generateResponseEntity(ex);
     }
 
+    @ExceptionHandler(TokenBatchTooLargeException.class)
+    public ResponseEntity<Map<String, String>> handleTokenBatchTooLarge(TokenBatchTooLargeException ex) {
+        return generateResponseEntity(ex);
+    }
+
+    @ExceptionHandler(PasswordHashingOverloadedException.class)
+    public ResponseEntity<Map<String, String>> handlePasswordHashingOverloaded(PasswordHashingOverloadedException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .body(error);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, String>> handleValidationErrors(MethodArgumentNotValidException ex) {
         Map<String, String> errors = new HashMap<>();
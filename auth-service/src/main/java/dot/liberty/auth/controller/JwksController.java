@@ -0,0 +1,33 @@
+package dot.liberty.auth.controller;
+
+import dot.liberty.auth.util.JwtKeyRing;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/api/auth/.well-known")
+@RequiredArgsConstructor
+public class JwksController {
+
+    private final JwtKeyRing jwtKeyRing;
+
+    /**
+     * Public keys of the ring. Requests with a matching If-None-Match
+     * get 304 Not Modified.
+     */
+    @GetMapping(value = "/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> jwks() {
+        return ResponseEntity.ok()
+                .eTag(jwtKeyRing.getJwksETag())
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(jwtKeyRing.getJwksJson());
+    }
+
+}
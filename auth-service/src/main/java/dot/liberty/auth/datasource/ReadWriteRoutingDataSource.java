@@ -0,0 +1,118 @@
+package dot.liberty.auth.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only transactions to the replicas, round-robin, and
+ * everything else to the primary.
+ * <p>
+ * Must be wrapped in a {@code LazyConnectionDataSourceProxy}: the
+ * transaction is only marked read-only after its connection was
+ * requested.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private static final String METRIC_NAME = "auth.datasource.routed";
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica-";
+
+    private static final ThreadLocal<Boolean> PRIMARY_READS = new ThreadLocal<>();
+
+    private final List<DataSource> dataSources = new ArrayList<>();
+    private final List<String> replicaKeys = new ArrayList<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private final Map<String, Counter> routedCounters = new HashMap<>();
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas, MeterRegistry meterRegistry) {
+        Map<Object, Object> targets = new HashMap<>();
+
+        targets.put(PRIMARY, primary);
+        dataSources.add(primary);
+
+        for (DataSource replica : replicas) {
+            String key = REPLICA + replicaKeys.size();
+
+            targets.put(key, replica);
+            replicaKeys.add(key);
+            dataSources.add(replica);
+        }
+
+        for (Object key : targets.keySet()) {
+            routedCounters.put((String) key, Counter.builder(METRIC_NAME)
+                    .description("Connections handed out per target pool")
+                    .tag("target", (String) key)
+                    .register(meterRegistry));
+        }
+
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Runs {@code reader} with read-only transactions routed to the primary,
+     * e.g. to read data the caller has just written.
+     */
+    public static <T> T readFromPrimary(Supplier<T> reader) {
+        Boolean previous = PRIMARY_READS.get();
+
+        PRIMARY_READS.set(Boolean.TRUE);
+
+        try {
+            return reader.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY_READS.remove();
+            } else {
+                PRIMARY_READS.set(previous);
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String key = route();
+
+        routedCounters.get(key).increment();
+
+        return key;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (DataSource dataSource : dataSources) {
+            if (dataSource instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private String route() {
+        if (replicaKeys.isEmpty()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || Boolean.TRUE.equals(PRIMARY_READS.get())) {
+
+            return PRIMARY;
+        }
+
+        int index = Math.floorMod(nextReplica.getAndIncrement(), replicaKeys.size());
+
+        return replicaKeys.get(index);
+    }
+
+}
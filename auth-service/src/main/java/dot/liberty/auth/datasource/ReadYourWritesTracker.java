@@ -0,0 +1,46 @@
+package dot.liberty.auth.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Remembers recently written keys (e.g. a user's email or id) so reads of
+ * them go to the primary until the replicas have likely caught up.
+ * <p>
+ * Writes are only known to this instance.
+ */
+@Component
+public class ReadYourWritesTracker {
+
+    private final Cache<Object, Boolean> recentWrites;
+
+    public ReadYourWritesTracker(
+            @Value("${datasource-routing.read-your-writes-window:5s}") Duration window,
+            @Value("${datasource-routing.read-your-writes-maximum-size:100000}") long maximumSize) {
+
+        this.recentWrites = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    public void recordWrite(Object key) {
+        if (key != null) {
+            recentWrites.put(key, Boolean.TRUE);
+        }
+    }
+
+    public <T> T read(Object key, Supplier<T> reader) {
+        if (key != null && recentWrites.getIfPresent(key) != null) {
+            return ReadWriteRoutingDataSource.readFromPrimary(reader);
+        }
+
+        return reader.get();
+    }
+
+}
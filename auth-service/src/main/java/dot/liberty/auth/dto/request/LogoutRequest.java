@@ -0,0 +1,18 @@
+package dot.liberty.auth.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class LogoutRequest {
+
+    @NotBlank(message = "Refresh token is required")
+    private String refreshToken;
+
+}
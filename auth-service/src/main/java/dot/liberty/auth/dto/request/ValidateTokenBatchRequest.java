@@ -0,0 +1,21 @@
+package dot.liberty.auth.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ValidateTokenBatchRequest {
+
+    @NotEmpty(message = "Tokens are required")
+    private List<@NotBlank(message = "Token is required") String> tokens;
+
+}
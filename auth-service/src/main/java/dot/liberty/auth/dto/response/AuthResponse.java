@@ -6,6 +6,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
+
 @Data
 @Builder
 @AllArgsConstructor
@@ -13,6 +15,10 @@ import lombok.NoArgsConstructor;
 public class AuthResponse {
 
     private String token;
+    private Instant expiresAt;
+
+    private String refreshToken;
+
     private Long userId;
 
     private String email;
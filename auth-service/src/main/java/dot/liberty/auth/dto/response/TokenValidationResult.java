@@ -0,0 +1,25 @@
+package dot.liberty.auth.dto.response;
+
+import dot.liberty.auth.entity.Role;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TokenValidationResult {
+
+    private boolean valid;
+
+    private Long userId;
+    private String email;
+    private Role role;
+
+    private Instant expiresAt;
+
+}
@@ -0,0 +1,21 @@
+package dot.liberty.auth.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ValidateTokenBatchResponse {
+
+    /**
+     * One result per requested token, in request order.
+     */
+    private List<TokenValidationResult> results;
+
+}
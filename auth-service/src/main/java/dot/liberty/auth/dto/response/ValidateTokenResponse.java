@@ -6,14 +6,23 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
+
 @Data
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
 public class ValidateTokenResponse {
 
+    /**
+     * {@code jti} of the token, {@code null} for tokens issued before it was added.
+     */
+    private String tokenId;
+
     private Long userId;
     private String email;
     private Role role;
 
+    private Instant expiresAt;
+
 }
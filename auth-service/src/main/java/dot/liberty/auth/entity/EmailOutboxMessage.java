@@ -0,0 +1,78 @@
+package dot.liberty.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Email written in the same transaction as the change that caused it
+ * and delivered to notification-service afterwards. Delivered messages
+ * are deleted; messages that ran out of attempts stay as FAILED.
+ * <p>
+ * Messages carry a ready subject and body, and optionally a
+ * notification-service template id with its parameters, which is sent
+ * instead. The subject and body then stay as a plain-text fallback:
+ * {@code ddl-auto: update} never drops their NOT NULL constraint on
+ * existing databases, and instances without template support still send
+ * them.
+ */
+@Entity
+@Table(
+        name = "email_outbox",
+        indexes = @Index(
+                name = "idx_email_outbox_status_next_attempt",
+                columnList = "status, next_attempt_at"))
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmailOutboxMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false, length = 200)
+    private String subject;
+
+    @Column(nullable = false, length = 5000)
+    private String body;
+
+    @Column(name = "template_id", length = 100)
+    private String templateId;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "template_params")
+    private Map<String, String> templateParams;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+}
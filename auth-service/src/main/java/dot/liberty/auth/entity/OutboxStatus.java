@@ -0,0 +1,6 @@
+package dot.liberty.auth.entity;
+
+public enum OutboxStatus {
+    PENDING,
+    FAILED
+}
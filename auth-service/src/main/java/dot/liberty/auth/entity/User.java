@@ -13,7 +13,7 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "users")
 @Data
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
 public class User {
@@ -36,12 +36,6 @@ public class User {
     @Builder.Default
     private Boolean isEmailVerified = false;
 
-    @Column(name = "verification_code", length = 6)
-    private String verificationCode;
-
-    @Column(name = "verification_expires_at")
-    private LocalDateTime verificationCodeExpiresAt;
-
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
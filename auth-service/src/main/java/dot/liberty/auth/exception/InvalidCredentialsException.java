@@ -18,4 +18,8 @@ public class InvalidCredentialsException extends RuntimeException {
         return new InvalidCredentialsException("Invalid or expired token");
     }
 
+    public static InvalidCredentialsException byInvalidRefreshToken() {
+        return new InvalidCredentialsException("Invalid or expired refresh token");
+    }
+
 }
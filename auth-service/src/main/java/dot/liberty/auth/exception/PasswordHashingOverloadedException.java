@@ -0,0 +1,18 @@
+package dot.liberty.auth.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class PasswordHashingOverloadedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public PasswordHashingOverloadedException(Duration retryAfter) {
+        super("Service is busy, please try again later");
+
+        this.retryAfter = retryAfter;
+    }
+
+}
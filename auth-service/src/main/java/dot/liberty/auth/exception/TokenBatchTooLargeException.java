@@ -0,0 +1,7 @@
+package dot.liberty.auth.exception;
+
+public class TokenBatchTooLargeException extends RuntimeException {
+    public TokenBatchTooLargeException(int maxBatchSize) {
+        super("At most " + maxBatchSize + " tokens per batch");
+    }
+}
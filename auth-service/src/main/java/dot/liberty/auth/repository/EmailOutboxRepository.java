@@ -0,0 +1,29 @@
+package dot.liberty.auth.repository;
+
+import dot.liberty.auth.entity.EmailOutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, Long> {
+
+    /**
+     * Locks due pending messages. Rows locked by another dispatcher
+     * instance are skipped, so instances never pick the same message.
+     */
+    @Query(value = """
+            SELECT * FROM email_outbox
+            WHERE status = 'PENDING' AND next_attempt_at <= :now
+            ORDER BY id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED""",
+            nativeQuery = true)
+    List<EmailOutboxMessage> lockDueMessages(@Param("now") LocalDateTime now,
+                                             @Param("limit") int limit);
+
+}
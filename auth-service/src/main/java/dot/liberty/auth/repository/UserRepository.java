@@ -1,15 +1,28 @@
 package dot.liberty.auth.repository;
 
 import dot.liberty.auth.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    @Transactional(readOnly = true)
     Optional<User> findByEmail(String email);
+
+    @Transactional(readOnly = true)
     boolean existsByEmail(String email);
 
+    @Query("SELECT u.email FROM User u")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<String> streamAllEmails();
+
 }
@@ -2,23 +2,49 @@ package dot.liberty.auth.service;
 
 import dot.liberty.auth.dto.request.*;
 import dot.liberty.auth.dto.response.AuthResponse;
+import dot.liberty.auth.dto.response.TokenValidationResult;
+import dot.liberty.auth.dto.response.ValidateTokenBatchResponse;
 import dot.liberty.auth.dto.response.ValidateTokenResponse;
 import dot.liberty.auth.dto.response.VerificationSentResponse;
+import dot.liberty.auth.entity.RefreshToken;
 import dot.liberty.auth.entity.Role;
 import dot.liberty.auth.entity.User;
 import dot.liberty.auth.exception.*;
+import dot.liberty.auth.store.VerificationCode;
+import dot.liberty.auth.store.VerificationCodeStore;
 import dot.liberty.auth.util.VerificationCodeUtils;
 import jakarta.transaction.Transactional;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.time.LocalDateTime;
+import java.time.Duration;
+import java.util.List;
 
 @Service
-@RequiredArgsConstructor
 public class AuthService {
 
+    private static final Duration VERIFICATION_CODE_TTL = Duration.ofMinutes(15);
+
     private final UserService userService;
+    private final VerificationCodeStore verificationCodeStore;
+    private final RefreshTokenService refreshTokenService;
+
+    private final int maxTokenBatchSize;
+
+    public AuthService(
+            UserService userService,
+            VerificationCodeStore verificationCodeStore,
+            RefreshTokenService refreshTokenService,
+            @Value("${token-validation.max-batch-size:100}") int maxTokenBatchSize) {
+
+        this.userService = userService;
+        this.verificationCodeStore = verificationCodeStore;
+        this.refreshTokenService = refreshTokenService;
+        this.maxTokenBatchSize = maxTokenBatchSize;
+    }
 
     @Transactional
     public VerificationSentResponse register(RegisterRequest request) throws EmailAlreadyExistsException {
@@ -30,9 +56,6 @@ public class AuthService {
         String hashedPassword = userService.encodePassword(request.getPassword());
         String code = VerificationCodeUtils.generateVerificationCode();
 
-        LocalDateTime expiresAt = LocalDateTime.now()
-                .plusMinutes(15);
-
         Role role = request.getRole();
 
         User user = User.builder()
@@ -40,11 +63,17 @@ public class AuthService {
                 .password(hashedPassword)
                 .role(role)
                 .isEmailVerified(false)
-                .verificationCode(code)
-                .verificationCodeExpiresAt(expiresAt)
                 .build();
 
-        User savedUser = userService.saveUserInDB(user);
+        User savedUser;
+
+        try {
+            savedUser = userService.saveUserInDB(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new EmailAlreadyExistsException(email);
+        }
+
+        verificationCodeStore.save(email, code, VERIFICATION_CODE_TTL);
 
         return userService.sendCodeAndGetResponse(savedUser, code);
     }
@@ -57,22 +86,24 @@ public class AuthService {
             throw new EmailAlreadyVerifiedException();
         }
 
+        String email = user.getEmail();
         String code = request.getCode();
 
-        if (user.getVerificationCode() == null
-                || !user.getVerificationCode().equals(code)) {
+        VerificationCode verificationCode = verificationCodeStore.find(email)
+                .orElseThrow(InvalidVerificationCodeException::new);
+
+        if (!verificationCode.code().equals(code)) {
             throw new InvalidVerificationCodeException();
         }
 
-        if (user.getVerificationCodeExpiresAt().isBefore(LocalDateTime.now())) {
+        if (verificationCode.isExpired()) {
             throw new VerificationCodeExpiredException();
         }
 
         user.setIsEmailVerified(true);
-        user.setVerificationCode(null);
-        user.setVerificationCodeExpiresAt(null);
 
         userService.saveUserInDB(user);
+        removeVerificationCodeAfterCommit(email);
 
         return userService.generateAuthResponse(user);
     }
@@ -87,13 +118,7 @@ public class AuthService {
 
         String newCode = VerificationCodeUtils.generateVerificationCode();
 
-        LocalDateTime expiresAt = LocalDateTime.now()
-                .plusMinutes(15);
-
-        user.setVerificationCode(newCode);
-        user.setVerificationCodeExpiresAt(expiresAt);
-
-        userService.saveUserInDB(user);
+        verificationCodeStore.save(user.getEmail(), newCode, VERIFICATION_CODE_TTL);
 
         return userService.sendCodeAndGetResponse(user, newCode);
     }
@@ -113,6 +138,24 @@ public class AuthService {
         return userService.generateAuthResponse(user);
     }
 
+    /**
+     * Consumes the refresh token and issues its successor in one
+     * transaction, so a failed issue leaves the old token usable.
+     * Reuse detection still commits the revoked family.
+     */
+    @Transactional(dontRollbackOn = InvalidCredentialsException.class)
+    public AuthResponse refreshToken(RefreshTokenRequest request) {
+        RefreshToken consumed = refreshTokenService.consume(request.getRefreshToken());
+
+        User user = userService.findUserById(consumed.getUserId());
+
+        return userService.generateAuthResponse(user, consumed.getFamilyId());
+    }
+
+    public void logout(LogoutRequest request) {
+        refreshTokenService.revoke(request.getRefreshToken());
+    }
+
     public ValidateTokenResponse validateToken(ValidateTokenRequest request)
             throws InvalidCredentialsException {
         String token = request.getToken();
@@ -120,4 +163,38 @@ public class AuthService {
         return userService.generateValidateTokenResponse(token);
     }
 
+    public ValidateTokenBatchResponse validateTokenBatch(ValidateTokenBatchRequest request) {
+        if (request.getTokens().size() > maxTokenBatchSize) {
+            throw new TokenBatchTooLargeException(maxTokenBatchSize);
+        }
+
+        List<TokenValidationResult> results = request.getTokens()
+                .stream()
+                .map(userService::generateTokenValidationResult)
+                .toList();
+
+        return ValidateTokenBatchResponse.builder()
+                .results(results)
+                .build();
+    }
+
+    /**
+     * The code stays usable until the user is stored as verified, so a
+     * rolled back verification can simply be retried with the same code.
+     */
+    private void removeVerificationCodeAfterCommit(String email) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            verificationCodeStore.remove(email);
+
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                verificationCodeStore.remove(email);
+            }
+        });
+    }
+
 }
@@ -0,0 +1,148 @@
+package dot.liberty.auth.service;
+
+import dot.liberty.auth.client.NotificationServiceClient;
+import dot.liberty.auth.client.dto.BatchItemResult;
+import dot.liberty.auth.client.dto.SendBatchResponse;
+import dot.liberty.auth.client.dto.SendEmailRequest;
+import dot.liberty.auth.entity.EmailOutboxMessage;
+import feign.FeignException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drains the email outbox to notification-service outside of any
+ * request transaction, one {@code send-batch} call per claimed batch.
+ * <p>
+ * Messages the response has no result for keep their lease and are
+ * resent after it. A batch notification-service refuses with a 4xx
+ * status is failed message by message, since resending it unchanged
+ * gets the same answer; other errors leave the outcome unknown.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EmailOutboxDispatcher {
+
+    /**
+     * A batch resent after a timeout whose first attempt did get through
+     * is then dropped by notification-service instead of sent twice.
+     */
+    private static final String IDEMPOTENCY_KEY_PREFIX = "auth-email-outbox-";
+
+    private final EmailOutboxService emailOutboxService;
+    private final NotificationServiceClient notificationServiceClient;
+
+    @Scheduled(fixedDelayString = "${email-outbox.poll-interval:1s}")
+    public void dispatch() {
+        List<EmailOutboxMessage> messages = emailOutboxService.claimDueMessages();
+
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        SendBatchResponse response;
+
+        try {
+            response = notificationServiceClient.sendBatch(messages.stream()
+                    .map(EmailOutboxDispatcher::toRequest)
+                    .toList());
+        } catch (FeignException e) {
+            if (isRejection(e)) {
+                log.warn("notification-service rejected a batch of {} emails: {}", messages.size(), e.getMessage());
+
+                messages.forEach(message -> markRejected(message, e.getMessage()));
+            } else {
+                markUndelivered(messages, e);
+            }
+
+            return;
+        } catch (Exception e) {
+            markUndelivered(messages, e);
+
+            return;
+        }
+
+        List<Long> delivered = new ArrayList<>(messages.size());
+        Map<EmailOutboxMessage, String> rejected = new LinkedHashMap<>();
+
+        for (BatchItemResult result : response.getResults()) {
+            if (result.getIndex() < 0 || result.getIndex() >= messages.size()) {
+                log.warn("Ignoring a send-batch result for unknown index {}", result.getIndex());
+
+                continue;
+            }
+
+            EmailOutboxMessage message = messages.get(result.getIndex());
+
+            if (result.isAccepted()) {
+                delivered.add(message.getId());
+            } else {
+                rejected.put(message, String.valueOf(result.getErrors()));
+            }
+        }
+
+        emailOutboxService.markDelivered(delivered);
+
+        rejected.forEach(this::markRejected);
+    }
+
+    private void markUndelivered(List<EmailOutboxMessage> messages, Exception e) {
+        log.warn("Failed to deliver a batch of {} emails: {}", messages.size(), e.getMessage());
+
+        emailOutboxService.markUndelivered(messages, e.getMessage());
+    }
+
+    /**
+     * A failure to reschedule one message leaves the others unaffected.
+     */
+    private void markRejected(EmailOutboxMessage message, String errors) {
+        log.warn("Email {} to {} was rejected (attempt {}): {}",
+                message.getId(), message.getRecipient(), message.getAttempts(), errors);
+
+        try {
+            emailOutboxService.markFailed(message, errors);
+        } catch (RuntimeException e) {
+            log.error("Failed to reschedule rejected email {}", message.getId(), e);
+        }
+    }
+
+    /**
+     * Timeouts and rate limiting are worth retrying as they are.
+     */
+    private static boolean isRejection(FeignException e) {
+        return e.status() >= 400 && e.status() < 500
+                && e.status() != HttpStatus.REQUEST_TIMEOUT.value()
+                && e.status() != HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    /**
+     * notification-service takes either a template or a subject and body,
+     * the fallback text is only sent for messages without a template.
+     */
+    private static SendEmailRequest toRequest(EmailOutboxMessage message) {
+        SendEmailRequest.SendEmailRequestBuilder request = SendEmailRequest.builder()
+                .to(message.getRecipient())
+                .idempotencyKey(IDEMPOTENCY_KEY_PREFIX + message.getId());
+
+        if (message.getTemplateId() == null) {
+            return request
+                    .subject(message.getSubject())
+                    .body(message.getBody())
+                    .build();
+        }
+
+        return request
+                .templateId(message.getTemplateId())
+                .params(message.getTemplateParams())
+                .build();
+    }
+
+}
@@ -0,0 +1,145 @@
+package dot.liberty.auth.service;
+
+import dot.liberty.auth.entity.EmailOutboxMessage;
+import dot.liberty.auth.entity.OutboxStatus;
+import dot.liberty.auth.repository.EmailOutboxRepository;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@Slf4j
+public class EmailOutboxService {
+
+    private final EmailOutboxRepository emailOutboxRepository;
+
+    private final int batchSize;
+    private final int maxAttempts;
+
+    private final Duration lease;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    public EmailOutboxService(
+            EmailOutboxRepository emailOutboxRepository,
+            @Value("${email-outbox.batch-size:50}") int batchSize,
+            @Value("${email-outbox.max-attempts:10}") int maxAttempts,
+            @Value("${email-outbox.lease:1m}") Duration lease,
+            @Value("${email-outbox.initial-backoff:5s}") Duration initialBackoff,
+            @Value("${email-outbox.max-backoff:10m}") Duration maxBackoff) {
+
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.lease = lease;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    /**
+     * Must be called inside the transaction of the change that
+     * triggers the email, so both commit or roll back together. The
+     * fallback subject and body are stored with the template for
+     * instances that don't send templates yet.
+     */
+    public void enqueue(
+            String recipient,
+            String templateId,
+            Map<String, String> templateParams,
+            String fallbackSubject,
+            String fallbackBody) {
+
+        EmailOutboxMessage message = EmailOutboxMessage.builder()
+                .recipient(recipient)
+                .subject(fallbackSubject)
+                .body(fallbackBody)
+                .templateId(templateId)
+                .templateParams(templateParams)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+
+        emailOutboxRepository.save(message);
+    }
+
+    /**
+     * Claims a batch of due messages by pushing their next attempt
+     * past the lease, so the claim survives the end of the transaction
+     * and a crashed dispatcher's messages are retried after the lease.
+     */
+    @Transactional
+    public List<EmailOutboxMessage> claimDueMessages() {
+        LocalDateTime now = LocalDateTime.now();
+
+        List<EmailOutboxMessage> messages = emailOutboxRepository.lockDueMessages(now, batchSize);
+
+        messages.forEach(message -> {
+            message.setAttempts(message.getAttempts() + 1);
+            message.setNextAttemptAt(now.plus(lease));
+        });
+
+        return messages;
+    }
+
+    @Transactional
+    public void markDelivered(Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            emailOutboxRepository.deleteAllByIdInBatch(ids);
+        }
+    }
+
+    @Transactional
+    public void markFailed(EmailOutboxMessage claimed, String error) {
+        emailOutboxRepository.findById(claimed.getId())
+                .ifPresent(message -> reschedule(message, error));
+    }
+
+    /**
+     * For a batch whose outcome is unknown, e.g. after a timeout. The
+     * claim's attempt counts, so the backoff keeps growing and a batch
+     * that never gets through is given up on like any failed message;
+     * the idempotency keys keep accepted ones from being sent twice.
+     */
+    @Transactional
+    public void markUndelivered(Collection<EmailOutboxMessage> claimed, String error) {
+        emailOutboxRepository.findAllById(claimed.stream().map(EmailOutboxMessage::getId).toList())
+                .forEach(message -> reschedule(message, error));
+    }
+
+    private void reschedule(EmailOutboxMessage message, String error) {
+        message.setLastError(truncate(error));
+
+        if (message.getAttempts() >= maxAttempts) {
+            message.setStatus(OutboxStatus.FAILED);
+
+            log.error("Giving up on email {} to {} after {} attempts: {}",
+                    message.getId(), message.getRecipient(), message.getAttempts(), error);
+
+            return;
+        }
+
+        message.setNextAttemptAt(LocalDateTime.now()
+                .plus(backoff(message.getAttempts())));
+    }
+
+    private Duration backoff(int attempts) {
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= 1000) {
+            return message;
+        }
+
+        return message.substring(0, 1000);
+    }
+
+}
@@ -1,35 +1,37 @@
 package dot.liberty.auth.service;
 
-import dot.liberty.auth.client.NotificationServiceClient;
-import dot.liberty.auth.client.dto.SendEmailRequest;
 import dot.liberty.auth.entity.User;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+
+/**
+ * Email content lives in notification-service templates; only the
+ * template id and its parameters are sent from here. The plain text
+ * kept here is the outbox fallback.
+ */
 @Service
 @RequiredArgsConstructor
 public class EmailService {
 
-    private final NotificationServiceClient notificationServiceClient;
-
-    public void sendVerificationCode(User user, String code) {
-        String email = user.getEmail();
+    private static final String VERIFICATION_CODE_TEMPLATE = "verification-code";
 
-        String messageTextTemplate = """
-                Your verification code is: %s
-                
-                This code expires in 15 minutes.""";
+    private static final String VERIFICATION_CODE_SUBJECT = "Verify your email - One Touch Delivery";
+    private static final String VERIFICATION_CODE_BODY = """
+            Your verification code is: %s
 
-        String subject = "Verify your email - One Touch Delivery";
-        String body = String.format(messageTextTemplate, code);
+            This code expires in 15 minutes.""";
 
-        SendEmailRequest emailRequest = SendEmailRequest.builder()
-                .to(email)
-                .subject(subject)
-                .body(body)
-                .build();
+    private final EmailOutboxService emailOutboxService;
 
-        notificationServiceClient.sendEmail(emailRequest);
+    public void sendVerificationCode(User user, String code) {
+        emailOutboxService.enqueue(
+                user.getEmail(),
+                VERIFICATION_CODE_TEMPLATE,
+                Map.of("code", code),
+                VERIFICATION_CODE_SUBJECT,
+                VERIFICATION_CODE_BODY.formatted(code));
     }
 
 }
@@ -0,0 +1,132 @@
+package dot.liberty.auth.service;
+
+import dot.liberty.auth.exception.PasswordHashingOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+
+/**
+ * Runs password hashing and verification on a bounded, CPU-sized pool,
+ * so a burst of logins or signups can't take every request thread.
+ * <p>
+ * When the pool and its queue are full, the call fails fast with
+ * {@link PasswordHashingOverloadedException} instead of waiting. A call
+ * that was queued but not done within the timeout fails the same way.
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final String METRIC_NAME = "auth.password.hashing";
+
+    private final PasswordEncoder passwordEncoder;
+    private final Duration timeout;
+    private final Duration retryAfter;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejectedCounter;
+    private final Counter timedOutCounter;
+
+    public PasswordHashingService(
+            PasswordEncoder passwordEncoder,
+            MeterRegistry meterRegistry,
+            @Value("${password-hashing.threads:0}") int threads,
+            @Value("${password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${password-hashing.timeout:5s}") Duration timeout,
+            @Value("${password-hashing.retry-after:1s}") Duration retryAfter) {
+
+        this.passwordEncoder = passwordEncoder;
+        this.timeout = timeout;
+        this.retryAfter = retryAfter;
+
+        int poolSize = threads > 0
+                ? threads
+                : Runtime.getRuntime().availableProcessors();
+
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "password-hashing");
+
+        this.encodeTimer = Timer.builder(METRIC_NAME)
+                .tag("operation", "encode")
+                .register(meterRegistry);
+
+        this.matchesTimer = Timer.builder(METRIC_NAME)
+                .tag("operation", "matches")
+                .register(meterRegistry);
+
+        this.rejectedCounter = Counter.builder(METRIC_NAME + ".rejected")
+                .description("Hashing requests rejected because the pool was saturated")
+                .register(meterRegistry);
+
+        this.timedOutCounter = Counter.builder(METRIC_NAME + ".timed-out")
+                .description("Hashing requests abandoned because they were not done within the timeout")
+                .register(meterRegistry);
+    }
+
+    public String encode(String rawPassword) {
+        return execute(
+                () -> passwordEncoder.encode(rawPassword),
+                encodeTimer);
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return execute(
+                () -> passwordEncoder.matches(rawPassword, encodedPassword),
+                matchesTimer);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T execute(Callable<T> task, Timer timer) {
+        Future<T> future;
+
+        try {
+            future = executor.submit(() -> timer.recordCallable(task));
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+
+            throw new PasswordHashingOverloadedException(retryAfter);
+        }
+
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOutCounter.increment();
+
+            throw new PasswordHashingOverloadedException(retryAfter);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+}
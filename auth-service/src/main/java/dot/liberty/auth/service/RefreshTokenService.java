@@ -0,0 +1,140 @@
+package dot.liberty.auth.service;
+
+import dot.liberty.auth.entity.RefreshToken;
+import dot.liberty.auth.exception.InvalidCredentialsException;
+import dot.liberty.auth.repository.RefreshTokenRepository;
+import dot.liberty.auth.store.RevokedTokenRegistry;
+import dot.liberty.auth.util.IssuedToken;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+@Service
+@Slf4j
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final RevokedTokenRegistry revokedTokenRegistry;
+
+    private final Long refreshExpiration;
+
+    public RefreshTokenService(
+            RefreshTokenRepository refreshTokenRepository,
+            RevokedTokenRegistry revokedTokenRegistry,
+            @Value("${jwt.refresh-expiration}") Long refreshExpiration) {
+
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.revokedTokenRegistry = revokedTokenRegistry;
+        this.refreshExpiration = refreshExpiration;
+    }
+
+    /**
+     * Issues a refresh token for the access token.
+     *
+     * @param familyId family of the rotated token, or {@code null} to start a new one
+     * @return the raw refresh token, which is never stored
+     */
+    public String issue(Long userId, String familyId, IssuedToken accessToken) {
+        byte[] tokenBytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(tokenBytes);
+
+        String token = Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(tokenBytes);
+
+        RefreshToken refreshToken = RefreshToken.builder()
+                .tokenHash(hash(token))
+                .familyId(familyId != null ? familyId : UUID.randomUUID().toString())
+                .userId(userId)
+                .expiresAt(Instant.now().plusMillis(refreshExpiration))
+                .accessTokenId(accessToken.tokenId())
+                .accessTokenExpiresAt(accessToken.expiresAt())
+                .build();
+
+        refreshTokenRepository.save(refreshToken);
+
+        return token;
+    }
+
+    /**
+     * Marks the token as used and returns it, so a new one of the same
+     * family can be issued. Reusing an already used token revokes the family.
+     */
+    @Transactional(dontRollbackOn = InvalidCredentialsException.class)
+    public RefreshToken consume(String token) {
+        RefreshToken refreshToken = refreshTokenRepository.findByTokenHash(hash(token))
+                .orElseThrow(InvalidCredentialsException::byInvalidRefreshToken);
+
+        if (refreshToken.getRevoked()) {
+            log.warn("Refresh token reuse detected for user {}, revoking token family {}",
+                    refreshToken.getUserId(), refreshToken.getFamilyId());
+
+            revokeFamily(refreshToken.getFamilyId());
+
+            throw InvalidCredentialsException.byInvalidRefreshToken();
+        }
+
+        if (refreshToken.getExpiresAt().isBefore(Instant.now())) {
+            throw InvalidCredentialsException.byInvalidRefreshToken();
+        }
+
+        refreshToken.setRevoked(true);
+
+        return refreshToken;
+    }
+
+    /**
+     * Revokes the family of the token together with
+     * the access tokens issued in it.
+     */
+    @Transactional
+    public void revoke(String token) {
+        refreshTokenRepository.findByTokenHash(hash(token))
+                .ifPresent(refreshToken -> revokeFamily(refreshToken.getFamilyId()));
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh-cleanup-interval:1h}")
+    @Transactional
+    public void deleteExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(Instant.now());
+
+        log.debug("Deleted {} expired refresh tokens", deleted);
+    }
+
+    private void revokeFamily(String familyId) {
+        refreshTokenRepository.findByFamilyId(familyId)
+                .forEach(member -> revokedTokenRegistry.revoke(
+                        member.getAccessTokenId(),
+                        member.getAccessTokenExpiresAt()));
+
+        refreshTokenRepository.revokeFamily(familyId);
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8));
+
+            return HexFormat.of()
+                    .formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+}
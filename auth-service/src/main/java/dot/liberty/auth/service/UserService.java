@@ -1,18 +1,25 @@
 package dot.liberty.auth.service;
 
+import dot.liberty.auth.cache.EmailBloomFilter;
+import dot.liberty.auth.cache.UserCache;
+import dot.liberty.auth.datasource.ReadYourWritesTracker;
 import dot.liberty.auth.dto.request.LoginRequest;
 import dot.liberty.auth.dto.response.AuthResponse;
+import dot.liberty.auth.dto.response.TokenValidationResult;
 import dot.liberty.auth.dto.response.ValidateTokenResponse;
 import dot.liberty.auth.dto.response.VerificationSentResponse;
 import dot.liberty.auth.entity.Role;
 import dot.liberty.auth.entity.User;
 import dot.liberty.auth.exception.InvalidCredentialsException;
 import dot.liberty.auth.repository.UserRepository;
+import dot.liberty.auth.store.RevokedTokenRegistry;
+import dot.liberty.auth.util.IssuedToken;
 import dot.liberty.auth.util.JwtUtil;
+import dot.liberty.auth.util.VerifiedClaims;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
 import java.util.function.Supplier;
 
 @Service
@@ -24,18 +31,35 @@ public class UserService {
     private final JwtUtil jwtUtil;
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final RefreshTokenService refreshTokenService;
+    private final RevokedTokenRegistry revokedTokenRegistry;
+    private final UserCache userCache;
+    private final EmailBloomFilter emailBloomFilter;
+    private final PasswordHashingService passwordHashingService;
+    private final ReadYourWritesTracker readYourWritesTracker;
 
     public boolean existsUserByEmail(String email) {
-        return userRepository.existsByEmail(email);
+        if (!emailBloomFilter.mightContain(email)) {
+            return false;
+        }
+
+        return userCache.existsByEmail(email,
+                () -> readYourWritesTracker.read(email, () -> userRepository.existsByEmail(email)));
     }
 
     public String encodePassword(String password) {
-        return passwordEncoder.encode(password);
+        return passwordHashingService.encode(password);
     }
 
     public User saveUserInDB(User user) {
-        return userRepository.save(user);
+        userCache.evict(user.getEmail());
+        emailBloomFilter.put(user.getEmail());
+        readYourWritesTracker.recordWrite(user.getEmail());
+
+        User savedUser = userRepository.save(user);
+        readYourWritesTracker.recordWrite(savedUser.getId());
+
+        return savedUser;
     }
 
     public User findUserByEmail(String email) {
@@ -48,10 +72,16 @@ public class UserService {
             Supplier<RuntimeException> exceptionSupplier
     ) {
 
-        return userRepository.findByEmail(email)
+        return userCache.findByEmail(email,
+                        key -> readYourWritesTracker.read(key, () -> userRepository.findByEmail(key)))
                 .orElseThrow(exceptionSupplier);
     }
 
+    public User findUserById(Long userId) {
+        return readYourWritesTracker.read(userId, () -> userRepository.findById(userId))
+                .orElseThrow(InvalidCredentialsException::ifUserIsNotFounded);
+    }
+
     public VerificationSentResponse sendCodeAndGetResponse(User user, String code) {
         emailService.sendVerificationCode(user, code);
 
@@ -69,21 +99,32 @@ public class UserService {
     }
 
     public boolean isPasswordTryingCorrect(LoginRequest request, User user) {
-        return passwordEncoder.matches(
+        return passwordHashingService.matches(
                 request.getPassword(),
                 user.getPassword()
         );
     }
 
     public AuthResponse generateAuthResponse(User user) {
+        return generateAuthResponse(user, null);
+    }
+
+    /**
+     * @param refreshTokenFamilyId family of the rotated refresh token,
+     *                             or {@code null} for a new login
+     */
+    public AuthResponse generateAuthResponse(User user, String refreshTokenFamilyId) {
         String email = user.getEmail();
         Long userId = user.getId();
         Role role = user.getRole();
 
-        String token = generateToken(email, userId, role);
+        IssuedToken accessToken = generateToken(email, userId, role);
+        String refreshToken = refreshTokenService.issue(userId, refreshTokenFamilyId, accessToken);
 
         return AuthResponse.builder()
-                .token(token)
+                .token(accessToken.token())
+                .expiresAt(accessToken.expiresAt())
+                .refreshToken(refreshToken)
                 .userId(userId)
                 .email(email)
                 .role(role)
@@ -91,39 +132,39 @@ public class UserService {
     }
 
     public ValidateTokenResponse generateValidateTokenResponse(String token) {
-        if (!validateToken(token)) {
-            throw InvalidCredentialsException.byInvalidToken();
-        }
-
-        Long userId = extractUserIdFromToken(token);
-        String email = extractEmailFromToken(token);
-        Role role = extractRoleFromToken(token);
+        VerifiedClaims claims = verifyNotRevokedToken(token)
+                .orElseThrow(InvalidCredentialsException::byInvalidToken);
 
         return ValidateTokenResponse.builder()
-                .userId(userId)
-                .email(email)
-                .role(role)
+                .tokenId(claims.tokenId())
+                .userId(claims.userId())
+                .email(claims.email())
+                .role(claims.role())
+                .expiresAt(claims.expiresAt())
                 .build();
     }
 
-    private boolean validateToken(String token) {
-        return jwtUtil.validateToken(token);
-    }
-
-    private Long extractUserIdFromToken(String token) {
-        return jwtUtil.extractUserId(token);
-    }
-
-    private String extractEmailFromToken(String token) {
-        return jwtUtil.extractEmail(token);
+    public TokenValidationResult generateTokenValidationResult(String token) {
+        return verifyNotRevokedToken(token)
+                .map(claims -> TokenValidationResult.builder()
+                        .valid(true)
+                        .userId(claims.userId())
+                        .email(claims.email())
+                        .role(claims.role())
+                        .expiresAt(claims.expiresAt())
+                        .build())
+                .orElseGet(() -> TokenValidationResult.builder()
+                        .valid(false)
+                        .build());
     }
 
-    private Role extractRoleFromToken(String token) {
-        return Role.valueOf(jwtUtil.extractRole(token));
+    private Optional<VerifiedClaims> verifyNotRevokedToken(String token) {
+        return jwtUtil.verifyToken(token)
+                .filter(claims -> !revokedTokenRegistry.isRevoked(claims.tokenId()));
     }
 
-    private String generateToken(String email, Long userId, Role role) {
-        return jwtUtil.generateToken(
+    private IssuedToken generateToken(String email, Long userId, Role role) {
+        return jwtUtil.issueAccessToken(
                 email,
                 userId,
                 role.name()
@@ -0,0 +1,62 @@
+package dot.liberty.auth.store;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Default store, kept in-process so registration needs nothing besides
+ * the database. Only suitable for a single auth-service instance, since
+ * a code issued by one instance is unknown to the others, and codes are
+ * lost on restart.
+ */
+@Component
+@ConditionalOnProperty(
+        name = "verification-code-store.type",
+        havingValue = "memory",
+        matchIfMissing = true)
+@Slf4j
+public class InMemoryVerificationCodeStore implements VerificationCodeStore {
+
+    private final Map<String, VerificationCode> codes = new ConcurrentHashMap<>();
+
+    public InMemoryVerificationCodeStore(MeterRegistry meterRegistry) {
+        Gauge.builder("auth.verification-codes.size", codes, Map::size)
+                .description("Verification codes waiting to be used or swept")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void save(String email, String code, Duration ttl) {
+        codes.put(email, new VerificationCode(code, Instant.now().plus(ttl)));
+    }
+
+    @Override
+    public Optional<VerificationCode> find(String email) {
+        return Optional.ofNullable(codes.get(email));
+    }
+
+    @Override
+    public void remove(String email) {
+        codes.remove(email);
+    }
+
+    @Scheduled(fixedDelayString = "${verification-code-store.sweep-interval:1m}")
+    public void sweepExpired() {
+        int sizeBefore = codes.size();
+
+        codes.values().removeIf(VerificationCode::isExpired);
+
+        log.debug("Swept {} expired verification codes", sizeBefore - codes.size());
+    }
+
+}
@@ -0,0 +1,62 @@
+package dot.liberty.auth.store;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Store shared by all instances, for deployments running more than one.
+ * Redis expires the keys itself, so no sweeping is needed. Any
+ * Redis-protocol server will do locally.
+ */
+@Component
+@ConditionalOnProperty(
+        name = "verification-code-store.type",
+        havingValue = "redis")
+public class RedisVerificationCodeStore implements VerificationCodeStore {
+
+    private static final String KEY_PREFIX = "auth:verification-code:";
+    private static final String SEPARATOR = ":";
+
+    private final StringRedisTemplate redisTemplate;
+
+    public RedisVerificationCodeStore(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public void save(String email, String code, Duration ttl) {
+        long expiresAt = Instant.now()
+                .plus(ttl)
+                .toEpochMilli();
+
+        redisTemplate.opsForValue()
+                .set(KEY_PREFIX + email, code + SEPARATOR + expiresAt, ttl);
+    }
+
+    @Override
+    public Optional<VerificationCode> find(String email) {
+        String value = redisTemplate.opsForValue()
+                .get(KEY_PREFIX + email);
+
+        if (value == null) {
+            return Optional.empty();
+        }
+
+        int separatorIndex = value.indexOf(SEPARATOR);
+
+        return Optional.of(new VerificationCode(
+                value.substring(0, separatorIndex),
+                Instant.ofEpochMilli(Long.parseLong(value.substring(separatorIndex + 1)))));
+    }
+
+    @Override
+    public void remove(String email) {
+        redisTemplate.delete(KEY_PREFIX + email);
+    }
+
+}
@@ -0,0 +1,117 @@
+package dot.liberty.auth.store;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ids ({@code jti}) of revoked access tokens with the time each token
+ * would have expired anyway, checked in memory without any I/O.
+ * <p>
+ * Redis only spreads revocations: each one is added to a sorted set
+ * scored by expiry and published on a channel that every auth-service
+ * instance and the gateway listen to. The sorted set is loaded on
+ * startup and again every resync interval, which also picks up
+ * revocations published while this instance wasn't subscribed.
+ */
+@Component
+@Slf4j
+public class RevokedTokenRegistry implements MessageListener {
+
+    /**
+     * Also read by the gateway, keep both in sync.
+     */
+    public static final String KEY = "auth:revoked-tokens";
+    public static final String CHANNEL = "auth:revoked-tokens";
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+
+    public RevokedTokenRegistry(StringRedisTemplate redisTemplate, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+
+        Gauge.builder("auth.revoked-tokens.size", revoked, Map::size)
+                .description("Revoked access tokens that have not expired yet")
+                .register(meterRegistry);
+    }
+
+    public void revoke(String tokenId, Instant expiresAt) {
+        if (tokenId == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+
+        revoked.put(tokenId, expiresAt);
+
+        redisTemplate.opsForZSet().add(KEY, tokenId, expiresAt.toEpochMilli());
+        redisTemplate.convertAndSend(CHANNEL, expiresAt.toEpochMilli() + ":" + tokenId);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+
+        Instant expiresAt = revoked.get(tokenId);
+
+        return expiresAt != null && expiresAt.isAfter(Instant.now());
+    }
+
+    /**
+     * A revocation published by any instance, including this one.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(':');
+
+        try {
+            long expiresAt = Long.parseLong(body.substring(0, separator));
+
+            revoked.put(body.substring(separator + 1), Instant.ofEpochMilli(expiresAt));
+        } catch (RuntimeException e) {
+            log.warn("Ignoring malformed token revocation \"{}\"", body);
+        }
+    }
+
+    /**
+     * Loads the revocations that haven't expired and forgets the ones
+     * that have. Known revocations stay in force while Redis is down.
+     */
+    @Scheduled(initialDelayString = "0", fixedDelayString = "${revoked-tokens.resync-interval:1m}")
+    public void resync() {
+        long now = System.currentTimeMillis();
+
+        try {
+            redisTemplate.opsForZSet().removeRangeByScore(KEY, 0, now);
+
+            Set<TypedTuple<String>> live = redisTemplate.opsForZSet()
+                    .rangeByScoreWithScores(KEY, now, Double.MAX_VALUE);
+
+            if (live != null) {
+                live.forEach(tuple -> revoked.put(
+                        tuple.getValue(),
+                        Instant.ofEpochMilli(tuple.getScore().longValue())));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Can't load revoked tokens: {}", e.getMessage());
+        }
+
+        Instant expired = Instant.ofEpochMilli(now);
+
+        revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(expired));
+    }
+
+}
@@ -0,0 +1,14 @@
+package dot.liberty.auth.store;
+
+import java.time.Instant;
+
+public record VerificationCode(
+        String code,
+        Instant expiresAt
+) {
+
+    public boolean isExpired() {
+        return expiresAt.isBefore(Instant.now());
+    }
+
+}
@@ -0,0 +1,24 @@
+package dot.liberty.auth.store;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Pending email verification codes by email, kept apart from the users
+ * table so issuing and checking codes doesn't rewrite user rows.
+ */
+public interface VerificationCodeStore {
+
+    /**
+     * Replaces any previous code of the email.
+     */
+    void save(String email, String code, Duration ttl);
+
+    /**
+     * @return the code, which may already be expired but not yet removed
+     */
+    Optional<VerificationCode> find(String email);
+
+    void remove(String email);
+
+}
@@ -0,0 +1,10 @@
+package dot.liberty.auth.util;
+
+import java.time.Instant;
+
+public record IssuedToken(
+        String token,
+        String tokenId,
+        Instant expiresAt
+) {
+}
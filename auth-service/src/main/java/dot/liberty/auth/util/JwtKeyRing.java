@@ -0,0 +1,163 @@
+package dot.liberty.auth.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dot.liberty.auth.config.JwtKeyRingProperties;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.*;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.*;
+
+/**
+ * In-memory ring of signing keys indexed by key id ({@code kid}).
+ * <p>
+ * New tokens are signed with the active key; tokens signed with any key
+ * in the ring are accepted. The public part of the ring is published as
+ * a JWKS document so verifiers don't need any secret.
+ */
+@Component
+@Slf4j
+public class JwtKeyRing {
+
+    private static final String KEY_ALGORITHM = "EC";
+
+    @Getter
+    private final String activeKeyId;
+
+    @Getter
+    private final PrivateKey activeSigningKey;
+
+    private final Map<String, PublicKey> verificationKeys;
+
+    @Getter
+    private final String jwksJson;
+
+    @Getter
+    private final String jwksETag;
+
+    public JwtKeyRing(JwtKeyRingProperties properties, ObjectMapper objectMapper) {
+        Map<String, PublicKey> publicKeys = new LinkedHashMap<>();
+        Map<String, PrivateKey> privateKeys = new HashMap<>();
+
+        String configuredActiveKeyId = properties.getActiveKeyId();
+
+        if (StringUtils.hasText(configuredActiveKeyId)) {
+            loadConfiguredKeys(properties.getKeys(), publicKeys, privateKeys);
+        } else if (properties.isAllowEphemeralKey()) {
+            configuredActiveKeyId = generateEphemeralKey(publicKeys, privateKeys);
+        } else {
+            throw new IllegalStateException("No JWT key ring configured: set jwt.key-ring.active-key-id and "
+                    + "jwt.key-ring.keys, or jwt.key-ring.allow-ephemeral-key for local development");
+        }
+
+        if (!privateKeys.containsKey(configuredActiveKeyId)) {
+            throw new IllegalStateException(
+                    "No private key configured for active key id " + configuredActiveKeyId);
+        }
+
+        this.activeKeyId = configuredActiveKeyId;
+        this.activeSigningKey = privateKeys.get(configuredActiveKeyId);
+        this.verificationKeys = Map.copyOf(publicKeys);
+
+        this.jwksJson = buildJwksJson(publicKeys, objectMapper);
+        this.jwksETag = buildETag(jwksJson);
+
+        log.info("JWT key ring loaded: active key \"{}\", verification keys {}",
+                activeKeyId, publicKeys.keySet());
+    }
+
+    public Optional<PublicKey> findVerificationKey(String keyId) {
+        return Optional.ofNullable(verificationKeys.get(keyId));
+    }
+
+    private static void loadConfiguredKeys(
+            List<JwtKeyRingProperties.Key> keys,
+            Map<String, PublicKey> publicKeys,
+            Map<String, PrivateKey> privateKeys) {
+
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance(KEY_ALGORITHM);
+
+            for (JwtKeyRingProperties.Key key : keys) {
+                if (!StringUtils.hasText(key.getId())) {
+                    throw new IllegalStateException("JWT key ring contains a key without an id");
+                }
+
+                if (!StringUtils.hasText(key.getPublicKey())) {
+                    throw new IllegalStateException("JWT key \"" + key.getId() + "\" has no public-key");
+                }
+
+                publicKeys.put(key.getId(), keyFactory.generatePublic(
+                        new X509EncodedKeySpec(decode(key.getPublicKey()))));
+
+                if (StringUtils.hasText(key.getPrivateKey())) {
+                    privateKeys.put(key.getId(), keyFactory.generatePrivate(
+                            new PKCS8EncodedKeySpec(decode(key.getPrivateKey()))));
+                }
+            }
+        } catch (NoSuchAlgorithmException | InvalidKeySpecException | IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid JWT key ring configuration", e);
+        }
+    }
+
+    private static String generateEphemeralKey(
+            Map<String, PublicKey> publicKeys,
+            Map<String, PrivateKey> privateKeys) {
+
+        log.warn("No JWT key ring configured, generating an ephemeral key (jwt.key-ring.allow-ephemeral-key). "
+                + "Tokens won't survive a restart and can't be shared between instances");
+
+        KeyPair keyPair = Jwts.SIG.ES256.keyPair().build();
+        String keyId = "ephemeral-" + UUID.randomUUID();
+
+        publicKeys.put(keyId, keyPair.getPublic());
+        privateKeys.put(keyId, keyPair.getPrivate());
+
+        return keyId;
+    }
+
+    private static String buildJwksJson(Map<String, PublicKey> publicKeys, ObjectMapper objectMapper) {
+        List<PublicJwk<PublicKey>> jwks = new ArrayList<>();
+
+        publicKeys.forEach((keyId, publicKey) -> jwks.add(
+                Jwks.builder()
+                        .key(publicKey)
+                        .id(keyId)
+                        .algorithm(Jwts.SIG.ES256.getId())
+                        .publicKeyUse("sig")
+                        .build()));
+
+        try {
+            return objectMapper.writeValueAsString(Map.of("keys", jwks));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Can't serialize JWKS", e);
+        }
+    }
+
+    private static String buildETag(String json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(json.getBytes(StandardCharsets.UTF_8));
+
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static byte[] decode(String base64) {
+        return Base64.getMimeDecoder()
+                .decode(base64);
+    }
+
+}
@@ -1,96 +1,134 @@
 package dot.liberty.auth.util;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
+import dot.liberty.auth.entity.Role;
+import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.Optional;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private final Long expiration;
 
-    @Value("${jwt.expiration}")
-    private Long expiration;
+    private final JwtKeyRing keyRing;
 
-    public String generateToken(String email, Long userId, String role) {
+    /**
+     * Key of HS256 tokens issued before the key ring was introduced,
+     * or {@code null} when such tokens are no longer accepted.
+     */
+    private final SecretKey legacySigningKey;
+
+    private final JwtParser jwtParser;
+
+    public JwtUtil(JwtKeyRing keyRing,
+                   @Value("${jwt.secret:}") String secret,
+                   @Value("${jwt.legacy-hmac-verification:false}") boolean legacyHmacVerification,
+                   @Value("${jwt.expiration}") Long expiration) {
+
+        this.keyRing = keyRing;
+        this.expiration = expiration;
+
+        this.legacySigningKey = legacyHmacVerification && StringUtils.hasText(secret)
+                ? Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8))
+                : null;
+
+        this.jwtParser = Jwts.parser()
+                .keyLocator(this::locateVerificationKey)
+                .build();
+    }
+
+    public IssuedToken issueAccessToken(String email, Long userId, String role) {
         Map<String, Object> claims = new HashMap<>();
 
         claims.put("userId", userId);
         claims.put("role", role);
 
+        String tokenId = UUID.randomUUID().toString();
+
         Date now = new Date();
         Date expirationDate = new Date(now.getTime() + expiration);
 
-        return Jwts.builder()
+        String token = Jwts.builder()
+                .header().keyId(keyRing.getActiveKeyId()).and()
+                .id(tokenId)
                 .claims(claims)
                 .subject(email)
                 .issuedAt(now)
                 .expiration(expirationDate)
-                .signWith(getSigningKey())
+                .signWith(keyRing.getActiveSigningKey(), Jwts.SIG.ES256)
                 .compact();
-    }
-
-    public boolean validateToken(String token) {
-        return tryCatchConstructionOfValidationToken(token);
-    }
 
-    public String extractEmail(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return new IssuedToken(token, tokenId, expirationDate.toInstant());
     }
 
-    public Long extractUserId(String token) {
-        return extractClaim(token, claims -> claims.get("userId", Long.class));
+    /**
+     * Parses the token and verifies its signature and expiration once.
+     *
+     * @return claims of the token, or empty if the token is invalid,
+     * expired or misses one of the required claims
+     */
+    public Optional<VerifiedClaims> verifyToken(String token) {
+        try {
+            return Optional.of(parseVerifiedClaims(token));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
     }
 
-    public String extractRole(String token) {
-        return extractClaim(token, claims -> claims.get("role", String.class));
+    public boolean validateToken(String token) {
+        return verifyToken(token).isPresent();
     }
 
-    private boolean tryCatchConstructionOfValidationToken(String token) {
-        try {
-            validateTokenWithoutTryCatchConstruction(token);
-        } catch (Exception e) {
-            return false;
+    private Key locateVerificationKey(Header header) {
+        if (!(header instanceof JwsHeader jwsHeader)) {
+            throw new JwtException("Token is not signed");
         }
 
-        return true;
-    }
+        String keyId = jwsHeader.getKeyId();
 
-    private void validateTokenWithoutTryCatchConstruction(String token) {
-        Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token);
-    }
+        if (keyId == null) {
+            if (legacySigningKey == null) {
+                throw new JwtException("Token has no key id");
+            }
 
-    private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+            return legacySigningKey;
+        }
 
-        return claimsResolver.apply(claims);
+        return keyRing.findVerificationKey(keyId)
+                .orElseThrow(() -> new JwtException("Unknown key id: " + keyId));
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
+    private VerifiedClaims parseVerifiedClaims(String token) {
+        Claims claims = jwtParser.parseSignedClaims(token)
                 .getPayload();
-    }
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        Long userId = claims.get("userId", Long.class);
+        String email = claims.getSubject();
+        String role = claims.get("role", String.class);
+        Date expiresAt = claims.getExpiration();
+
+        if (userId == null || email == null || role == null || expiresAt == null) {
+            throw new JwtException("Token doesn't contain required claims");
+        }
 
-        return Keys.hmacShaKeyFor(keyBytes);
+        return new VerifiedClaims(
+                claims.getId(),
+                userId,
+                email,
+                Role.valueOf(role),
+                expiresAt.toInstant()
+        );
     }
 
 }
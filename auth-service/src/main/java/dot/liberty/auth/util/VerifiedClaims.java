@@ -0,0 +1,18 @@
+package dot.liberty.auth.util;
+
+import dot.liberty.auth.entity.Role;
+
+import java.time.Instant;
+
+/**
+ * Claims of a token whose signature and expiration were already checked.
+ * {@code tokenId} is {@code null} for tokens issued before jti was added.
+ */
+public record VerifiedClaims(
+        String tokenId,
+        Long userId,
+        String email,
+        Role role,
+        Instant expiresAt
+) {
+}
@@ -0,0 +1,99 @@
+package dot.liberty.auth.cache;
+
+import dot.liberty.auth.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EmailBloomFilterTests {
+
+	private final UserRepository userRepository = mock(UserRepository.class);
+
+	private final EmailBloomFilter filter = new EmailBloomFilter(
+			userRepository, mock(PlatformTransactionManager.class), new SimpleMeterRegistry(),
+			10_000, 0.01, Duration.ofHours(1));
+
+	@AfterEach
+	void tearDown() {
+		filter.stop();
+	}
+
+	@Test
+	void mightContainEverythingUntilTheFirstRebuild() {
+		assertThat(filter.mightContain("user@dot.liberty")).isTrue();
+	}
+
+	@Test
+	void answersAbsentOnlyForEmailsNeitherLoadedNorPut() {
+		when(userRepository.streamAllEmails()).thenAnswer(invocation -> Stream.of("loaded@dot.liberty"));
+
+		filter.rebuild();
+		filter.put("put@dot.liberty");
+
+		assertThat(filter.mightContain("loaded@dot.liberty")).isTrue();
+		assertThat(filter.mightContain("put@dot.liberty")).isTrue();
+		assertThat(filter.mightContain("unknown@dot.liberty")).isFalse();
+	}
+
+	@Test
+	void keepsEmailsPutWhileARebuildRuns() {
+		when(userRepository.streamAllEmails()).thenAnswer(invocation -> Stream.of("loaded@dot.liberty")
+				.peek(email -> filter.put("registered-during-rebuild@dot.liberty")));
+
+		filter.rebuild();
+
+		assertThat(filter.mightContain("registered-during-rebuild@dot.liberty")).isTrue();
+	}
+
+	@Test
+	void losesNoConcurrentPutAcrossRebuilds() throws Exception {
+		Queue<String> users = new ConcurrentLinkedQueue<>();
+		when(userRepository.streamAllEmails()).thenAnswer(invocation -> List.copyOf(users).stream());
+		filter.rebuild();
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<?>> putters = new ArrayList<>();
+
+		try {
+			for (int thread = 0; thread < 4; thread++) {
+				int offset = thread * 2_000;
+
+				putters.add(executor.submit(() -> IntStream.range(offset, offset + 2_000)
+						.forEach(i -> {
+							users.add("user" + i + "@dot.liberty");
+							filter.put("user" + i + "@dot.liberty");
+						})));
+			}
+
+			while (putters.stream().anyMatch(putter -> !putter.isDone())) {
+				filter.rebuild();
+			}
+
+			for (Future<?> putter : putters) {
+				putter.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(IntStream.range(0, 8_000))
+				.allMatch(i -> filter.mightContain("user" + i + "@dot.liberty"));
+	}
+
+}
@@ -0,0 +1,113 @@
+package dot.liberty.auth.cache;
+
+import dot.liberty.auth.entity.Role;
+import dot.liberty.auth.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserCacheTests {
+
+	private final UserCache cache = cache(true);
+
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void loadsAUserOnceAndHandsOutCopies() {
+		User first = cache.findByEmail("user@dot.liberty", this::load).orElseThrow();
+		first.setRole(null);
+
+		User second = cache.findByEmail("user@dot.liberty", this::load).orElseThrow();
+
+		assertThat(loads).hasValue(1);
+		assertThat(second).isNotSameAs(first);
+		assertThat(second.getRole()).isNotNull();
+	}
+
+	@Test
+	void remembersThatAnEmailIsNotRegistered() {
+		assertThat(cache.existsByEmail("new@dot.liberty", this::countedMiss)).isFalse();
+		assertThat(cache.existsByEmail("new@dot.liberty", this::countedMiss)).isFalse();
+		assertThat(cache.findByEmail("new@dot.liberty", email -> countedEmpty())).isEmpty();
+
+		assertThat(loads).hasValue(1);
+	}
+
+	@Test
+	void keysAreCaseSensitiveLikeTheUsersTable() {
+		cache.findByEmail("user@dot.liberty", this::load);
+
+		assertThat(cache.findByEmail("USER@dot.liberty", email -> countedEmpty())).isEmpty();
+		assertThat(loads).hasValue(2);
+	}
+
+	@Test
+	void evictsAgainAfterTheTransactionCompletes() {
+		TransactionSynchronizationManager.initSynchronization();
+
+		cache.evict("user@dot.liberty");
+
+		// a concurrent read caches the row as it was before the commit
+		cache.findByEmail("user@dot.liberty", this::load);
+
+		TransactionSynchronizationManager.getSynchronizations()
+				.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+		cache.findByEmail("user@dot.liberty", this::load);
+
+		assertThat(loads).hasValue(2);
+	}
+
+	@Test
+	void disabledCacheAlwaysLoads() {
+		UserCache disabled = cache(false);
+
+		disabled.findByEmail("user@dot.liberty", this::load);
+		disabled.findByEmail("user@dot.liberty", this::load);
+
+		assertThat(loads).hasValue(2);
+	}
+
+	private Optional<User> load(String email) {
+		loads.incrementAndGet();
+
+		return Optional.of(User.builder()
+				.id(1L)
+				.email(email)
+				.password("hash")
+				.role(Role.CUSTOMER)
+				.build());
+	}
+
+	private Boolean countedMiss() {
+		loads.incrementAndGet();
+
+		return false;
+	}
+
+	private Optional<User> countedEmpty() {
+		loads.incrementAndGet();
+
+		return Optional.empty();
+	}
+
+	private static UserCache cache(boolean enabled) {
+		return new UserCache(enabled, 100, Duration.ofMinutes(1), Duration.ofMinutes(1), new SimpleMeterRegistry());
+	}
+
+}
@@ -0,0 +1,81 @@
+package dot.liberty.auth.config;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to run a burst of tasks that block like a database or HTTP call,
+ * on a 200-thread platform pool (Tomcat's default) and on virtual threads.
+ * <p>
+ * Run {@link #main(String[])} after {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+	private static final int TASKS = 2_000;
+	private static final long BLOCKING_MILLIS = 50;
+
+	private static final int PLATFORM_POOL_SIZE = 200;
+
+	@Param({"platform", "virtual"})
+	private String threads;
+
+	private ExecutorService executor;
+
+	@Setup
+	public void setUp() {
+		executor = threads.equals("platform")
+				? Executors.newFixedThreadPool(PLATFORM_POOL_SIZE)
+				: Executors.newVirtualThreadPerTaskExecutor();
+	}
+
+	@TearDown
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Benchmark
+	public int blockingBurst() throws Exception {
+		List<Future<?>> tasks = new ArrayList<>(TASKS);
+
+		for (int i = 0; i < TASKS; i++) {
+			tasks.add(executor.submit(VirtualThreadBenchmark::block));
+		}
+
+		for (Future<?> task : tasks) {
+			task.get();
+		}
+
+		return tasks.size();
+	}
+
+	private static Void block() throws InterruptedException {
+		Thread.sleep(BLOCKING_MILLIS);
+
+		return null;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(VirtualThreadBenchmark.class.getSimpleName())
+				.build();
+
+		new Runner(options).run();
+	}
+
+}
@@ -0,0 +1,106 @@
+package dot.liberty.auth.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadWriteRoutingDataSourceTests {
+
+	private EmbeddedDatabase primary;
+	private EmbeddedDatabase replica;
+
+	private SimpleMeterRegistry meterRegistry;
+
+	private JdbcTemplate jdbcTemplate;
+	private TransactionTemplate readWrite;
+	private TransactionTemplate readOnly;
+
+	@BeforeEach
+	void setUp() {
+		primary = database("primary");
+		replica = database("replica");
+
+		meterRegistry = new SimpleMeterRegistry();
+
+		ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(
+				primary, List.of(replica), meterRegistry);
+		LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		readWrite = new TransactionTemplate(transactionManager);
+		readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+	}
+
+	@AfterEach
+	void tearDown() {
+		primary.shutdown();
+		replica.shutdown();
+	}
+
+	@Test
+	void readOnlyTransactionsGoToTheReplica() {
+		assertThat(readOnlyDatabase()).isEqualTo("replica");
+		assertThat(meterRegistry.get("auth.datasource.routed").tag("target", "replica-0").counter().count())
+				.isEqualTo(1);
+	}
+
+	@Test
+	void writesAndNonTransactionalCallsGoToThePrimary() {
+		assertThat(readWriteDatabase()).isEqualTo("primary");
+		assertThat(currentDatabase()).isEqualTo("primary");
+	}
+
+	@Test
+	void recentWritesAreReadFromThePrimary() {
+		ReadYourWritesTracker tracker = new ReadYourWritesTracker(Duration.ofMinutes(1), 100);
+
+		tracker.recordWrite("user@dot.liberty");
+
+		assertThat(tracker.read("user@dot.liberty", this::readOnlyDatabase))
+				.isEqualTo("primary");
+		assertThat(tracker.read("other@dot.liberty", this::readOnlyDatabase))
+				.isEqualTo("replica");
+	}
+
+	private String readOnlyDatabase() {
+		return readOnly.execute(status -> currentDatabase());
+	}
+
+	private String readWriteDatabase() {
+		return readWrite.execute(status -> currentDatabase());
+	}
+
+	private String currentDatabase() {
+		return jdbcTemplate.queryForObject("SELECT name FROM database_role", String.class);
+	}
+
+	private static EmbeddedDatabase database(String name) {
+		EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+				.setType(EmbeddedDatabaseType.H2)
+				.setName(name)
+				.build();
+
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+		jdbcTemplate.execute("CREATE TABLE database_role (name VARCHAR(16))");
+		jdbcTemplate.update("INSERT INTO database_role VALUES (?)", name);
+
+		return database;
+	}
+
+}
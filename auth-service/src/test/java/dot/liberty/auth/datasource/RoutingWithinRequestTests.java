@@ -0,0 +1,124 @@
+package dot.liberty.auth.datasource;
+
+import dot.liberty.auth.config.DataSourceRoutingConfig;
+import dot.liberty.auth.config.DataSourceRoutingProperties;
+import dot.liberty.auth.entity.Role;
+import dot.liberty.auth.entity.User;
+import dot.liberty.auth.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A read followed by a write in one request, with the entity manager kept
+ * open for the whole request as open-in-view does.
+ */
+@DataJpaTest(properties = {
+		"spring.cloud.config.enabled=false",
+		"spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+		"datasource-routing.enabled=true",
+		"datasource-routing.replicas[0].url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1",
+		"spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({DataSourceRoutingConfig.class, RoutingWithinRequestTests.Routing.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RoutingWithinRequestTests {
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private ReadWriteRoutingDataSource routingDataSource;
+
+	private JdbcTemplate primary;
+	private JdbcTemplate replica;
+
+	private final OpenEntityManagerInViewInterceptor openInView = new OpenEntityManagerInViewInterceptor();
+	private final ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest());
+
+	@BeforeEach
+	void setUp() {
+		primary = new JdbcTemplate(routingDataSource.getResolvedDefaultDataSource());
+		replica = new JdbcTemplate(routingDataSource.getResolvedDataSources().get("replica-0"));
+
+		primary.update("DELETE FROM users");
+
+		List<String> schema = primary.queryForList("SCRIPT NODATA", String.class);
+
+		replica.execute("DROP ALL OBJECTS");
+		schema.forEach(replica::execute);
+
+		openInView.setEntityManagerFactory(entityManagerFactory);
+		openInView.preHandle(request);
+	}
+
+	@AfterEach
+	void tearDown() {
+		openInView.afterCompletion(request, null);
+	}
+
+	@Test
+	void writeAfterReadOnlyLookupGoesToThePrimary() {
+		TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+
+		Optional<User> existing = readOnly.execute(status -> userRepository.findByEmail("user@dot.liberty"));
+
+		assertThat(existing).isEmpty();
+
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> userRepository.save(User.builder()
+				.email("user@dot.liberty")
+				.password("hash")
+				.role(Role.CUSTOMER)
+				.build()));
+
+		assertThat(countUsers(primary)).isEqualTo(1);
+		assertThat(countUsers(replica)).isZero();
+	}
+
+	private static Integer countUsers(JdbcTemplate jdbcTemplate) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Integer.class);
+	}
+
+	@TestConfiguration
+	@EnableConfigurationProperties(DataSourceRoutingProperties.class)
+	static class Routing {
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+
+	}
+
+}
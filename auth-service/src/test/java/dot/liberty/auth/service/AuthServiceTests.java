@@ -0,0 +1,143 @@
+package dot.liberty.auth.service;
+
+import dot.liberty.auth.dto.request.ValidateTokenBatchRequest;
+import dot.liberty.auth.dto.request.VerifyEmailRequest;
+import dot.liberty.auth.dto.response.TokenValidationResult;
+import dot.liberty.auth.dto.response.ValidateTokenBatchResponse;
+import dot.liberty.auth.entity.Role;
+import dot.liberty.auth.entity.User;
+import dot.liberty.auth.exception.InvalidVerificationCodeException;
+import dot.liberty.auth.exception.TokenBatchTooLargeException;
+import dot.liberty.auth.store.VerificationCode;
+import dot.liberty.auth.store.VerificationCodeStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class AuthServiceTests {
+
+	private final UserService userService = mock(UserService.class);
+	private final VerificationCodeStore verificationCodeStore = mock(VerificationCodeStore.class);
+	private final RefreshTokenService refreshTokenService = mock(RefreshTokenService.class);
+
+	private final AuthService authService = new AuthService(
+			userService, verificationCodeStore, refreshTokenService, 3);
+
+	@Test
+	void validatesEachTokenOfABatchOnItsOwn() {
+		when(userService.generateTokenValidationResult(anyString())).thenAnswer(invocation ->
+				TokenValidationResult.builder()
+						.valid(invocation.getArgument(0, String.class).startsWith("good"))
+						.build());
+
+		ValidateTokenBatchResponse response = authService.validateTokenBatch(batch("good-1", "forged", "good-2"));
+
+		assertThat(response.getResults())
+				.extracting(TokenValidationResult::isValid)
+				.containsExactly(true, false, true);
+	}
+
+	@Test
+	void acceptsABatchOfTheConfiguredSize() {
+		when(userService.generateTokenValidationResult(anyString()))
+				.thenReturn(TokenValidationResult.builder().valid(true).build());
+
+		assertThat(authService.validateTokenBatch(batch("a", "b", "c")).getResults()).hasSize(3);
+	}
+
+	@Test
+	void rejectsABatchOverTheConfiguredSize() {
+		assertThatThrownBy(() -> authService.validateTokenBatch(batch("a", "b", "c", "d")))
+				.isInstanceOf(TokenBatchTooLargeException.class)
+				.hasMessage("At most 3 tokens per batch");
+
+		verifyNoInteractions(userService);
+	}
+
+	@Test
+	void removesTheVerificationCodeOnlyAfterTheVerificationCommits() {
+		verifiableUser();
+
+		TransactionSynchronizationManager.initSynchronization();
+
+		try {
+			authService.verifyEmail(verifyRequest("123456"));
+
+			verify(verificationCodeStore, never()).remove(anyString());
+
+			TransactionSynchronizationManager.getSynchronizations()
+					.forEach(TransactionSynchronization::afterCommit);
+
+			verify(verificationCodeStore).remove("user@dot.liberty");
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void keepsTheVerificationCodeWhenTheVerificationRollsBack() {
+		verifiableUser();
+
+		TransactionSynchronizationManager.initSynchronization();
+
+		try {
+			authService.verifyEmail(verifyRequest("123456"));
+
+			TransactionSynchronizationManager.getSynchronizations()
+					.forEach(synchronization -> synchronization.afterCompletion(
+							TransactionSynchronization.STATUS_ROLLED_BACK));
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		verify(verificationCodeStore, never()).remove(anyString());
+	}
+
+	@Test
+	void rejectsAWrongVerificationCode() {
+		verifiableUser();
+
+		assertThatThrownBy(() -> authService.verifyEmail(verifyRequest("654321")))
+				.isInstanceOf(InvalidVerificationCodeException.class);
+
+		verify(userService, never()).saveUserInDB(any());
+		verify(verificationCodeStore, never()).remove(anyString());
+	}
+
+	private void verifiableUser() {
+		User user = User.builder()
+				.id(1L)
+				.email("user@dot.liberty")
+				.role(Role.CUSTOMER)
+				.isEmailVerified(false)
+				.build();
+
+		when(userService.findUserByEmail("user@dot.liberty")).thenReturn(user);
+		when(verificationCodeStore.find("user@dot.liberty"))
+				.thenReturn(Optional.of(new VerificationCode("123456", Instant.now().plusSeconds(60))));
+	}
+
+	private static VerifyEmailRequest verifyRequest(String code) {
+		return VerifyEmailRequest.builder()
+				.email("user@dot.liberty")
+				.code(code)
+				.build();
+	}
+
+	private static ValidateTokenBatchRequest batch(String... tokens) {
+		return ValidateTokenBatchRequest.builder()
+				.tokens(List.of(tokens))
+				.build();
+	}
+
+}
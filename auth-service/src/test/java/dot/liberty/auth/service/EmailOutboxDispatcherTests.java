@@ -0,0 +1,161 @@
+package dot.liberty.auth.service;
+
+import dot.liberty.auth.client.NotificationServiceClient;
+import dot.liberty.auth.client.dto.BatchItemResult;
+import dot.liberty.auth.client.dto.SendBatchResponse;
+import dot.liberty.auth.entity.EmailOutboxMessage;
+import feign.FeignException;
+import feign.Request;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class EmailOutboxDispatcherTests {
+
+	private final EmailOutboxService outboxService = mock(EmailOutboxService.class);
+	private final NotificationServiceClient client = mock(NotificationServiceClient.class);
+
+	private final EmailOutboxDispatcher dispatcher = new EmailOutboxDispatcher(outboxService, client);
+
+	@Test
+	void deletesDeliveredMessagesAndReschedulesFailedOnes() {
+		EmailOutboxMessage delivered = message(1L, "first@dot.liberty");
+		EmailOutboxMessage failed = message(2L, "second@dot.liberty");
+
+		when(outboxService.claimDueMessages()).thenReturn(List.of(delivered, failed));
+		when(client.sendBatch(anyList())).thenReturn(SendBatchResponse.builder()
+				.accepted(1)
+				.rejected(1)
+				.results(List.of(
+						BatchItemResult.builder().index(0).accepted(true).messageId("m1").build(),
+						BatchItemResult.builder().index(1).accepted(false).errors(Map.of("to", "invalid")).build()))
+				.build());
+
+		dispatcher.dispatch();
+
+		verify(client).sendBatch(argThat(requests -> requests.size() == 2));
+		verify(outboxService).markFailed(eq(failed), any());
+		verify(outboxService).markDelivered(List.of(1L));
+	}
+
+	@Test
+	void failedBatchIsResentWithoutFailingAnyMessage() {
+		List<EmailOutboxMessage> messages = List.of(message(1L, "first@dot.liberty"), message(2L, "second@dot.liberty"));
+
+		when(outboxService.claimDueMessages()).thenReturn(messages);
+		when(client.sendBatch(anyList())).thenThrow(new IllegalStateException("read timed out"));
+
+		dispatcher.dispatch();
+
+		verify(outboxService).markUndelivered(messages, "read timed out");
+		verify(outboxService, never()).markFailed(any(), any());
+		verify(outboxService, never()).markDelivered(any());
+	}
+
+	@Test
+	void batchRejectedByNotificationServiceFailsEachMessage() {
+		EmailOutboxMessage first = message(1L, "first@dot.liberty");
+		EmailOutboxMessage second = message(2L, "second@dot.liberty");
+
+		when(outboxService.claimDueMessages()).thenReturn(List.of(first, second));
+		when(client.sendBatch(anyList())).thenThrow(new FeignException.BadRequest("invalid batch", request(), null, null));
+
+		dispatcher.dispatch();
+
+		verify(outboxService).markFailed(eq(first), any());
+		verify(outboxService).markFailed(eq(second), any());
+		verify(outboxService, never()).markUndelivered(any(), any());
+	}
+
+	@Test
+	void unavailableNotificationServiceLeavesTheOutcomeUnknown() {
+		List<EmailOutboxMessage> messages = List.of(message(1L, "first@dot.liberty"));
+
+		when(outboxService.claimDueMessages()).thenReturn(messages);
+		when(client.sendBatch(anyList()))
+				.thenThrow(new FeignException.ServiceUnavailable("unavailable", request(), null, null));
+
+		dispatcher.dispatch();
+
+		verify(outboxService).markUndelivered(eq(messages), any());
+		verify(outboxService, never()).markFailed(any(), any());
+	}
+
+	@Test
+	void failureToRescheduleOneMessageDoesNotAffectTheOthers() {
+		EmailOutboxMessage delivered = message(1L, "first@dot.liberty");
+		EmailOutboxMessage first = message(2L, "second@dot.liberty");
+		EmailOutboxMessage second = message(3L, "third@dot.liberty");
+
+		when(outboxService.claimDueMessages()).thenReturn(List.of(delivered, first, second));
+		when(client.sendBatch(anyList())).thenReturn(SendBatchResponse.builder()
+				.accepted(1)
+				.rejected(2)
+				.results(List.of(
+						BatchItemResult.builder().index(0).accepted(true).messageId("m1").build(),
+						BatchItemResult.builder().index(1).accepted(false).errors(Map.of("to", "invalid")).build(),
+						BatchItemResult.builder().index(2).accepted(false).errors(Map.of("to", "invalid")).build(),
+						BatchItemResult.builder().index(7).accepted(true).messageId("m7").build()))
+				.build());
+		doThrow(new IllegalStateException("connection lost")).when(outboxService).markFailed(eq(first), any());
+
+		dispatcher.dispatch();
+
+		verify(outboxService).markDelivered(List.of(1L));
+		verify(outboxService).markFailed(eq(second), any());
+	}
+
+	@Test
+	void sendsTheTemplateInsteadOfTheFallbackText() {
+		EmailOutboxMessage templated = message(1L, "first@dot.liberty");
+		templated.setTemplateId("verification-code");
+		templated.setTemplateParams(Map.of("code", "123456"));
+
+		when(outboxService.claimDueMessages()).thenReturn(List.of(templated, message(2L, "second@dot.liberty")));
+		when(client.sendBatch(anyList())).thenReturn(SendBatchResponse.builder().results(List.of()).build());
+
+		dispatcher.dispatch();
+
+		verify(client).sendBatch(argThat(requests -> requests.get(0).getTemplateId().equals("verification-code")
+				&& requests.get(0).getSubject() == null
+				&& requests.get(0).getBody() == null
+				&& requests.get(1).getTemplateId() == null
+				&& requests.get(1).getSubject().equals("Subject")));
+	}
+
+	@Test
+	void doesNothingWithoutDueMessages() {
+		when(outboxService.claimDueMessages()).thenReturn(List.of());
+
+		dispatcher.dispatch();
+
+		verifyNoInteractions(client);
+		verify(outboxService, never()).markDelivered(any());
+	}
+
+	private static Request request() {
+		return Request.create(Request.HttpMethod.POST, "http://notification-service/api/notifications/send-batch",
+				Map.of(), null, StandardCharsets.UTF_8, null);
+	}
+
+	private static EmailOutboxMessage message(Long id, String recipient) {
+		return EmailOutboxMessage.builder()
+				.id(id)
+				.recipient(recipient)
+				.subject("Subject")
+				.body("Body")
+				.attempts(1)
+				.nextAttemptAt(LocalDateTime.now())
+				.build();
+	}
+
+}
@@ -0,0 +1,123 @@
+package dot.liberty.auth.service;
+
+import dot.liberty.auth.entity.EmailOutboxMessage;
+import dot.liberty.auth.entity.OutboxStatus;
+import dot.liberty.auth.repository.EmailOutboxRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.time.temporal.ChronoUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EmailOutboxServiceTests {
+
+	private final EmailOutboxRepository repository = mock(EmailOutboxRepository.class);
+
+	private final EmailOutboxService service = new EmailOutboxService(
+			repository, 50, 5, Duration.ofMinutes(1), Duration.ofSeconds(5), Duration.ofMinutes(1));
+
+	@Test
+	void templateMessageKeepsItsFallbackText() {
+		service.enqueue("user@dot.liberty", "verification-code", Map.of("code", "123456"), "Subject", "Body");
+
+		verify(repository).save(argThat(message -> message.getTemplateId().equals("verification-code")
+				&& message.getSubject().equals("Subject")
+				&& message.getBody().equals("Body")));
+	}
+
+	@Test
+	void claimCountsTheAttemptAndLeasesTheMessage() {
+		EmailOutboxMessage message = message(0);
+		when(repository.lockDueMessages(any(), anyInt())).thenReturn(List.of(message));
+
+		service.claimDueMessages();
+
+		assertThat(message.getAttempts()).isEqualTo(1);
+		assertThat(message.getNextAttemptAt()).isCloseTo(LocalDateTime.now().plusMinutes(1), within(5, SECONDS));
+	}
+
+	@Test
+	void failedMessageIsRetriedWithExponentialBackoff() {
+		EmailOutboxMessage message = stored(message(3));
+
+		service.markFailed(message, "connection refused");
+
+		assertThat(message.getStatus()).isEqualTo(OutboxStatus.PENDING);
+		assertThat(message.getLastError()).isEqualTo("connection refused");
+		assertThat(message.getNextAttemptAt()).isCloseTo(LocalDateTime.now().plusSeconds(20), within(5, SECONDS));
+	}
+
+	@Test
+	void backoffIsCappedAtTheMaximum() {
+		EmailOutboxMessage message = stored(message(30));
+
+		new EmailOutboxService(repository, 50, 50, Duration.ofMinutes(1), Duration.ofSeconds(5), Duration.ofMinutes(1))
+				.markFailed(message, "connection refused");
+
+		assertThat(message.getNextAttemptAt()).isCloseTo(LocalDateTime.now().plusMinutes(1), within(5, SECONDS));
+	}
+
+	@Test
+	void messageOutOfAttemptsIsKeptAsFailed() {
+		EmailOutboxMessage message = stored(message(5));
+		LocalDateTime nextAttemptAt = message.getNextAttemptAt();
+
+		service.markFailed(message, "mailbox unavailable");
+
+		assertThat(message.getStatus()).isEqualTo(OutboxStatus.FAILED);
+		assertThat(message.getNextAttemptAt()).isEqualTo(nextAttemptAt);
+	}
+
+	@Test
+	void undeliveredBatchKeepsTheAttemptAndBacksOffFurther() {
+		EmailOutboxMessage message = message(3);
+		when(repository.findAllById(List.of(1L))).thenReturn(List.of(message));
+
+		service.markUndelivered(List.of(message), "read timed out");
+
+		assertThat(message.getStatus()).isEqualTo(OutboxStatus.PENDING);
+		assertThat(message.getAttempts()).isEqualTo(3);
+		assertThat(message.getLastError()).isEqualTo("read timed out");
+		assertThat(message.getNextAttemptAt()).isCloseTo(LocalDateTime.now().plusSeconds(20), within(5, SECONDS));
+	}
+
+	@Test
+	void batchThatNeverGetsThroughIsGivenUpOn() {
+		EmailOutboxMessage message = message(5);
+		when(repository.findAllById(List.of(1L))).thenReturn(List.of(message));
+
+		service.markUndelivered(List.of(message), "read timed out");
+
+		assertThat(message.getStatus()).isEqualTo(OutboxStatus.FAILED);
+	}
+
+	private EmailOutboxMessage stored(EmailOutboxMessage message) {
+		when(repository.findById(message.getId())).thenReturn(Optional.of(message));
+
+		return message;
+	}
+
+	private static EmailOutboxMessage message(int attempts) {
+		return EmailOutboxMessage.builder()
+				.id(1L)
+				.recipient("user@dot.liberty")
+				.subject("Subject")
+				.body("Body")
+				.attempts(attempts)
+				.nextAttemptAt(LocalDateTime.now())
+				.build();
+	}
+
+}
@@ -0,0 +1,156 @@
+package dot.liberty.auth.service;
+
+import dot.liberty.auth.controller.GlobalExceptionHandler;
+import dot.liberty.auth.exception.PasswordHashingOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PasswordHashingServiceTests {
+
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final CountDownLatch hashing = new CountDownLatch(1);
+
+	private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private PasswordHashingService service;
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+
+		if (service != null) {
+			service.shutdown();
+		}
+	}
+
+	@Test
+	void hashesOnThePool() {
+		service = service(Duration.ofSeconds(5));
+		when(passwordEncoder.encode("secret")).thenReturn("hash");
+
+		assertThat(service.encode("secret")).isEqualTo("hash");
+	}
+
+	@Test
+	void saturatedPoolRejectsWithRetryAfter() throws Exception {
+		service = service(Duration.ofSeconds(5));
+		blockHashing();
+
+		CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> service.encode("first"));
+		assertThat(hashing.await(5, TimeUnit.SECONDS)).isTrue();
+
+		CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> service.encode("second"));
+		awaitQueued();
+
+		assertThatThrownBy(() -> service.encode("third"))
+				.isInstanceOf(PasswordHashingOverloadedException.class)
+				.extracting(e -> ((PasswordHashingOverloadedException) e).getRetryAfter())
+				.isEqualTo(Duration.ofSeconds(2));
+
+		release.countDown();
+
+		assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hash");
+		assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hash");
+	}
+
+	@Test
+	void callNotDoneWithinTheTimeoutIsRejectedAndCancelled() throws Exception {
+		service = service(Duration.ofMillis(100));
+
+		AtomicBoolean interrupted = new AtomicBoolean();
+		CountDownLatch cancelled = new CountDownLatch(1);
+
+		when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				interrupted.set(true);
+				cancelled.countDown();
+			}
+
+			return "hash";
+		});
+
+		assertThatThrownBy(() -> service.encode("secret"))
+				.isInstanceOf(PasswordHashingOverloadedException.class);
+
+		assertThat(cancelled.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(interrupted).isTrue();
+	}
+
+	@Test
+	void interruptedCallerKeepsItsInterrupt() throws Exception {
+		service = service(Duration.ofSeconds(5));
+		blockHashing();
+
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		AtomicBoolean stillInterrupted = new AtomicBoolean();
+
+		Thread caller = new Thread(() -> {
+			try {
+				service.encode("secret");
+			} catch (RuntimeException e) {
+				failure.set(e);
+				stillInterrupted.set(Thread.currentThread().isInterrupted());
+			}
+		});
+
+		caller.start();
+		assertThat(hashing.await(5, TimeUnit.SECONDS)).isTrue();
+
+		caller.interrupt();
+		caller.join(5000);
+
+		assertThat(failure.get()).isInstanceOf(IllegalStateException.class);
+		assertThat(stillInterrupted).isTrue();
+	}
+
+	@Test
+	void overloadIsReportedAs503WithRetryAfter() {
+		ResponseEntity<Map<String, String>> response = new GlobalExceptionHandler()
+				.handlePasswordHashingOverloaded(new PasswordHashingOverloadedException(Duration.ofSeconds(2)));
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+		assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+	}
+
+	private PasswordHashingService service(Duration timeout) {
+		return new PasswordHashingService(passwordEncoder, meterRegistry, 1, 1, timeout, Duration.ofSeconds(2));
+	}
+
+	private void blockHashing() {
+		when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> {
+			hashing.countDown();
+			release.await();
+
+			return "hash";
+		});
+	}
+
+	private void awaitQueued() throws InterruptedException {
+		for (int i = 0; i < 500 && meterRegistry.get("executor.queued").gauge().value() < 1; i++) {
+			Thread.sleep(10);
+		}
+	}
+
+}
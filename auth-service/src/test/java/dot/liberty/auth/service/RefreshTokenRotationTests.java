@@ -0,0 +1,128 @@
+package dot.liberty.auth.service;
+
+import dot.liberty.auth.dto.request.RefreshTokenRequest;
+import dot.liberty.auth.dto.response.AuthResponse;
+import dot.liberty.auth.entity.Role;
+import dot.liberty.auth.entity.User;
+import dot.liberty.auth.exception.InvalidCredentialsException;
+import dot.liberty.auth.repository.RefreshTokenRepository;
+import dot.liberty.auth.store.RevokedTokenRegistry;
+import dot.liberty.auth.store.VerificationCodeStore;
+import dot.liberty.auth.util.IssuedToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest(properties = {
+		"spring.cloud.config.enabled=false",
+		"jwt.refresh-expiration=60000"
+})
+@Import({AuthService.class, RefreshTokenService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RefreshTokenRotationTests {
+
+	@Autowired
+	private AuthService authService;
+
+	@Autowired
+	private RefreshTokenService refreshTokenService;
+
+	@Autowired
+	private RefreshTokenRepository refreshTokenRepository;
+
+	@MockitoBean
+	private UserService userService;
+
+	@MockitoBean
+	private VerificationCodeStore verificationCodeStore;
+
+	@MockitoBean
+	private RevokedTokenRegistry revokedTokenRegistry;
+
+	private final User user = User.builder()
+			.id(1L)
+			.email("user@dot.liberty")
+			.role(Role.CUSTOMER)
+			.build();
+
+	@BeforeEach
+	void setUp() {
+		refreshTokenRepository.deleteAll();
+
+		when(userService.findUserById(1L)).thenReturn(user);
+		when(userService.generateAuthResponse(eq(user), anyString())).thenAnswer(invocation -> {
+			String next = refreshTokenService.issue(1L, invocation.getArgument(1), accessToken("jti-next"));
+
+			return AuthResponse.builder()
+					.refreshToken(next)
+					.build();
+		});
+	}
+
+	@Test
+	void rotatesTheTokenWithinItsFamily() {
+		String token = refreshTokenService.issue(1L, null, accessToken("jti-1"));
+
+		String next = authService.refreshToken(request(token)).getRefreshToken();
+
+		assertThat(next).isNotEqualTo(token);
+		assertThat(refreshTokenRepository.findAll())
+				.hasSize(2)
+				.extracting(refreshToken -> refreshToken.getFamilyId())
+				.containsOnly(refreshTokenRepository.findAll().getFirst().getFamilyId());
+	}
+
+	@Test
+	void keepsTheTokenUsableWhenIssuingItsSuccessorFails() {
+		String token = refreshTokenService.issue(1L, null, accessToken("jti-1"));
+
+		doThrow(new IllegalStateException("signing failed"))
+				.when(userService).generateAuthResponse(eq(user), anyString());
+
+		assertThatThrownBy(() -> authService.refreshToken(request(token)))
+				.isInstanceOf(IllegalStateException.class);
+
+		assertThat(refreshTokenRepository.findAll())
+				.singleElement()
+				.satisfies(refreshToken -> assertThat(refreshToken.getRevoked()).isFalse());
+	}
+
+	@Test
+	void reuseRevokesTheFamilyAndItsAccessTokens() {
+		String token = refreshTokenService.issue(1L, null, accessToken("jti-1"));
+
+		authService.refreshToken(request(token));
+
+		assertThatThrownBy(() -> authService.refreshToken(request(token)))
+				.isInstanceOf(InvalidCredentialsException.class);
+
+		assertThat(refreshTokenRepository.findAll())
+				.hasSize(2)
+				.allSatisfy(refreshToken -> assertThat(refreshToken.getRevoked()).isTrue());
+		verify(revokedTokenRegistry).revoke(eq("jti-1"), any());
+		verify(revokedTokenRegistry).revoke(eq("jti-next"), any());
+	}
+
+	private static IssuedToken accessToken(String tokenId) {
+		return new IssuedToken("access-token", tokenId, Instant.now().plusSeconds(900));
+	}
+
+	private static RefreshTokenRequest request(String token) {
+		return RefreshTokenRequest.builder()
+				.refreshToken(token)
+				.build();
+	}
+
+}
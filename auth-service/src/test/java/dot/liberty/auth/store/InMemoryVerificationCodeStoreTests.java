@@ -0,0 +1,46 @@
+package dot.liberty.auth.store;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryVerificationCodeStoreTests {
+
+	private final InMemoryVerificationCodeStore store = new InMemoryVerificationCodeStore(new SimpleMeterRegistry());
+
+	@Test
+	void replacesThePreviousCodeOfTheEmail() {
+		store.save("user@dot.liberty", "111111", Duration.ofMinutes(15));
+		store.save("user@dot.liberty", "222222", Duration.ofMinutes(15));
+
+		assertThat(store.find("user@dot.liberty"))
+				.map(VerificationCode::code)
+				.contains("222222");
+	}
+
+	@Test
+	void sweepsOnlyExpiredCodes() {
+		store.save("expired@dot.liberty", "111111", Duration.ofSeconds(-1));
+		store.save("pending@dot.liberty", "222222", Duration.ofMinutes(15));
+
+		assertThat(store.find("expired@dot.liberty")).hasValueSatisfying(code -> assertThat(code.isExpired()).isTrue());
+
+		store.sweepExpired();
+
+		assertThat(store.find("expired@dot.liberty")).isEmpty();
+		assertThat(store.find("pending@dot.liberty")).isPresent();
+	}
+
+	@Test
+	void forgetsRemovedCodes() {
+		store.save("user@dot.liberty", "111111", Duration.ofMinutes(15));
+
+		store.remove("user@dot.liberty");
+
+		assertThat(store.find("user@dot.liberty")).isEmpty();
+	}
+
+}
@@ -0,0 +1,58 @@
+package dot.liberty.auth.store;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static java.time.temporal.ChronoUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RedisVerificationCodeStoreTests {
+
+	private static final String KEY = "auth:verification-code:user@dot.liberty";
+
+	@SuppressWarnings("unchecked")
+	private final ValueOperations<String, String> values = mock(ValueOperations.class);
+	private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+
+	private final RedisVerificationCodeStore store = new RedisVerificationCodeStore(redisTemplate);
+
+	@Test
+	void readsBackTheSavedCodeAndLetsRedisExpireIt() {
+		when(redisTemplate.opsForValue()).thenReturn(values);
+
+		store.save("user@dot.liberty", "123456", Duration.ofMinutes(15));
+
+		ArgumentCaptor<String> value = ArgumentCaptor.forClass(String.class);
+		verify(values).set(eq(KEY), value.capture(), eq(Duration.ofMinutes(15)));
+
+		when(values.get(KEY)).thenReturn(value.getValue());
+
+		assertThat(store.find("user@dot.liberty")).hasValueSatisfying(code -> {
+			assertThat(code.code()).isEqualTo("123456");
+			assertThat(code.expiresAt()).isCloseTo(Instant.now().plus(Duration.ofMinutes(15)), within(5, SECONDS));
+		});
+	}
+
+	@Test
+	void findsNothingForAnUnknownEmail() {
+		when(redisTemplate.opsForValue()).thenReturn(values);
+
+		assertThat(store.find("user@dot.liberty")).isEmpty();
+	}
+
+	@Test
+	void removesTheKey() {
+		store.remove("user@dot.liberty");
+
+		verify(redisTemplate).delete(KEY);
+	}
+
+}
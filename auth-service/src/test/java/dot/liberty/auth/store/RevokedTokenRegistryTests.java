@@ -0,0 +1,103 @@
+package dot.liberty.auth.store;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RevokedTokenRegistryTests {
+
+	@SuppressWarnings("unchecked")
+	private final ZSetOperations<String, String> zSet = mock(ZSetOperations.class);
+	private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+
+	private final RevokedTokenRegistry registry = new RevokedTokenRegistry(redisTemplate, new SimpleMeterRegistry());
+
+	@BeforeEach
+	void setUp() {
+		when(redisTemplate.opsForZSet()).thenReturn(zSet);
+	}
+
+	@Test
+	void revocationIsCheckedLocallyAndSpreadThroughRedis() {
+		Instant expiresAt = Instant.now().plus(Duration.ofMinutes(15));
+
+		registry.revoke("jti-1", expiresAt);
+
+		verify(zSet).add(RevokedTokenRegistry.KEY, "jti-1", expiresAt.toEpochMilli());
+		verify(redisTemplate).convertAndSend(RevokedTokenRegistry.CHANNEL, expiresAt.toEpochMilli() + ":jti-1");
+
+		clearInvocations(redisTemplate, zSet);
+
+		assertThat(registry.isRevoked("jti-1")).isTrue();
+		assertThat(registry.isRevoked("jti-2")).isFalse();
+		assertThat(registry.isRevoked(null)).isFalse();
+
+		verifyNoInteractions(redisTemplate, zSet);
+	}
+
+	@Test
+	void ignoresTokensThatAlreadyExpiredOrHaveNoId() {
+		registry.revoke("jti-1", Instant.now().minusSeconds(1));
+		registry.revoke(null, Instant.now().plusSeconds(60));
+
+		verifyNoInteractions(redisTemplate);
+		assertThat(registry.isRevoked("jti-1")).isFalse();
+	}
+
+	@Test
+	void revocationPublishedByAnotherInstanceIsApplied() {
+		long expiresAt = Instant.now().plusSeconds(60).toEpochMilli();
+
+		registry.onMessage(message(expiresAt + ":jti-1"), null);
+		registry.onMessage(message("not-a-revocation"), null);
+
+		assertThat(registry.isRevoked("jti-1")).isTrue();
+	}
+
+	@Test
+	void resyncLoadsLiveRevocationsAndForgetsExpiredOnes() {
+		long expiresAt = Instant.now().plusSeconds(60).toEpochMilli();
+
+		registry.onMessage(message(Instant.now().minusSeconds(1).toEpochMilli() + ":jti-old"), null);
+		when(zSet.rangeByScoreWithScores(eq(RevokedTokenRegistry.KEY), anyDouble(), anyDouble()))
+				.thenReturn(Set.of(new DefaultTypedTuple<>("jti-1", (double) expiresAt)));
+
+		registry.resync();
+
+		verify(zSet).removeRangeByScore(eq(RevokedTokenRegistry.KEY), eq(0.0), anyDouble());
+		assertThat(registry.isRevoked("jti-1")).isTrue();
+		assertThat(registry.isRevoked("jti-old")).isFalse();
+	}
+
+	@Test
+	void knownRevocationsStayInForceWhileRedisIsDown() {
+		registry.onMessage(message(Instant.now().plusSeconds(60).toEpochMilli() + ":jti-1"), null);
+		when(zSet.removeRangeByScore(anyString(), anyDouble(), anyDouble()))
+				.thenThrow(new RedisConnectionFailureException("connection refused"));
+
+		registry.resync();
+
+		assertThat(registry.isRevoked("jti-1")).isTrue();
+	}
+
+	private static DefaultMessage message(String body) {
+		return new DefaultMessage(
+				RevokedTokenRegistry.CHANNEL.getBytes(StandardCharsets.UTF_8),
+				body.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
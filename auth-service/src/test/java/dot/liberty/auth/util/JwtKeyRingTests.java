@@ -0,0 +1,94 @@
+package dot.liberty.auth.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dot.liberty.auth.config.JwtKeyRingProperties;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtKeyRingTests {
+
+	private final KeyPair active = Jwts.SIG.ES256.keyPair().build();
+	private final KeyPair retiring = Jwts.SIG.ES256.keyPair().build();
+
+	@Test
+	void refusesToStartWithoutKeys() {
+		assertThatThrownBy(() -> keyRing(new JwtKeyRingProperties()))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("No JWT key ring configured");
+	}
+
+	@Test
+	void generatesAnEphemeralKeyOnlyWhenAllowed() {
+		JwtKeyRingProperties properties = new JwtKeyRingProperties();
+		properties.setAllowEphemeralKey(true);
+
+		JwtKeyRing keyRing = keyRing(properties);
+
+		assertThat(keyRing.getActiveKeyId()).startsWith("ephemeral-");
+		assertThat(keyRing.findVerificationKey(keyRing.getActiveKeyId())).isPresent();
+	}
+
+	@Test
+	void findsEveryKeyOfTheRingByKeyId() {
+		JwtKeyRing keyRing = keyRing(rotated());
+
+		assertThat(keyRing.getActiveKeyId()).isEqualTo("key-2");
+		assertThat(keyRing.getActiveSigningKey()).isEqualTo(active.getPrivate());
+		assertThat(keyRing.findVerificationKey("key-2")).contains(active.getPublic());
+		assertThat(keyRing.findVerificationKey("key-1")).contains(retiring.getPublic());
+		assertThat(keyRing.findVerificationKey("key-3")).isEmpty();
+		assertThat(keyRing.getJwksJson()).contains("\"kid\":\"key-1\"", "\"kid\":\"key-2\"");
+	}
+
+	@Test
+	void rejectsAKeyWithoutPublicKey() {
+		JwtKeyRingProperties properties = rotated();
+		properties.getKeys().getLast().setPublicKey(null);
+
+		assertThatThrownBy(() -> keyRing(properties))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessage("JWT key \"key-1\" has no public-key");
+	}
+
+	@Test
+	void rejectsAnActiveKeyWithoutPrivateKey() {
+		JwtKeyRingProperties properties = rotated();
+		properties.setActiveKeyId("key-1");
+
+		assertThatThrownBy(() -> keyRing(properties))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("key-1");
+	}
+
+	private JwtKeyRingProperties rotated() {
+		JwtKeyRingProperties properties = new JwtKeyRingProperties();
+		properties.setActiveKeyId("key-2");
+		properties.getKeys().add(key("key-2", active, true));
+		properties.getKeys().add(key("key-1", retiring, false));
+
+		return properties;
+	}
+
+	static JwtKeyRingProperties.Key key(String id, KeyPair keyPair, boolean withPrivateKey) {
+		JwtKeyRingProperties.Key key = new JwtKeyRingProperties.Key();
+		key.setId(id);
+		key.setPublicKey(Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()));
+
+		if (withPrivateKey) {
+			key.setPrivateKey(Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()));
+		}
+
+		return key;
+	}
+
+	static JwtKeyRing keyRing(JwtKeyRingProperties properties) {
+		return new JwtKeyRing(properties, new ObjectMapper());
+	}
+
+}
@@ -0,0 +1,102 @@
+package dot.liberty.auth.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dot.liberty.auth.config.JwtKeyRingProperties;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the old validate-then-extract path, which parsed and verified
+ * an HS256 token four times with a fresh parser and key, against
+ * {@link JwtUtil#verifyToken(String)} for ES256 key ring tokens and
+ * legacy HS256 tokens.
+ * <p>
+ * Run {@link #main(String[])} after {@code mvn test-compile}; the GC
+ * profiler reports allocation rate as {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+	private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret";
+
+	private JwtUtil jwtUtil;
+	private String token;
+	private String legacyToken;
+
+	@Setup
+	public void setUp() {
+		JwtKeyRingProperties properties = new JwtKeyRingProperties();
+		properties.setAllowEphemeralKey(true);
+
+		JwtKeyRing keyRing = new JwtKeyRing(properties, new ObjectMapper());
+
+		jwtUtil = new JwtUtil(keyRing, SECRET, true, 86400000L);
+		token = jwtUtil.issueAccessToken("user@dot.liberty", 42L, "CUSTOMER").token();
+
+		legacyToken = Jwts.builder()
+				.claim("userId", 42L)
+				.claim("role", "CUSTOMER")
+				.subject("user@dot.liberty")
+				.expiration(new Date(System.currentTimeMillis() + 86400000L))
+				.signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+				.compact();
+	}
+
+	@Benchmark
+	public Object legacyValidateAndExtract() {
+		legacyParse(legacyToken);
+
+		Long userId = legacyParse(legacyToken).get("userId", Long.class);
+		String email = legacyParse(legacyToken).getSubject();
+		String role = legacyParse(legacyToken).get("role", String.class);
+
+		return new Object[] {userId, email, role};
+	}
+
+	@Benchmark
+	public Object verifyToken() {
+		return jwtUtil.verifyToken(token);
+	}
+
+	@Benchmark
+	public Object verifyLegacyToken() {
+		return jwtUtil.verifyToken(legacyToken);
+	}
+
+	private static Claims legacyParse(String token) {
+		SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+
+		return Jwts.parser()
+				.verifyWith(key)
+				.build()
+				.parseSignedClaims(token)
+				.getPayload();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(JwtUtilBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build();
+
+		new Runner(options).run();
+	}
+
+}
@@ -0,0 +1,84 @@
+package dot.liberty.auth.util;
+
+import dot.liberty.auth.config.JwtKeyRingProperties;
+import dot.liberty.auth.entity.Role;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.util.Date;
+import java.util.List;
+
+import static dot.liberty.auth.util.JwtKeyRingTests.key;
+import static dot.liberty.auth.util.JwtKeyRingTests.keyRing;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtUtilTests {
+
+	private static final long EXPIRATION = 900_000L;
+
+	private final KeyPair oldKey = Jwts.SIG.ES256.keyPair().build();
+	private final KeyPair newKey = Jwts.SIG.ES256.keyPair().build();
+
+	@Test
+	void tokenSignedBeforeRotationIsAcceptedWhileItsKeyStaysInTheRing() {
+		String token = jwtUtil(ring("key-1", key("key-1", oldKey, true)))
+				.issueAccessToken("user@dot.liberty", 42L, "CUSTOMER")
+				.token();
+
+		JwtUtil rotated = jwtUtil(ring("key-2", key("key-2", newKey, true), key("key-1", oldKey, false)));
+
+		assertThat(rotated.verifyToken(token))
+				.map(VerifiedClaims::role)
+				.contains(Role.CUSTOMER);
+	}
+
+	@Test
+	void tokenIsRejectedOnceItsKeyLeavesTheRing() {
+		String token = jwtUtil(ring("key-1", key("key-1", oldKey, true)))
+				.issueAccessToken("user@dot.liberty", 42L, "CUSTOMER")
+				.token();
+
+		assertThat(jwtUtil(ring("key-2", key("key-2", newKey, true))).verifyToken(token)).isEmpty();
+	}
+
+	@Test
+	void newTokensCarryTheActiveKeyId() {
+		JwtUtil jwtUtil = jwtUtil(ring("key-2", key("key-2", newKey, true), key("key-1", oldKey, false)));
+
+		String token = jwtUtil.issueAccessToken("user@dot.liberty", 42L, "CUSTOMER").token();
+
+		assertThat(Jwts.parser().verifyWith(newKey.getPublic()).build()
+				.parseSignedClaims(token)
+				.getHeader()
+				.getKeyId())
+				.isEqualTo("key-2");
+	}
+
+	@Test
+	void tokenWithAKeyIdMatchingTheWrongKeyIsRejected() {
+		String forged = Jwts.builder()
+				.header().keyId("key-1").and()
+				.claim("userId", 42L)
+				.claim("role", "CUSTOMER")
+				.subject("user@dot.liberty")
+				.expiration(new Date(System.currentTimeMillis() + EXPIRATION))
+				.signWith(newKey.getPrivate(), Jwts.SIG.ES256)
+				.compact();
+
+		assertThat(jwtUtil(ring("key-1", key("key-1", oldKey, true))).verifyToken(forged)).isEmpty();
+	}
+
+	private static JwtKeyRing ring(String activeKeyId, JwtKeyRingProperties.Key... keys) {
+		JwtKeyRingProperties properties = new JwtKeyRingProperties();
+		properties.setActiveKeyId(activeKeyId);
+		properties.getKeys().addAll(List.of(keys));
+
+		return keyRing(properties);
+	}
+
+	private static JwtUtil jwtUtil(JwtKeyRing keyRing) {
+		return new JwtUtil(keyRing, "", false, EXPIRATION);
+	}
+
+}
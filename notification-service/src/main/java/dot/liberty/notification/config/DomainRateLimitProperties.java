@@ -0,0 +1,35 @@
+package dot.liberty.notification.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sending rates per recipient domain, to stay under the limits of
+ * providers such as gmail.com. Domains that are not listed are not
+ * limited.
+ */
+@Data
+@ConfigurationProperties(prefix = "notification.rate-limits")
+public class DomainRateLimitProperties {
+
+    private Map<String, Limit> domains = new HashMap<>();
+
+    @Data
+    public static class Limit {
+
+        /**
+         * Emails per second on average.
+         */
+        private double rate;
+
+        /**
+         * Emails that may be sent at once after an idle period.
+         */
+        private int burst = 1;
+
+    }
+
+}
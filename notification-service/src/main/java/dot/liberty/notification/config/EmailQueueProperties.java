@@ -0,0 +1,36 @@
+package dot.liberty.notification.config;
+
+import dot.liberty.notification.queue.Priority;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Lanes of the email queue. Each lane has its own capacity, so bulk
+ * mail can't fill the space of transactional mail, and a weight: while
+ * several lanes have mail, each is picked in proportion to its weight.
+ */
+@Data
+@ConfigurationProperties(prefix = "notification.queue")
+public class EmailQueueProperties {
+
+    private Duration retryAfter = Duration.ofSeconds(5);
+
+    private Map<Priority, Lane> lanes = new EnumMap<>(Priority.class);
+
+    public Lane lane(Priority priority) {
+        return lanes.getOrDefault(priority, new Lane());
+    }
+
+    @Data
+    public static class Lane {
+
+        private int capacity = 10000;
+        private int weight = 1;
+
+    }
+
+}
@@ -0,0 +1,54 @@
+package dot.liberty.notification.controller;
+
+import dot.liberty.notification.dto.response.DeadLetterResponse;
+import dot.liberty.notification.queue.DeadLetter;
+import dot.liberty.notification.service.DeadLetterService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("api/notifications/dead-letters")
+@RequiredArgsConstructor
+public class DeadLetterController {
+
+    private final DeadLetterService deadLetterService;
+
+    @GetMapping
+    public ResponseEntity<List<DeadLetterResponse>> findAll() {
+        List<DeadLetterResponse> response = deadLetterService.findAll().stream()
+                .map(DeadLetterController::toResponse)
+                .toList();
+
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/{messageId}/requeue")
+    public ResponseEntity<Void> requeue(@PathVariable String messageId) {
+        deadLetterService.requeue(messageId);
+
+        return ResponseEntity.accepted().build();
+    }
+
+    @DeleteMapping("/{messageId}")
+    public ResponseEntity<Void> discard(@PathVariable String messageId) {
+        deadLetterService.discard(messageId);
+
+        return ResponseEntity.noContent().build();
+    }
+
+    private static DeadLetterResponse toResponse(DeadLetter deadLetter) {
+        return DeadLetterResponse.builder()
+                .messageId(deadLetter.message().id())
+                .recipient(deadLetter.message().to())
+                .subject(deadLetter.message().subject())
+                .attempts(deadLetter.message().attempts())
+                .reason(deadLetter.reason())
+                .acceptedAt(deadLetter.message().acceptedAt())
+                .deadLetteredAt(deadLetter.deadLetteredAt())
+                .build();
+    }
+
+}
@@ -1,7 +1,12 @@
 package dot.liberty.notification.controller;
 
 import dot.liberty.notification.dto.response.ErrorResponse;
+import dot.liberty.notification.exception.EmailQueueFullException;
+import dot.liberty.notification.exception.InvalidBatchException;
+import dot.liberty.notification.exception.InvalidTemplateException;
+import dot.liberty.notification.exception.MessageNotFoundException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mail.MailException;
@@ -31,6 +36,54 @@ public class GlobalErrorHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errors);
     }
 
+    @ExceptionHandler(InvalidBatchException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidBatch(InvalidBatchException ex) {
+        log.warn("Invalid batch: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .error("Invalid batch")
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    }
+
+    @ExceptionHandler(InvalidTemplateException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidTemplate(InvalidTemplateException ex) {
+        log.warn("Invalid template request: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .error("Invalid template")
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    }
+
+    @ExceptionHandler(EmailQueueFullException.class)
+    public ResponseEntity<ErrorResponse> handleQueueFull(EmailQueueFullException ex) {
+        log.warn("Email queue is full");
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .error("Email queue is full")
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .body(errorResponse);
+    }
+
+    @ExceptionHandler(MessageNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleMessageNotFound(MessageNotFoundException ex) {
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .error("Message not found")
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+    }
+
     @ExceptionHandler(MailException.class)
     public ResponseEntity<ErrorResponse> handleMailException(MailException ex) {
         log.error("Mail sending failed: {}", ex.getMessage(), ex);
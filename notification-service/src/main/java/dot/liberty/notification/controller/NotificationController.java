@@ -1,14 +1,23 @@
 package dot.liberty.notification.controller;
 
 import dot.liberty.notification.dto.request.SendEmailRequest;
+import dot.liberty.notification.dto.response.EmailStatusResponse;
+import dot.liberty.notification.dto.response.SendBatchResponse;
 import dot.liberty.notification.dto.response.SendEmailResponse;
+import dot.liberty.notification.queue.EmailDelivery;
+import dot.liberty.notification.service.EmailBatchService;
 import dot.liberty.notification.service.EmailService;
+import dot.liberty.notification.service.QueuedEmail;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 
 @RestController
@@ -18,24 +27,59 @@ import java.time.LocalDateTime;
 public class NotificationController {
 
     private final EmailService emailService;
+    private final EmailBatchService emailBatchService;
 
+    /**
+     * Repeats of an {@code Idempotency-Key}, or of the same email when
+     * no key is given, are answered with the email accepted first.
+     */
     @PostMapping("/send-email")
-    public ResponseEntity<SendEmailResponse> sendEmail(@Valid @RequestBody SendEmailRequest request) {
+    public ResponseEntity<SendEmailResponse> sendEmail(
+            @Valid @RequestBody SendEmailRequest request,
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
+
         log.info("Received request to send email to: {}", request.getTo());
 
-        emailService.sendEmail(
-                request.getTo(),
-                request.getSubject(),
-                request.getBody()
-        );
+        if (idempotencyKey != null) {
+            request.setIdempotencyKey(idempotencyKey);
+        }
+
+        QueuedEmail queued = emailService.queueEmail(request);
 
         SendEmailResponse response = SendEmailResponse.builder()
-                .message("Email sent successfully")
-                .recipient(request.getTo())
-                .sentAt(LocalDateTime.now())
+                .message(queued.duplicate() ? "Email already queued for delivery" : "Email queued for delivery")
+                .messageId(queued.messageId())
+                .recipient(queued.recipient())
+                .acceptedAt(queued.acceptedAt())
+                .duplicate(queued.duplicate())
                 .build();
 
-        log.info("Email sent successfully to: {}", request.getTo());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    /**
+     * Accepts a JSON array of messages, read as a stream rather than
+     * bound in one go, and reports for each one whether it was queued.
+     */
+    @PostMapping(value = "/send-batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<SendBatchResponse> sendBatch(HttpServletRequest request) throws IOException {
+        SendBatchResponse response = emailBatchService.queueBatch(request.getInputStream());
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    @GetMapping("/messages/{messageId}")
+    public ResponseEntity<EmailStatusResponse> getStatus(@PathVariable String messageId) {
+        EmailDelivery delivery = emailService.getDelivery(messageId);
+
+        EmailStatusResponse response = EmailStatusResponse.builder()
+                .messageId(delivery.messageId())
+                .recipient(delivery.recipient())
+                .status(delivery.status())
+                .error(delivery.error())
+                .acceptedAt(delivery.acceptedAt())
+                .completedAt(delivery.completedAt())
+                .build();
 
         return ResponseEntity.ok(response);
     }
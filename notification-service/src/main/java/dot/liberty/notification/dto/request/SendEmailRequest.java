@@ -1,13 +1,23 @@
 package dot.liberty.notification.dto.request;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import dot.liberty.notification.queue.Priority;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Map;
+
+/**
+ * Either a {@code templateId} with its {@code params}, or a ready
+ * {@code subject} and {@code body}.
+ */
 @Data
 @Builder
 @NoArgsConstructor
@@ -18,12 +28,43 @@ public class SendEmailRequest {
     @Email(message = "Invalid email format")
     private String to;
 
-    @NotBlank(message = "Email subject is required")
     @Size(max = 200, message = "Subject must be at most 200 characters")
     private String subject;
 
-    @NotBlank(message = "Email body is required")
     @Size(max = 5000, message = "Body must be at most 5000 characters")
     private String body;
 
+    @Size(max = 100, message = "Template id must be at most 100 characters")
+    private String templateId;
+
+    /**
+     * Latest version when not given.
+     */
+    @Positive(message = "Template version must be positive")
+    private Integer templateVersion;
+
+    private Map<String, String> params;
+
+    /**
+     * {@code TRANSACTIONAL} when not given.
+     */
+    private Priority priority;
+
+    /**
+     * Repeats of the key within the idempotency window are not sent
+     * again. Set from the {@code Idempotency-Key} header on single sends.
+     */
+    @Size(max = 255, message = "Idempotency key must be at most 255 characters")
+    private String idempotencyKey;
+
+    @JsonIgnore
+    @AssertTrue(message = "Either a templateId or a subject and body are required")
+    public boolean isContentSpecified() {
+        if (templateId != null) {
+            return !templateId.isBlank() && subject == null && body == null;
+        }
+
+        return subject != null && !subject.isBlank() && body != null && !body.isBlank();
+    }
+
 }
@@ -0,0 +1,26 @@
+package dot.liberty.notification.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+
+    private int index;
+
+    private boolean accepted;
+    private String messageId;
+    private boolean duplicate;
+
+    private Map<String, String> errors;
+
+}
@@ -0,0 +1,26 @@
+package dot.liberty.notification.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterResponse {
+
+    private String messageId;
+    private String recipient;
+    private String subject;
+
+    private int attempts;
+    private String reason;
+
+    private Instant acceptedAt;
+    private Instant deadLetteredAt;
+
+}
@@ -0,0 +1,26 @@
+package dot.liberty.notification.dto.response;
+
+import dot.liberty.notification.queue.DeliveryStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailStatusResponse {
+
+    private String messageId;
+    private String recipient;
+
+    private DeliveryStatus status;
+    private String error;
+
+    private Instant acceptedAt;
+    private Instant completedAt;
+
+}
@@ -5,7 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.time.LocalDateTime;
+import java.time.Instant;
 
 @Data
 @Builder
@@ -14,8 +14,14 @@ import java.time.LocalDateTime;
 public class SendEmailResponse {
 
     private String message;
+    private String messageId;
     private String recipient;
 
-    private LocalDateTime sentAt;
+    private Instant acceptedAt;
+
+    /**
+     * The request repeated an email accepted earlier, whose id is returned.
+     */
+    private boolean duplicate;
 
 }
@@ -0,0 +1,18 @@
+package dot.liberty.notification.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class EmailQueueFullException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public EmailQueueFullException(Duration retryAfter) {
+        super("Too many emails are waiting to be sent, please try again later");
+
+        this.retryAfter = retryAfter;
+    }
+
+}
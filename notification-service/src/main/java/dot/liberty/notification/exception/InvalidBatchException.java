@@ -0,0 +1,21 @@
+package dot.liberty.notification.exception;
+
+public class InvalidBatchException extends RuntimeException {
+
+    private InvalidBatchException(String message) {
+        super(message);
+    }
+
+    public static InvalidBatchException byMalformedBody(String reason) {
+        return new InvalidBatchException("Malformed batch: " + reason);
+    }
+
+    public static InvalidBatchException byTooManyMessages(int maxSize) {
+        return new InvalidBatchException("A batch may contain at most " + maxSize + " messages");
+    }
+
+    public static InvalidBatchException byEmptyBatch() {
+        return new InvalidBatchException("A batch must contain at least one message");
+    }
+
+}
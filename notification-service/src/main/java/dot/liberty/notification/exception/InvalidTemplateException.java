@@ -0,0 +1,24 @@
+package dot.liberty.notification.exception;
+
+import java.util.Set;
+
+public class InvalidTemplateException extends RuntimeException {
+
+    private InvalidTemplateException(String message) {
+        super(message);
+    }
+
+    public static InvalidTemplateException byUnknownTemplate(String templateId) {
+        return new InvalidTemplateException("Unknown template: " + templateId);
+    }
+
+    public static InvalidTemplateException byUnknownVersion(String templateId, int version) {
+        return new InvalidTemplateException("Unknown version " + version + " of template " + templateId);
+    }
+
+    public static InvalidTemplateException byMissingParameters(String templateId, int version, Set<String> missing) {
+        return new InvalidTemplateException(
+                "Template " + templateId + " v" + version + " is missing parameters " + missing);
+    }
+
+}
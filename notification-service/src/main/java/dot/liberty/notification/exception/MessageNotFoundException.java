@@ -0,0 +1,9 @@
+package dot.liberty.notification.exception;
+
+public class MessageNotFoundException extends RuntimeException {
+
+    public MessageNotFoundException(String messageId) {
+        super("Message " + messageId + " not found");
+    }
+
+}
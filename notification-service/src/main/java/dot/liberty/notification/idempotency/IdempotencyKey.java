@@ -0,0 +1,96 @@
+package dot.liberty.notification.idempotency;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The first 128 bits of a SHA-256 over an idempotency key, so the
+ * window holds two longs per key however long the key or the request
+ * it was derived from.
+ */
+public record IdempotencyKey(long high, long low) {
+
+    /**
+     * A key given by the caller, in the {@code Idempotency-Key} header
+     * or the {@code idempotencyKey} of a batch item.
+     */
+    public static IdempotencyKey of(String key) {
+        return hash("key", key);
+    }
+
+    /**
+     * A key for requests without one, equal for requests that would
+     * produce the same email.
+     */
+    public static IdempotencyKey derive(
+            String to,
+            String templateId,
+            Integer templateVersion,
+            Map<String, String> params,
+            String subject,
+            String body) {
+
+        String[] parts = new String[5 + (params == null ? 0 : 2 * params.size())];
+
+        parts[0] = to.toLowerCase(Locale.ROOT);
+        parts[1] = templateId;
+        parts[2] = templateVersion == null ? null : templateVersion.toString();
+        parts[3] = subject;
+        parts[4] = body;
+
+        if (params != null) {
+            int i = 5;
+
+            for (Map.Entry<String, String> param : new TreeMap<>(params).entrySet()) {
+                parts[i++] = param.getKey();
+                parts[i++] = param.getValue();
+            }
+        }
+
+        return hash("derived", parts);
+    }
+
+    /**
+     * Every part is length-prefixed, so different splits of the same
+     * characters never hash alike.
+     */
+    private static IdempotencyKey hash(String kind, String... parts) {
+        MessageDigest digest = sha256();
+
+        update(digest, kind);
+
+        for (String part : parts) {
+            update(digest, part);
+        }
+
+        ByteBuffer hash = ByteBuffer.wrap(digest.digest());
+
+        return new IdempotencyKey(hash.getLong(), hash.getLong());
+    }
+
+    private static void update(MessageDigest digest, String part) {
+        if (part == null) {
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(-1).array());
+            return;
+        }
+
+        byte[] bytes = part.getBytes(StandardCharsets.UTF_8);
+
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+}
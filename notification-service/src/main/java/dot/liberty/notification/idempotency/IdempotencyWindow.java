@@ -0,0 +1,117 @@
+package dot.liberty.notification.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import dot.liberty.notification.dto.request.SendEmailRequest;
+import dot.liberty.notification.journal.EmailJournal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Idempotency keys of emails accepted within the last
+ * {@code notification.idempotency.window}, so repeated sends of the
+ * same email are answered with the first one instead of sent again.
+ * <p>
+ * Requests without an {@code Idempotency-Key} get a key derived from
+ * their recipient and content, unless {@code derive-keys} is off.
+ * Keys are journaled with their message and restored on startup.
+ */
+@Component
+@Slf4j
+public class IdempotencyWindow {
+
+    private final Duration window;
+    private final boolean deriveKeys;
+
+    private final Cache<IdempotencyKey, IdempotentEmail> emails;
+
+    private final Counter duplicatesCounter;
+
+    public IdempotencyWindow(
+            EmailJournal emailJournal,
+            MeterRegistry meterRegistry,
+            @Value("${notification.idempotency.window:10m}") Duration window,
+            @Value("${notification.idempotency.derive-keys:true}") boolean deriveKeys,
+            @Value("${notification.idempotency.maximum-size:1000000}") long maximumSize) {
+
+        this.window = window;
+        this.deriveKeys = deriveKeys;
+
+        this.emails = Caffeine.newBuilder()
+                .expireAfter(Expiry.creating((IdempotencyKey key, IdempotentEmail email) ->
+                        Duration.between(Instant.now(), email.expiresAt())))
+                .maximumSize(maximumSize)
+                .build();
+
+        this.duplicatesCounter = Counter.builder("notification.email.duplicates")
+                .description("Sends dropped as repeats of an email accepted within the idempotency window")
+                .register(meterRegistry);
+
+        Instant now = Instant.now();
+
+        emailJournal.recoveredIdempotentEmails().stream()
+                .filter(email -> email.expiresAt().isAfter(now))
+                .forEach(email -> emails.put(email.key(), email));
+
+        log.info("Idempotency window of {} restored with {} keys", window, emails.estimatedSize());
+    }
+
+    /**
+     * The key of the request, or empty when it has none and keys are
+     * not derived.
+     */
+    public Optional<IdempotencyKey> keyOf(SendEmailRequest request) {
+        if (request.getIdempotencyKey() != null) {
+            return Optional.of(IdempotencyKey.of(request.getIdempotencyKey()));
+        }
+
+        if (!deriveKeys) {
+            return Optional.empty();
+        }
+
+        return Optional.of(IdempotencyKey.derive(
+                request.getTo(),
+                request.getTemplateId(),
+                request.getTemplateVersion(),
+                request.getParams(),
+                request.getSubject(),
+                request.getBody()));
+    }
+
+    /**
+     * Claims the key for a message about to be accepted.
+     *
+     * @return the email holding the key: the given message if the key
+     * was free, otherwise the one accepted under it earlier
+     */
+    public IdempotentEmail claim(IdempotencyKey key, String messageId, Instant acceptedAt) {
+        IdempotentEmail email = new IdempotentEmail(key, messageId, acceptedAt, acceptedAt.plus(window));
+        IdempotentEmail existing = emails.asMap().putIfAbsent(key, email);
+
+        if (existing == null) {
+            return email;
+        }
+
+        duplicatesCounter.increment();
+
+        return existing;
+    }
+
+    /**
+     * Frees a claimed key after its message failed to be accepted, so
+     * the caller can retry.
+     */
+    public void release(IdempotencyKey key, String messageId) {
+        emails.asMap().computeIfPresent(key, (k, email) ->
+                email.messageId().equals(messageId) ? null : email);
+    }
+
+}
@@ -0,0 +1,15 @@
+package dot.liberty.notification.idempotency;
+
+import java.time.Instant;
+
+/**
+ * The email first accepted under an idempotency key; repeats of the
+ * key until {@code expiresAt} are answered with it.
+ */
+public record IdempotentEmail(
+        IdempotencyKey key,
+        String messageId,
+        Instant acceptedAt,
+        Instant expiresAt
+) {
+}
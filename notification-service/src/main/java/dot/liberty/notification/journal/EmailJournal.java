@@ -0,0 +1,702 @@
+package dot.liberty.notification.journal;
+
+import dot.liberty.notification.idempotency.IdempotencyKey;
+import dot.liberty.notification.idempotency.IdempotentEmail;
+import dot.liberty.notification.queue.DeadLetter;
+import dot.liberty.notification.queue.EmailMessage;
+import dot.liberty.notification.queue.Priority;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of accepted emails and their completions, so emails
+ * still pending when the service stops are delivered after a restart.
+ * Dead letters are journaled too and stay pending until they are
+ * requeued and sent, or discarded. Failed attempts of messages waiting
+ * for a retry are journaled, so a restart doesn't reset them. Idempotency
+ * keys are journaled once their message is queued and kept until they
+ * expire, even once it is sent.
+ * <p>
+ * Records are appended to memory-mapped segments of a fixed size. A new
+ * segment is started when a record doesn't fit and on every startup.
+ * The oldest segments are deleted once every message accepted in them
+ * is complete and every idempotency key in them expired; completion records always live in the same or a newer
+ * segment than their message, so replay stays correct.
+ * <p>
+ * A long-lived dead letter or retry would keep its segment and every
+ * newer one on disk. Once there are more segments than
+ * {@code compact-after-segments}, each roll to a new segment copies
+ * what is still live in the oldest one, i.e. its pending messages with
+ * their latest state and its unexpired idempotency keys, to the current
+ * segment and deletes it. A segment that is mostly live is left alone,
+ * since copying it would free next to nothing.
+ * <p>
+ * Delivery is at least once: a message being sent during a crash is
+ * sent again after the restart.
+ */
+@Component
+@Slf4j
+public class EmailJournal {
+
+    private static final byte ACCEPTED = 1;
+    private static final byte COMPLETED = 2;
+    private static final byte DEAD_LETTERED = 3;
+    private static final byte REQUEUED = 4;
+    private static final byte IDEMPOTENCY_KEY = 5;
+    private static final byte RETRY_SCHEDULED = 6;
+
+    /**
+     * Layout of {@link #ACCEPTED} records, written after the message id.
+     * New fields get a new version; replay keeps decoding the older ones.
+     */
+    private static final byte ACCEPTED_VERSION = 1;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final FsyncPolicy fsyncPolicy;
+    private final int compactAfterSegments;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Map<String, Long> segmentByMessageId = new HashMap<>();
+    private final NavigableMap<Long, Integer> pendingBySegment = new TreeMap<>();
+    private final Map<Long, Instant> keysExpireAtBySegment = new HashMap<>();
+
+    /**
+     * Latest dead-letter or retry record of each pending message that has
+     * one, written again after the message when its segment is compacted.
+     */
+    private final Map<String, byte[]> stateByMessageId = new HashMap<>();
+
+    private final List<EmailMessage> recovered;
+    private final List<DeadLetter> recoveredDeadLetters;
+    private final List<IdempotentEmail> recoveredIdempotentEmails;
+
+    private JournalSegment current;
+    private boolean rolled;
+
+    private final ScheduledExecutorService flusher;
+
+    public EmailJournal(
+            @Value("${notification.journal.directory:journal}") Path directory,
+            @Value("${notification.journal.segment-size:64MB}") DataSize segmentSize,
+            @Value("${notification.journal.fsync-policy:interval}") FsyncPolicy fsyncPolicy,
+            @Value("${notification.journal.fsync-interval:1s}") Duration fsyncInterval,
+            @Value("${notification.journal.compact-after-segments:4}") int compactAfterSegments) throws IOException {
+
+        this.directory = directory;
+        this.segmentSize = Math.toIntExact(segmentSize.toBytes());
+        this.fsyncPolicy = fsyncPolicy;
+        this.compactAfterSegments = compactAfterSegments;
+
+        Files.createDirectories(directory);
+
+        Map<String, EmailMessage> pending = new LinkedHashMap<>();
+        Map<String, DeadLetter> deadLetters = new LinkedHashMap<>();
+        Map<IdempotencyKey, IdempotentEmail> idempotentEmails = new LinkedHashMap<>();
+
+        replay(pending, deadLetters, idempotentEmails);
+
+        this.recovered = List.copyOf(pending.values());
+        this.recoveredDeadLetters = List.copyOf(deadLetters.values());
+        this.recoveredIdempotentEmails = List.copyOf(idempotentEmails.values());
+        this.current = createSegment(pendingBySegment.isEmpty() ? 0 : pendingBySegment.lastKey() + 1);
+
+        deleteCompletedSegments();
+        compactOldestSegment();
+
+        if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(
+                    new CustomizableThreadFactory("email-journal-flush-"));
+            this.flusher.scheduleWithFixedDelay(
+                    this::flush, fsyncInterval.toMillis(), fsyncInterval.toMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            this.flusher = null;
+        }
+
+        log.info("Email journal opened in {} with {} pending messages and {} dead letters, fsync policy {}",
+                directory.toAbsolutePath(), recovered.size(), recoveredDeadLetters.size(), fsyncPolicy);
+    }
+
+    /**
+     * Messages that were accepted but not completed before the last shutdown,
+     * in the order they were accepted.
+     */
+    public List<EmailMessage> recoveredMessages() {
+        return recovered;
+    }
+
+    /**
+     * Dead letters of the previous run, in the order they were dead-lettered.
+     */
+    public List<DeadLetter> recoveredDeadLetters() {
+        return recoveredDeadLetters;
+    }
+
+    /**
+     * Idempotency keys of the previous run that may not have expired yet.
+     */
+    public List<IdempotentEmail> recoveredIdempotentEmails() {
+        return recoveredIdempotentEmails;
+    }
+
+    public void appendAccepted(EmailMessage message) {
+        byte[] record = encodeAccepted(message);
+
+        lock.lock();
+
+        try {
+            append(record);
+
+            segmentByMessageId.put(message.id(), current.id());
+            pendingBySegment.merge(current.id(), 1, Integer::sum);
+
+            compactIfRolled();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records the idempotency key of a queued message. Only written once
+     * the message is queued, so a key whose message was turned away is
+     * never restored.
+     */
+    public void appendIdempotencyKey(IdempotentEmail idempotentEmail) {
+        byte[] record = encodeIdempotencyKey(idempotentEmail);
+
+        lock.lock();
+
+        try {
+            append(record);
+
+            keysExpireAtBySegment.merge(current.id(), idempotentEmail.expiresAt(), EmailJournal::later);
+
+            compactIfRolled();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records that the message was delivered or given up on. Unknown or
+     * already completed messages are ignored.
+     */
+    public void appendCompleted(String messageId) {
+        byte[] record = encodeMessageId(COMPLETED, messageId);
+
+        lock.lock();
+
+        try {
+            Long segmentId = segmentByMessageId.remove(messageId);
+
+            if (segmentId == null) {
+                return;
+            }
+
+            append(record);
+
+            stateByMessageId.remove(messageId);
+            pendingBySegment.merge(segmentId, -1, Integer::sum);
+            deleteCompletedSegments();
+            compactIfRolled();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void appendDeadLettered(DeadLetter deadLetter) {
+        byte[] record = encodeDeadLettered(deadLetter);
+
+        appendForPending(deadLetter.message().id(), record, record);
+    }
+
+    public void appendRequeued(String messageId) {
+        appendForPending(messageId, encodeMessageId(REQUEUED, messageId), null);
+    }
+
+    /**
+     * Records the failed attempts of a message waiting for its retry, so
+     * a restart doesn't give it a fresh set of attempts.
+     */
+    public void appendRetryScheduled(String messageId, int attempts) {
+        byte[] record = encodeRetryScheduled(messageId, attempts);
+
+        appendForPending(messageId, record, record);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+
+        lock.lock();
+
+        try {
+            current.force();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends a state change of a message that stays pending.
+     *
+     * @param state the record that restores the new state, or {@code null}
+     *              if the accepted record alone does
+     */
+    private void appendForPending(String messageId, byte[] record, byte[] state) {
+        lock.lock();
+
+        try {
+            append(record);
+
+            if (segmentByMessageId.containsKey(messageId)) {
+                if (state == null) {
+                    stateByMessageId.remove(messageId);
+                } else {
+                    stateByMessageId.put(messageId, state);
+                }
+            }
+
+            compactIfRolled();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flush() {
+        lock.lock();
+
+        try {
+            current.force();
+        } catch (RuntimeException e) {
+            log.error("Failed to flush email journal: {}", e.getMessage(), e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void append(byte[] record) {
+        if (!current.append(record)) {
+            roll();
+
+            if (!current.append(record)) {
+                throw new IllegalStateException("Journal record of " + record.length
+                        + " bytes doesn't fit into a segment of " + segmentSize + " bytes");
+            }
+        }
+
+        if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+            current.force();
+        }
+    }
+
+    private void roll() {
+        if (fsyncPolicy != FsyncPolicy.OS) {
+            current.force();
+        }
+
+        try {
+            current = createSegment(current.id() + 1);
+            rolled = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create a journal segment", e);
+        }
+    }
+
+    private JournalSegment createSegment(long id) throws IOException {
+        JournalSegment segment = JournalSegment.create(id, segmentPath(id), segmentSize);
+
+        pendingBySegment.putIfAbsent(id, 0);
+
+        return segment;
+    }
+
+    private void deleteCompletedSegments() {
+        while (pendingBySegment.size() > 1) {
+            Map.Entry<Long, Integer> oldest = pendingBySegment.firstEntry();
+
+            if (oldest.getKey() == current.id() || oldest.getValue() > 0) {
+                return;
+            }
+
+            Instant keysExpireAt = keysExpireAtBySegment.get(oldest.getKey());
+
+            if (keysExpireAt != null && keysExpireAt.isAfter(Instant.now())) {
+                return;
+            }
+
+            pendingBySegment.pollFirstEntry();
+            keysExpireAtBySegment.remove(oldest.getKey());
+
+            try {
+                Files.deleteIfExists(segmentPath(oldest.getKey()));
+            } catch (IOException e) {
+                log.warn("Failed to delete journal segment {}: {}", oldest.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Runs after the bookkeeping of the record that rolled the journal,
+     * so the copies never land before a record that still needs its
+     * segment. Rolls caused by the copies themselves don't count.
+     */
+    private void compactIfRolled() {
+        if (rolled) {
+            compactOldestSegment();
+            rolled = false;
+        }
+    }
+
+    private void compactOldestSegment() {
+        if (pendingBySegment.size() <= compactAfterSegments) {
+            return;
+        }
+
+        long oldest = pendingBySegment.firstKey();
+
+        if (oldest == current.id()) {
+            return;
+        }
+
+        Instant now = Instant.now();
+        List<byte[]> accepted = new ArrayList<>();
+        List<byte[]> keys = new ArrayList<>();
+        long[] liveBytes = new long[1];
+
+        try {
+            JournalSegment.read(segmentPath(oldest), data -> {
+                ByteBuffer fields = data.duplicate();
+                byte type = fields.get();
+                String messageId = readString(fields);
+
+                if (type == ACCEPTED && Long.valueOf(oldest).equals(segmentByMessageId.get(messageId))) {
+                    accepted.add(copy(data));
+                    liveBytes[0] += data.remaining() + stateSize(messageId);
+                } else if (type == IDEMPOTENCY_KEY
+                        && decodeIdempotencyKey(messageId, fields).expiresAt().isAfter(now)) {
+
+                    keys.add(copy(data));
+                    liveBytes[0] += data.remaining();
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Failed to read journal segment {} for compaction: {}", oldest, e.getMessage());
+            return;
+        }
+
+        if (liveBytes[0] > segmentSize / 2) {
+            return;
+        }
+
+        for (byte[] record : accepted) {
+            String messageId = readString(ByteBuffer.wrap(record, 1, record.length - 1));
+
+            append(record);
+
+            segmentByMessageId.put(messageId, current.id());
+            pendingBySegment.merge(current.id(), 1, Integer::sum);
+            pendingBySegment.merge(oldest, -1, Integer::sum);
+
+            byte[] state = stateByMessageId.get(messageId);
+
+            if (state != null) {
+                append(state);
+            }
+        }
+
+        for (byte[] record : keys) {
+            ByteBuffer fields = ByteBuffer.wrap(record, 1, record.length - 1);
+            IdempotentEmail idempotentEmail = decodeIdempotencyKey(readString(fields), fields);
+
+            append(record);
+
+            keysExpireAtBySegment.merge(current.id(), idempotentEmail.expiresAt(), EmailJournal::later);
+        }
+
+        keysExpireAtBySegment.remove(oldest);
+
+        // the copies must be on disk before their originals are gone
+        if (fsyncPolicy != FsyncPolicy.OS) {
+            current.force();
+        }
+
+        log.info("Compacted journal segment {}: moved {} pending messages and {} idempotency keys",
+                oldest, accepted.size(), keys.size());
+
+        deleteCompletedSegments();
+    }
+
+    private int stateSize(String messageId) {
+        byte[] state = stateByMessageId.get(messageId);
+
+        return state == null ? 0 : state.length;
+    }
+
+    private static byte[] copy(ByteBuffer data) {
+        byte[] record = new byte[data.remaining()];
+        data.duplicate().get(record);
+
+        return record;
+    }
+
+    private void replay(
+            Map<String, EmailMessage> pending,
+            Map<String, DeadLetter> deadLetters,
+            Map<IdempotencyKey, IdempotentEmail> idempotentEmails) throws IOException {
+
+        for (Path path : segmentPaths()) {
+            long segmentId = segmentId(path);
+
+            pendingBySegment.put(segmentId, 0);
+
+            JournalSegment.read(path, data -> {
+                byte type = data.get();
+                String messageId = readString(data);
+
+                switch (type) {
+                    case ACCEPTED -> {
+                        EmailMessage message = decodeAccepted(messageId, data);
+
+                        if (message != null) {
+                            pending.put(messageId, message);
+                            segmentByMessageId.put(messageId, segmentId);
+                            stateByMessageId.remove(messageId);
+                        }
+                    }
+                    case DEAD_LETTERED -> {
+                        EmailMessage message = pending.remove(messageId);
+
+                        if (message != null) {
+                            DeadLetter deadLetter = decodeDeadLettered(message, data);
+
+                            deadLetters.put(messageId, deadLetter);
+                            stateByMessageId.put(messageId, encodeDeadLettered(deadLetter));
+                        }
+                    }
+                    case REQUEUED -> {
+                        DeadLetter deadLetter = deadLetters.remove(messageId);
+
+                        if (deadLetter != null) {
+                            pending.put(messageId, deadLetter.message().withoutAttempts());
+                            stateByMessageId.remove(messageId);
+                        }
+                    }
+                    case RETRY_SCHEDULED -> {
+                        int attempts = data.getInt();
+
+                        EmailMessage message = pending.computeIfPresent(
+                                messageId, (id, waiting) -> waiting.withAttempts(attempts));
+
+                        if (message != null) {
+                            stateByMessageId.put(messageId, encodeRetryScheduled(messageId, attempts));
+                        }
+                    }
+                    case IDEMPOTENCY_KEY -> {
+                        IdempotentEmail idempotentEmail = decodeIdempotencyKey(messageId, data);
+
+                        idempotentEmails.put(idempotentEmail.key(), idempotentEmail);
+                        keysExpireAtBySegment.merge(segmentId, idempotentEmail.expiresAt(), EmailJournal::later);
+                    }
+                    case COMPLETED -> {
+                        pending.remove(messageId);
+                        deadLetters.remove(messageId);
+                        segmentByMessageId.remove(messageId);
+                        stateByMessageId.remove(messageId);
+                    }
+                    default -> log.warn("Skipping journal record of unknown type {}", type);
+                }
+            });
+        }
+
+        segmentByMessageId.values().forEach(segmentId ->
+                pendingBySegment.merge(segmentId, 1, Integer::sum));
+    }
+
+    private List<Path> segmentPaths() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted(Comparator.comparingLong(EmailJournal::segmentId))
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(SEGMENT_PREFIX + String.format("%020d", id) + SEGMENT_SUFFIX);
+    }
+
+    private static long segmentId(Path path) {
+        String name = path.getFileName().toString();
+
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static byte[] encodeAccepted(EmailMessage message) {
+        byte[] id = message.id().getBytes(StandardCharsets.UTF_8);
+        byte[] to = message.to().getBytes(StandardCharsets.UTF_8);
+        byte[] subject = message.subject().getBytes(StandardCharsets.UTF_8);
+        byte[] body = message.body().getBytes(StandardCharsets.UTF_8);
+        byte[] priority = message.priority().name().getBytes(StandardCharsets.UTF_8);
+        byte[] html = message.html() == null ? null : message.html().getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer buffer = ByteBuffer.allocate(1
+                + Integer.BYTES + id.length + 1
+                + 4 * Integer.BYTES + to.length + subject.length + body.length + priority.length
+                + 1 + (html == null ? 0 : Integer.BYTES + html.length)
+                + Long.BYTES);
+
+        buffer.put(ACCEPTED);
+        putBytes(buffer, id);
+        buffer.put(ACCEPTED_VERSION);
+        putBytes(buffer, to);
+        putBytes(buffer, subject);
+        putBytes(buffer, body);
+        putBytes(buffer, priority);
+        buffer.put((byte) (html == null ? 0 : 1));
+
+        if (html != null) {
+            putBytes(buffer, html);
+        }
+
+        buffer.putLong(message.acceptedAt().toEpochMilli());
+
+        return buffer.array();
+    }
+
+    /**
+     * @return the message, or {@code null} for a layout this version
+     * doesn't know, i.e. one written by a newer version
+     */
+    private static EmailMessage decodeAccepted(String messageId, ByteBuffer data) {
+        byte version = data.get();
+
+        if (version != ACCEPTED_VERSION) {
+            log.error("Skipping email {} journaled with unknown record version {}", messageId, version);
+            return null;
+        }
+
+        String to = readString(data);
+        String subject = readString(data);
+        String body = readString(data);
+        Priority priority = Priority.valueOf(readString(data));
+        String html = data.get() == 1 ? readString(data) : null;
+        Instant acceptedAt = Instant.ofEpochMilli(data.getLong());
+
+        return new EmailMessage(messageId, to, subject, body, html, priority, acceptedAt, 0);
+    }
+
+    private static byte[] encodeDeadLettered(DeadLetter deadLetter) {
+        byte[] id = deadLetter.message().id().getBytes(StandardCharsets.UTF_8);
+        byte[] reason = String.valueOf(deadLetter.reason()).getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer buffer = ByteBuffer.allocate(1
+                + 2 * Integer.BYTES + id.length + reason.length
+                + Integer.BYTES + Long.BYTES);
+
+        buffer.put(DEAD_LETTERED);
+        putBytes(buffer, id);
+        putBytes(buffer, reason);
+        buffer.putInt(deadLetter.message().attempts());
+        buffer.putLong(deadLetter.deadLetteredAt().toEpochMilli());
+
+        return buffer.array();
+    }
+
+    private static DeadLetter decodeDeadLettered(EmailMessage message, ByteBuffer data) {
+        String reason = readString(data);
+        int attempts = data.getInt();
+        Instant deadLetteredAt = Instant.ofEpochMilli(data.getLong());
+
+        return new DeadLetter(message.withAttempts(attempts), reason, deadLetteredAt);
+    }
+
+    private static byte[] encodeRetryScheduled(String messageId, int attempts) {
+        byte[] id = messageId.getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer buffer = ByteBuffer.allocate(1 + Integer.BYTES + id.length + Integer.BYTES);
+
+        buffer.put(RETRY_SCHEDULED);
+        putBytes(buffer, id);
+        buffer.putInt(attempts);
+
+        return buffer.array();
+    }
+
+    private static byte[] encodeIdempotencyKey(IdempotentEmail idempotentEmail) {
+        byte[] id = idempotentEmail.messageId().getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer buffer = ByteBuffer.allocate(1 + Integer.BYTES + id.length + 4 * Long.BYTES);
+
+        buffer.put(IDEMPOTENCY_KEY);
+        putBytes(buffer, id);
+        buffer.putLong(idempotentEmail.key().high());
+        buffer.putLong(idempotentEmail.key().low());
+        buffer.putLong(idempotentEmail.acceptedAt().toEpochMilli());
+        buffer.putLong(idempotentEmail.expiresAt().toEpochMilli());
+
+        return buffer.array();
+    }
+
+    private static IdempotentEmail decodeIdempotencyKey(String messageId, ByteBuffer data) {
+        IdempotencyKey key = new IdempotencyKey(data.getLong(), data.getLong());
+        Instant acceptedAt = Instant.ofEpochMilli(data.getLong());
+        Instant expiresAt = Instant.ofEpochMilli(data.getLong());
+
+        return new IdempotentEmail(key, messageId, acceptedAt, expiresAt);
+    }
+
+    private static Instant later(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static byte[] encodeMessageId(byte type, String messageId) {
+        byte[] id = messageId.getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer buffer = ByteBuffer.allocate(1 + Integer.BYTES + id.length);
+
+        buffer.put(type);
+        putBytes(buffer, id);
+
+        return buffer.array();
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String readString(ByteBuffer data) {
+        byte[] bytes = new byte[data.getInt()];
+        data.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,24 @@
+package dot.liberty.notification.journal;
+
+/**
+ * When journal writes are forced to disk.
+ */
+public enum FsyncPolicy {
+
+    /**
+     * After every record, before the message is acknowledged.
+     */
+    ALWAYS,
+
+    /**
+     * Every {@code notification.journal.fsync-interval}, so a crash of the
+     * machine may lose up to one interval of acknowledged messages.
+     */
+    INTERVAL,
+
+    /**
+     * Left to the OS page cache. Survives a process crash, not a machine crash.
+     */
+    OS
+
+}
@@ -0,0 +1,118 @@
+package dot.liberty.notification.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * One memory-mapped, fixed-size journal file.
+ * <p>
+ * Each record is {@code length | crc32c | data}. The mapping is zero-filled,
+ * so a zero length marks the end of the written part; a record with a bad
+ * checksum is a torn write and also ends the segment.
+ */
+class JournalSegment {
+
+    private static final int HEADER_SIZE = Integer.BYTES * 2;
+
+    private final long id;
+    private final Path path;
+
+    private final MappedByteBuffer buffer;
+
+    private int forcedPosition;
+
+    private JournalSegment(long id, Path path, MappedByteBuffer buffer) {
+        this.id = id;
+        this.path = path;
+        this.buffer = buffer;
+    }
+
+    static JournalSegment create(long id, Path path, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+            return new JournalSegment(id, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+    }
+
+    /**
+     * Reads the records of a segment file, stopping at its end or at the first torn record.
+     */
+    static void read(Path path, Consumer<ByteBuffer> consumer) throws IOException {
+        MappedByteBuffer buffer;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Files.size(path));
+        }
+
+        while (buffer.remaining() >= HEADER_SIZE) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+
+            if (length <= 0 || length > buffer.remaining()) {
+                return;
+            }
+
+            ByteBuffer data = buffer.slice(buffer.position(), length);
+
+            if (checksum(data) != checksum) {
+                return;
+            }
+
+            consumer.accept(data);
+            buffer.position(buffer.position() + length);
+        }
+    }
+
+    /**
+     * @return {@code false} if the record doesn't fit into the rest of the segment
+     */
+    boolean append(byte[] data) {
+        if (buffer.remaining() < HEADER_SIZE + data.length) {
+            return false;
+        }
+
+        int start = buffer.position();
+
+        buffer.position(start + HEADER_SIZE);
+        buffer.put(data);
+
+        // the length goes last, so a reader never sees a length without its data
+        buffer.putInt(start + Integer.BYTES, checksum(ByteBuffer.wrap(data)));
+        buffer.putInt(start, data.length);
+
+        return true;
+    }
+
+    void force() {
+        int position = buffer.position();
+
+        if (position > forcedPosition) {
+            buffer.force(forcedPosition, position - forcedPosition);
+            forcedPosition = position;
+        }
+    }
+
+    long id() {
+        return id;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    private static int checksum(ByteBuffer data) {
+        CRC32C crc = new CRC32C();
+        crc.update(data.duplicate());
+
+        return (int) crc.getValue();
+    }
+
+}
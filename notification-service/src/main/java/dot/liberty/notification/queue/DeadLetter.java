@@ -0,0 +1,13 @@
+package dot.liberty.notification.queue;
+
+import java.time.Instant;
+
+/**
+ * An email that won't be retried any more without an explicit requeue.
+ */
+public record DeadLetter(
+        EmailMessage message,
+        String reason,
+        Instant deadLetteredAt
+) {
+}
@@ -0,0 +1,12 @@
+package dot.liberty.notification.queue;
+
+public enum DeliveryStatus {
+
+    QUEUED,
+    SENDING,
+    RETRY_SCHEDULED,
+    SENT,
+    DEAD_LETTERED,
+    FAILED
+
+}
@@ -0,0 +1,47 @@
+package dot.liberty.notification.queue;
+
+import dot.liberty.notification.config.DomainRateLimitProperties;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A {@link TokenBucket} per configured recipient domain. Not
+ * thread-safe; {@link EmailQueue} calls it under its lock.
+ */
+final class DomainRateLimiter {
+
+    private final Map<String, TokenBucket> buckets = new HashMap<>();
+
+    DomainRateLimiter(DomainRateLimitProperties properties, long now) {
+        properties.getDomains().forEach((domain, limit) -> {
+            if (limit.getRate() <= 0) {
+                throw new IllegalArgumentException("Rate limit of " + domain + " must be positive");
+            }
+
+            buckets.put(domain.toLowerCase(Locale.ROOT), new TokenBucket(limit.getRate(), limit.getBurst(), now));
+        });
+    }
+
+    /**
+     * @return 0 if the email may be sent now, otherwise the nanoseconds
+     * until its domain allows another one
+     */
+    long tryAcquire(String recipient, long now) {
+        if (buckets.isEmpty()) {
+            return 0;
+        }
+
+        TokenBucket bucket = buckets.get(domainOf(recipient));
+
+        return bucket == null ? 0 : bucket.tryAcquire(now);
+    }
+
+    private static String domainOf(String recipient) {
+        int at = recipient.lastIndexOf('@');
+
+        return recipient.substring(at + 1).toLowerCase(Locale.ROOT);
+    }
+
+}
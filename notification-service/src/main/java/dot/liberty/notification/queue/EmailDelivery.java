@@ -0,0 +1,51 @@
+package dot.liberty.notification.queue;
+
+import java.time.Instant;
+
+/**
+ * Delivery state of an accepted email as reported to clients.
+ *
+ * @param attempts    delivery attempts started so far
+ * @param completedAt when the message was sent, dead-lettered or discarded, otherwise {@code null}
+ * @param error       reason of the last failure, otherwise {@code null}
+ */
+public record EmailDelivery(
+        String messageId,
+        String recipient,
+        DeliveryStatus status,
+        int attempts,
+        Instant acceptedAt,
+        Instant completedAt,
+        String error
+) {
+
+    public static EmailDelivery queued(EmailMessage message) {
+        return new EmailDelivery(
+                message.id(), message.to(), DeliveryStatus.QUEUED, message.attempts(), message.acceptedAt(), null, null);
+    }
+
+    public EmailDelivery queuedForRetry() {
+        return new EmailDelivery(messageId, recipient, DeliveryStatus.QUEUED, attempts, acceptedAt, null, error);
+    }
+
+    public EmailDelivery sending() {
+        return new EmailDelivery(messageId, recipient, DeliveryStatus.SENDING, attempts + 1, acceptedAt, null, error);
+    }
+
+    public EmailDelivery sent() {
+        return new EmailDelivery(messageId, recipient, DeliveryStatus.SENT, attempts, acceptedAt, Instant.now(), null);
+    }
+
+    public EmailDelivery retryScheduled(String error) {
+        return new EmailDelivery(messageId, recipient, DeliveryStatus.RETRY_SCHEDULED, attempts, acceptedAt, null, error);
+    }
+
+    public EmailDelivery deadLettered(String error) {
+        return new EmailDelivery(messageId, recipient, DeliveryStatus.DEAD_LETTERED, attempts, acceptedAt, Instant.now(), error);
+    }
+
+    public EmailDelivery failed(String error) {
+        return new EmailDelivery(messageId, recipient, DeliveryStatus.FAILED, attempts, acceptedAt, Instant.now(), error);
+    }
+
+}
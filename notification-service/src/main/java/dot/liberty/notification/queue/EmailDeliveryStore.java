@@ -0,0 +1,47 @@
+package dot.liberty.notification.queue;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+
+/**
+ * Delivery states of recently accepted emails, kept for
+ * {@code notification.queue.status-retention} after the last change.
+ */
+@Component
+public class EmailDeliveryStore {
+
+    private final Cache<String, EmailDelivery> deliveries;
+
+    public EmailDeliveryStore(
+            @Value("${notification.queue.status-retention:1h}") Duration retention,
+            @Value("${notification.queue.status-maximum-size:100000}") long maximumSize) {
+
+        this.deliveries = Caffeine.newBuilder()
+                .expireAfterWrite(retention)
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    public void put(EmailDelivery delivery) {
+        deliveries.put(delivery.messageId(), delivery);
+    }
+
+    public void update(String messageId, UnaryOperator<EmailDelivery> change) {
+        deliveries.asMap().computeIfPresent(messageId, (id, delivery) -> change.apply(delivery));
+    }
+
+    public void remove(String messageId) {
+        deliveries.invalidate(messageId);
+    }
+
+    public Optional<EmailDelivery> find(String messageId) {
+        return Optional.ofNullable(deliveries.getIfPresent(messageId));
+    }
+
+}
@@ -0,0 +1,41 @@
+package dot.liberty.notification.queue;
+
+import java.time.Instant;
+
+/**
+ * An accepted email waiting for delivery.
+ *
+ * @param html     HTML alternative to {@code body}, or {@code null}
+ * @param priority the queue lane the email is sent from
+ * @param attempts failed delivery attempts so far
+ */
+public record EmailMessage(
+        String id,
+        String to,
+        String subject,
+        String body,
+        String html,
+        Priority priority,
+        Instant acceptedAt,
+        int attempts
+) {
+
+    public static EmailMessage accepted(
+            String id, String to, String subject, String body, String html, Priority priority) {
+
+        return new EmailMessage(id, to, subject, body, html, priority, Instant.now(), 0);
+    }
+
+    public EmailMessage failedAttempt() {
+        return withAttempts(attempts + 1);
+    }
+
+    public EmailMessage withoutAttempts() {
+        return withAttempts(0);
+    }
+
+    public EmailMessage withAttempts(int attempts) {
+        return new EmailMessage(id, to, subject, body, html, priority, acceptedAt, attempts);
+    }
+
+}
@@ -0,0 +1,280 @@
+package dot.liberty.notification.queue;
+
+import dot.liberty.notification.config.DomainRateLimitProperties;
+import dot.liberty.notification.config.EmailQueueProperties;
+import dot.liberty.notification.exception.EmailQueueFullException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded in-memory queue between the API and the delivery workers, with
+ * one lane per {@link Priority}. Durability is provided by the
+ * {@code EmailJournal}.
+ * <p>
+ * Each batch is taken from one lane, picked by smooth weighted round
+ * robin among the lanes that have mail, so bulk mail gets its share
+ * without delaying transactional mail by more than its weight allows.
+ * <p>
+ * Emails to a rate-limited domain wait in place while their domain is
+ * out of tokens; emails behind them to other domains are taken first.
+ * Only the first {@value SCAN_LIMIT} emails of a lane are looked at.
+ */
+@Component
+public class EmailQueue {
+
+    private static final int SCAN_LIMIT = 1000;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+
+    private final Map<Priority, Lane> lanes = new EnumMap<>(Priority.class);
+    private final DomainRateLimiter rateLimiter;
+    private final Duration retryAfter;
+
+    private volatile int size;
+
+    public EmailQueue(
+            EmailQueueProperties properties,
+            DomainRateLimitProperties rateLimitProperties,
+            MeterRegistry meterRegistry) {
+
+        for (Priority priority : Priority.values()) {
+            lanes.put(priority, new Lane(priority, properties.lane(priority), meterRegistry));
+        }
+
+        this.rateLimiter = new DomainRateLimiter(rateLimitProperties, System.nanoTime());
+        this.retryAfter = properties.getRetryAfter();
+    }
+
+    /**
+     * @throws EmailQueueFullException if the message's lane is at capacity
+     */
+    public void offer(EmailMessage message) {
+        lock.lock();
+
+        try {
+            Lane lane = lanes.get(message.priority());
+
+            if (lane.isFull()) {
+                throw new EmailQueueFullException(retryAfter);
+            }
+
+            add(lane, message);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits for free capacity instead of rejecting the message.
+     */
+    public void put(EmailMessage message) throws InterruptedException {
+        lock.lockInterruptibly();
+
+        try {
+            Lane lane = lanes.get(message.priority());
+
+            while (lane.isFull()) {
+                lane.notFull.await();
+            }
+
+            add(lane, message);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits up to {@code timeout} for a message that may be sent, then
+     * takes it together with whatever else in its lane may be sent, up
+     * to {@code maxSize} messages.
+     *
+     * @return the batch, empty if nothing could be taken in time
+     */
+    public List<EmailMessage> takeBatch(int maxSize, Duration timeout) throws InterruptedException {
+        long remaining = timeout.toNanos();
+
+        lock.lockInterruptibly();
+
+        try {
+            while (true) {
+                long wait = remaining;
+
+                if (size > 0) {
+                    List<EmailMessage> batch = new ArrayList<>(maxSize);
+                    long throttledFor = drain(batch, maxSize);
+
+                    if (!batch.isEmpty()) {
+                        return batch;
+                    }
+
+                    wait = Math.min(remaining, throttledFor);
+                }
+
+                if (remaining <= 0) {
+                    return List.of();
+                }
+
+                remaining -= wait - notEmpty.awaitNanos(wait);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void add(Lane lane, EmailMessage message) {
+        lane.entries.addLast(new Entry(message, System.nanoTime()));
+        lane.depth++;
+        size++;
+
+        notEmpty.signal();
+    }
+
+    /**
+     * Fills the batch from the next lane by weight, or from any other
+     * lane if all emails of that one are rate limited.
+     *
+     * @return the nanoseconds until a rate-limited email may be sent,
+     * {@code Long.MAX_VALUE} if none was rate limited
+     */
+    private long drain(List<EmailMessage> batch, int maxSize) {
+        Lane next = nextLane();
+        long throttledFor = drain(next, batch, maxSize);
+
+        for (Lane lane : lanes.values()) {
+            if (!batch.isEmpty()) {
+                break;
+            }
+
+            if (lane != next && !lane.entries.isEmpty()) {
+                throttledFor = Math.min(throttledFor, drain(lane, batch, maxSize));
+            }
+        }
+
+        return throttledFor;
+    }
+
+    private long drain(Lane lane, List<EmailMessage> batch, int maxSize) {
+        long now = System.nanoTime();
+        long throttledFor = Long.MAX_VALUE;
+        int taken = 0;
+        int scanned = 0;
+
+        Iterator<Entry> entries = lane.entries.iterator();
+
+        while (entries.hasNext() && batch.size() < maxSize && scanned++ < SCAN_LIMIT) {
+            Entry entry = entries.next();
+            long wait = rateLimiter.tryAcquire(entry.message().to(), now);
+
+            if (wait > 0) {
+                throttledFor = Math.min(throttledFor, wait);
+                continue;
+            }
+
+            entries.remove();
+            batch.add(entry.message());
+            lane.waitTimer.record(now - entry.enqueuedAt(), TimeUnit.NANOSECONDS);
+            taken++;
+        }
+
+        if (taken > 0) {
+            lane.depth -= taken;
+            size -= taken;
+            lane.notFull.signalAll();
+        }
+
+        if (lane.entries.isEmpty()) {
+            lane.currentWeight = 0;
+        }
+
+        return throttledFor;
+    }
+
+    /**
+     * Smooth weighted round robin among the lanes that have mail.
+     */
+    private Lane nextLane() {
+        Lane next = null;
+        int totalWeight = 0;
+
+        for (Lane lane : lanes.values()) {
+            if (lane.entries.isEmpty()) {
+                continue;
+            }
+
+            lane.currentWeight += lane.weight;
+            totalWeight += lane.weight;
+
+            if (next == null || lane.currentWeight > next.currentWeight) {
+                next = lane;
+            }
+        }
+
+        next.currentWeight -= totalWeight;
+
+        return next;
+    }
+
+    private record Entry(EmailMessage message, long enqueuedAt) {
+    }
+
+    private final class Lane {
+
+        private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+        private final Condition notFull = lock.newCondition();
+
+        private final int capacity;
+        private final int weight;
+
+        private final Timer waitTimer;
+
+        private int currentWeight;
+        private volatile int depth;
+
+        private Lane(Priority priority, EmailQueueProperties.Lane settings, MeterRegistry meterRegistry) {
+            if (settings.getWeight() < 1) {
+                throw new IllegalArgumentException("Weight of the " + priority + " lane must be at least 1");
+            }
+
+            this.capacity = settings.getCapacity();
+            this.weight = settings.getWeight();
+
+            String tag = priority.name().toLowerCase(Locale.ROOT);
+
+            this.waitTimer = Timer.builder("notification.queue.wait")
+                    .description("Time emails spend in the queue before a worker takes them")
+                    .tag("lane", tag)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry);
+
+            Gauge.builder("notification.queue.depth", this, lane -> lane.depth)
+                    .description("Emails waiting in the lane")
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+        }
+
+        private boolean isFull() {
+            return entries.size() >= capacity;
+        }
+
+    }
+
+}
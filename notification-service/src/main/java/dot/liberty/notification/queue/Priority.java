@@ -0,0 +1,19 @@
+package dot.liberty.notification.queue;
+
+/**
+ * The lane an email is queued in. Lanes are served by weighted fair
+ * scheduling, see {@code notification.queue.lanes}.
+ */
+public enum Priority {
+
+    /**
+     * Mail a user is waiting for, such as verification codes.
+     */
+    TRANSACTIONAL,
+
+    /**
+     * Newsletters and other mass sends that may wait.
+     */
+    BULK
+
+}
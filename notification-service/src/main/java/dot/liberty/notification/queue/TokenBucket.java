@@ -0,0 +1,40 @@
+package dot.liberty.notification.queue;
+
+/**
+ * Allows {@code rate} acquisitions per second on average and up to
+ * {@code burst} at once. Not thread-safe.
+ */
+final class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final double tokensPerNano;
+    private final double capacity;
+
+    private double tokens;
+    private long refilledAt;
+
+    TokenBucket(double rate, int burst, long now) {
+        this.tokensPerNano = rate / NANOS_PER_SECOND;
+        this.capacity = Math.max(1, burst);
+        this.tokens = capacity;
+        this.refilledAt = now;
+    }
+
+    /**
+     * @return 0 if a token was taken, otherwise the nanoseconds until
+     * one will be available
+     */
+    long tryAcquire(long now) {
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+
+        return Math.max(1, (long) Math.ceil((1 - tokens) / tokensPerNano));
+    }
+
+}
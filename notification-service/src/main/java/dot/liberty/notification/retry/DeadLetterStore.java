@@ -0,0 +1,78 @@
+package dot.liberty.notification.retry;
+
+import dot.liberty.notification.journal.EmailJournal;
+import dot.liberty.notification.queue.DeadLetter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Emails that ran out of attempts or failed permanently, kept for
+ * inspection and requeue. Backed by the journal, so they survive restarts.
+ * <p>
+ * Beyond {@code notification.retry.dead-letter-capacity} the oldest dead
+ * letters are discarded.
+ */
+@Component
+@Slf4j
+public class DeadLetterStore {
+
+    private final EmailJournal emailJournal;
+    private final int capacity;
+
+    private final Map<String, DeadLetter> deadLetters = new LinkedHashMap<>();
+
+    public DeadLetterStore(
+            EmailJournal emailJournal,
+            MeterRegistry meterRegistry,
+            @Value("${notification.retry.dead-letter-capacity:10000}") int capacity) {
+
+        this.emailJournal = emailJournal;
+        this.capacity = capacity;
+
+        emailJournal.recoveredDeadLetters()
+                .forEach(deadLetter -> deadLetters.put(deadLetter.message().id(), deadLetter));
+
+        Gauge.builder("notification.email.dead-letters.size", this, DeadLetterStore::size)
+                .description("Emails waiting in the dead-letter store")
+                .register(meterRegistry);
+    }
+
+    public synchronized void add(DeadLetter deadLetter) {
+        emailJournal.appendDeadLettered(deadLetter);
+        deadLetters.put(deadLetter.message().id(), deadLetter);
+
+        Iterator<DeadLetter> oldest = deadLetters.values().iterator();
+
+        while (deadLetters.size() > capacity) {
+            DeadLetter discarded = oldest.next();
+            oldest.remove();
+
+            emailJournal.appendCompleted(discarded.message().id());
+            log.warn("Dead-letter store is full, discarded email {} to {}",
+                    discarded.message().id(), discarded.message().to());
+        }
+    }
+
+    public synchronized List<DeadLetter> findAll() {
+        return new ArrayList<>(deadLetters.values());
+    }
+
+    public synchronized Optional<DeadLetter> remove(String messageId) {
+        return Optional.ofNullable(deadLetters.remove(messageId));
+    }
+
+    public synchronized int size() {
+        return deadLetters.size();
+    }
+
+}
@@ -0,0 +1,201 @@
+package dot.liberty.notification.retry;
+
+import dot.liberty.notification.journal.EmailJournal;
+import dot.liberty.notification.queue.DeadLetter;
+import dot.liberty.notification.queue.EmailDelivery;
+import dot.liberty.notification.queue.EmailDeliveryStore;
+import dot.liberty.notification.queue.EmailMessage;
+import dot.liberty.notification.queue.EmailQueue;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.AddressException;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSenderFailedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides what happens to an email whose delivery attempt failed.
+ * <p>
+ * Transient failures (SMTP 4xx, connection and authentication problems)
+ * are put back into the queue after an exponential backoff with jitter,
+ * timed by a {@link HashedWheelTimer} so no worker thread waits for it.
+ * Permanent failures (SMTP 5xx, malformed addresses) and emails out of
+ * attempts go to the {@link DeadLetterStore}.
+ */
+@Component
+@Slf4j
+public class EmailRetryScheduler {
+
+    private static final String METRIC_PREFIX = "notification.email.";
+
+    private static final Duration QUEUE_FULL_DELAY = Duration.ofSeconds(1);
+
+    private final EmailQueue emailQueue;
+    private final EmailDeliveryStore emailDeliveryStore;
+    private final DeadLetterStore deadLetterStore;
+    private final EmailJournal emailJournal;
+
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final double jitter;
+
+    private final HashedWheelTimer timer;
+
+    private final Counter retriesCounter;
+    private final Counter deadLetteredCounter;
+
+    public EmailRetryScheduler(
+            EmailQueue emailQueue,
+            EmailDeliveryStore emailDeliveryStore,
+            DeadLetterStore deadLetterStore,
+            EmailJournal emailJournal,
+            MeterRegistry meterRegistry,
+            @Value("${notification.retry.max-attempts:5}") int maxAttempts,
+            @Value("${notification.retry.initial-backoff:5s}") Duration initialBackoff,
+            @Value("${notification.retry.max-backoff:10m}") Duration maxBackoff,
+            @Value("${notification.retry.jitter:0.2}") double jitter,
+            @Value("${notification.retry.timer-tick:100ms}") Duration timerTick) {
+
+        this.emailQueue = emailQueue;
+        this.emailDeliveryStore = emailDeliveryStore;
+        this.deadLetterStore = deadLetterStore;
+        this.emailJournal = emailJournal;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.jitter = jitter;
+
+        this.timer = new HashedWheelTimer("email-retry-timer", timerTick, 512);
+
+        this.retriesCounter = Counter.builder(METRIC_PREFIX + "retries")
+                .description("Failed delivery attempts scheduled for a retry")
+                .register(meterRegistry);
+
+        this.deadLetteredCounter = Counter.builder(METRIC_PREFIX + "dead-lettered")
+                .description("Emails moved to the dead-letter store")
+                .register(meterRegistry);
+
+        Gauge.builder(METRIC_PREFIX + "retries.scheduled", timer, HashedWheelTimer::pending)
+                .description("Emails waiting for their retry")
+                .register(meterRegistry);
+    }
+
+    public void onFailure(EmailMessage message, Exception error) {
+        EmailMessage failed = message.failedAttempt();
+        String reason = reason(error);
+
+        if (isPermanent(error) || failed.attempts() >= maxAttempts) {
+            deadLetter(failed, reason);
+            return;
+        }
+
+        Duration delay = backoff(failed.attempts());
+
+        emailJournal.appendRetryScheduled(failed.id(), failed.attempts());
+        emailDeliveryStore.update(message.id(), delivery -> delivery.retryScheduled(reason));
+        timer.schedule(() -> requeue(failed), delay);
+        retriesCounter.increment();
+
+        log.warn("Email {} to {} failed (attempt {}), retrying in {} ms: {}",
+                message.id(), message.to(), failed.attempts(), delay.toMillis(), reason);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.close();
+    }
+
+    private void requeue(EmailMessage message) {
+        try {
+            emailQueue.offer(message);
+            emailDeliveryStore.update(message.id(), EmailDelivery::queuedForRetry);
+        } catch (RuntimeException e) {
+            timer.schedule(() -> requeue(message), QUEUE_FULL_DELAY);
+        }
+    }
+
+    private void deadLetter(EmailMessage message, String reason) {
+        deadLetterStore.add(new DeadLetter(message, reason, Instant.now()));
+        emailDeliveryStore.update(message.id(), delivery -> delivery.deadLettered(reason));
+        deadLetteredCounter.increment();
+
+        log.error("Email {} to {} moved to dead letters after {} attempts: {}",
+                message.id(), message.to(), message.attempts(), reason);
+    }
+
+    /**
+     * Exponential backoff from the initial one, capped, with
+     * +/- {@code jitter} spread so retries of one outage don't align.
+     */
+    Duration backoff(int attempts) {
+        long exponential = initialBackoff.toMillis() << Math.min(attempts - 1, 20);
+        long capped = Math.min(exponential, maxBackoff.toMillis());
+
+        double spread = 1 + jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+
+        return Duration.ofMillis(Math.round(capped * spread));
+    }
+
+    static boolean isPermanent(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = next(cause)) {
+            int returnCode = returnCode(cause);
+
+            if (returnCode >= 500) {
+                return true;
+            }
+
+            if (returnCode >= 400) {
+                return false;
+            }
+
+            // checked after the reply code, SMTPAddressFailedException is an AddressException too
+            if (cause instanceof AddressException) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * The SMTP server's reply if there is one, it says more than the wrapping exceptions.
+     */
+    private static String reason(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = next(cause)) {
+            if (returnCode(cause) > 0) {
+                return cause.getMessage();
+            }
+        }
+
+        return error.getMessage();
+    }
+
+    private static int returnCode(Throwable error) {
+        return switch (error) {
+            case SMTPAddressFailedException e -> e.getReturnCode();
+            case SMTPSenderFailedException e -> e.getReturnCode();
+            case SMTPSendFailedException e -> e.getReturnCode();
+            default -> -1;
+        };
+    }
+
+    private static Throwable next(Throwable error) {
+        if (error instanceof MessagingException messagingException && messagingException.getNextException() != null) {
+            return messagingException.getNextException();
+        }
+
+        return error.getCause() == error ? null : error.getCause();
+    }
+
+}
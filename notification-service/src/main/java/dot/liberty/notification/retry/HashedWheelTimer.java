@@ -0,0 +1,140 @@
+package dot.liberty.notification.retry;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Timer for many coarse delays, such as retry backoffs.
+ * <p>
+ * A single thread advances a wheel of buckets every tick and runs the
+ * tasks that are due. Scheduling is a lock-free enqueue, and tasks fire
+ * up to one tick late. Tasks run on the timer thread, so they must only
+ * hand work off, never block.
+ */
+@Slf4j
+public class HashedWheelTimer implements AutoCloseable {
+
+    private final long tickNanos;
+    private final Queue<Timeout>[] wheel;
+    private final int mask;
+
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final Thread thread;
+    private final long startNanos;
+
+    private volatile boolean running = true;
+
+    @SuppressWarnings("unchecked")
+    public HashedWheelTimer(String name, Duration tick, int wheelSize) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two: " + wheelSize);
+        }
+
+        this.tickNanos = tick.toNanos();
+        this.wheel = new Queue[wheelSize];
+        this.mask = wheelSize - 1;
+
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = new ArrayDeque<>();
+        }
+
+        this.startNanos = System.nanoTime();
+        this.thread = new Thread(this::run, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    public void schedule(Runnable task, Duration delay) {
+        scheduled.add(new Timeout(task, System.nanoTime() + delay.toNanos()));
+        pending.incrementAndGet();
+    }
+
+    /**
+     * Tasks scheduled but not run yet.
+     */
+    public int pending() {
+        return pending.get();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        thread.interrupt();
+    }
+
+    private void run() {
+        long tick = 0;
+
+        while (running) {
+            long deadline = startNanos + (tick + 1) * tickNanos;
+            long sleepNanos = deadline - System.nanoTime();
+
+            if (sleepNanos > 0) {
+                LockSupport.parkNanos(sleepNanos);
+                continue;
+            }
+
+            transferScheduled(tick);
+            expire(wheel[(int) (tick & mask)]);
+
+            tick++;
+        }
+    }
+
+    private void transferScheduled(long currentTick) {
+        Timeout timeout;
+
+        while ((timeout = scheduled.poll()) != null) {
+            long dueTick = Math.max(currentTick, (timeout.deadlineNanos - startNanos) / tickNanos);
+
+            timeout.remainingRounds = (dueTick - currentTick) / wheel.length;
+            wheel[(int) (dueTick & mask)].add(timeout);
+        }
+    }
+
+    private void expire(Queue<Timeout> bucket) {
+        Iterator<Timeout> iterator = bucket.iterator();
+
+        while (iterator.hasNext()) {
+            Timeout timeout = iterator.next();
+
+            if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+                continue;
+            }
+
+            iterator.remove();
+            pending.decrementAndGet();
+
+            try {
+                timeout.task.run();
+            } catch (RuntimeException e) {
+                log.error("Timer task failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private static final class Timeout {
+
+        private final Runnable task;
+        private final long deadlineNanos;
+
+        private long remainingRounds;
+
+        private Timeout(Runnable task, long deadlineNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+    }
+
+}
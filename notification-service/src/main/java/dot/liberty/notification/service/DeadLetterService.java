@@ -0,0 +1,64 @@
+package dot.liberty.notification.service;
+
+import dot.liberty.notification.exception.MessageNotFoundException;
+import dot.liberty.notification.journal.EmailJournal;
+import dot.liberty.notification.queue.DeadLetter;
+import dot.liberty.notification.queue.EmailDelivery;
+import dot.liberty.notification.queue.EmailDeliveryStore;
+import dot.liberty.notification.queue.EmailMessage;
+import dot.liberty.notification.queue.EmailQueue;
+import dot.liberty.notification.retry.DeadLetterStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DeadLetterService {
+
+    private final DeadLetterStore deadLetterStore;
+    private final EmailJournal emailJournal;
+    private final EmailQueue emailQueue;
+    private final EmailDeliveryStore emailDeliveryStore;
+
+    public List<DeadLetter> findAll() {
+        return deadLetterStore.findAll();
+    }
+
+    /**
+     * Queues the email again with a fresh set of attempts.
+     */
+    public void requeue(String messageId) {
+        DeadLetter deadLetter = deadLetterStore.remove(messageId)
+                .orElseThrow(() -> new MessageNotFoundException(messageId));
+
+        EmailMessage message = deadLetter.message().withoutAttempts();
+
+        emailJournal.appendRequeued(messageId);
+        emailDeliveryStore.put(EmailDelivery.queued(message));
+
+        try {
+            emailQueue.offer(message);
+        } catch (RuntimeException e) {
+            deadLetterStore.add(deadLetter);
+            emailDeliveryStore.update(messageId, delivery -> delivery.deadLettered(deadLetter.reason()));
+            throw e;
+        }
+
+        log.info("Dead letter {} to {} requeued", messageId, message.to());
+    }
+
+    public void discard(String messageId) {
+        DeadLetter deadLetter = deadLetterStore.remove(messageId)
+                .orElseThrow(() -> new MessageNotFoundException(messageId));
+
+        emailJournal.appendCompleted(messageId);
+        emailDeliveryStore.update(messageId, delivery -> delivery.failed(deadLetter.reason()));
+
+        log.info("Dead letter {} to {} discarded", messageId, deadLetter.message().to());
+    }
+
+}
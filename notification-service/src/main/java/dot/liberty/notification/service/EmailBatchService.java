@@ -0,0 +1,152 @@
+package dot.liberty.notification.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dot.liberty.notification.dto.request.SendEmailRequest;
+import dot.liberty.notification.dto.response.BatchItemResult;
+import dot.liberty.notification.dto.response.SendBatchResponse;
+import dot.liberty.notification.exception.EmailQueueFullException;
+import dot.liberty.notification.exception.InvalidBatchException;
+import dot.liberty.notification.exception.InvalidTemplateException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Accepts a JSON array of {@link SendEmailRequest}s.
+ * <p>
+ * The body is read element by element, so only the decoded messages are
+ * held in memory, never the raw body or its tree. Nothing is queued until
+ * the whole body has been read, so a malformed or oversized batch is
+ * rejected as a whole. After that each message stands on its own: one
+ * that cannot be queued is rejected without affecting the others.
+ */
+@Service
+@Slf4j
+public class EmailBatchService {
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final EmailService emailService;
+
+    private final int maxSize;
+
+    public EmailBatchService(
+            ObjectMapper objectMapper,
+            Validator validator,
+            EmailService emailService,
+            @Value("${notification.batch.max-size:500}") int maxSize) {
+
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.emailService = emailService;
+        this.maxSize = maxSize;
+    }
+
+    public SendBatchResponse queueBatch(InputStream body) {
+        List<SendEmailRequest> requests = readBatch(body);
+
+        List<BatchItemResult> results = new ArrayList<>(requests.size());
+        int accepted = 0;
+
+        for (int index = 0; index < requests.size(); index++) {
+            BatchItemResult result = queue(index, requests.get(index));
+
+            if (result.isAccepted()) {
+                accepted++;
+            }
+
+            results.add(result);
+        }
+
+        log.info("Batch of {} emails: {} accepted, {} rejected",
+                requests.size(), accepted, requests.size() - accepted);
+
+        return SendBatchResponse.builder()
+                .accepted(accepted)
+                .rejected(requests.size() - accepted)
+                .results(results)
+                .build();
+    }
+
+    private List<SendEmailRequest> readBatch(InputStream body) {
+        List<SendEmailRequest> requests = new ArrayList<>();
+
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw InvalidBatchException.byMalformedBody("expected a JSON array of messages");
+            }
+
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (requests.size() == maxSize) {
+                    throw InvalidBatchException.byTooManyMessages(maxSize);
+                }
+
+                requests.add(objectMapper.readValue(parser, SendEmailRequest.class));
+            }
+        } catch (JsonProcessingException e) {
+            throw InvalidBatchException.byMalformedBody(e.getOriginalMessage());
+        } catch (IOException e) {
+            throw InvalidBatchException.byMalformedBody(e.getMessage());
+        }
+
+        if (requests.isEmpty()) {
+            throw InvalidBatchException.byEmptyBatch();
+        }
+
+        return requests;
+    }
+
+    private BatchItemResult queue(int index, SendEmailRequest request) {
+        Set<ConstraintViolation<SendEmailRequest>> violations = validator.validate(request);
+
+        if (!violations.isEmpty()) {
+            Map<String, String> errors = new LinkedHashMap<>();
+
+            violations.forEach(violation -> errors.put(
+                    violation.getPropertyPath().toString(), violation.getMessage()));
+
+            return rejected(index, errors);
+        }
+
+        try {
+            QueuedEmail queued = emailService.queueEmail(request);
+
+            return BatchItemResult.builder()
+                    .index(index)
+                    .accepted(true)
+                    .messageId(queued.messageId())
+                    .duplicate(queued.duplicate())
+                    .build();
+        } catch (InvalidTemplateException e) {
+            return rejected(index, Map.of("templateId", e.getMessage()));
+        } catch (EmailQueueFullException e) {
+            return rejected(index, Map.of("queue", e.getMessage()));
+        } catch (RuntimeException e) {
+            log.error("Failed to queue email {} of a batch to {}", index, request.getTo(), e);
+
+            return rejected(index, Map.of("error", "Email could not be queued"));
+        }
+    }
+
+    private static BatchItemResult rejected(int index, Map<String, String> errors) {
+        return BatchItemResult.builder()
+                .index(index)
+                .accepted(false)
+                .errors(errors)
+                .build();
+    }
+
+}
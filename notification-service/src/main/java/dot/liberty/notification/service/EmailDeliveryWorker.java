@@ -0,0 +1,220 @@
+package dot.liberty.notification.service;
+
+import dot.liberty.notification.journal.EmailJournal;
+import dot.liberty.notification.queue.EmailDelivery;
+import dot.liberty.notification.queue.EmailDeliveryStore;
+import dot.liberty.notification.queue.EmailMessage;
+import dot.liberty.notification.queue.EmailQueue;
+import dot.liberty.notification.queue.Priority;
+import dot.liberty.notification.retry.EmailRetryScheduler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains {@link EmailQueue} in batches and sends each batch over a single
+ * SMTP connection with {@link JavaMailSender#send(MimeMessage...)}.
+ * Failed messages are handed to {@link EmailRetryScheduler}. The time
+ * from acceptance to sending is recorded per lane.
+ * <p>
+ * Workers are platform threads: the SMTP transport does its socket I/O
+ * inside {@code synchronized} methods, which would pin virtual threads.
+ * The number of workers is also the number of concurrent SMTP connections.
+ */
+@Component
+@Slf4j
+public class EmailDeliveryWorker {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final JavaMailSender mailSender;
+
+    private final EmailQueue emailQueue;
+    private final EmailDeliveryStore emailDeliveryStore;
+    private final EmailJournal emailJournal;
+    private final EmailRetryScheduler emailRetryScheduler;
+
+    private final Map<Priority, Timer> deliveryTimers = new EnumMap<>(Priority.class);
+
+    private final String from;
+    private final int workers;
+    private final int batchSize;
+
+    private final ExecutorService executor;
+
+    private volatile boolean running;
+
+    public EmailDeliveryWorker(
+            @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection") JavaMailSender mailSender,
+            EmailQueue emailQueue,
+            EmailDeliveryStore emailDeliveryStore,
+            EmailJournal emailJournal,
+            EmailRetryScheduler emailRetryScheduler,
+            MeterRegistry meterRegistry,
+            @Value("${notification.mail.from:noreply@dot.liberty}") String from,
+            @Value("${notification.mail.transport-threads:8}") int workers,
+            @Value("${notification.queue.batch-size:50}") int batchSize) {
+
+        this.mailSender = mailSender;
+        this.emailQueue = emailQueue;
+        this.emailDeliveryStore = emailDeliveryStore;
+        this.emailJournal = emailJournal;
+        this.emailRetryScheduler = emailRetryScheduler;
+
+        for (Priority priority : Priority.values()) {
+            deliveryTimers.put(priority, Timer.builder("notification.email.delivery.latency")
+                    .description("Time from acceptance until the email was sent, retries included")
+                    .tag("lane", priority.name().toLowerCase(Locale.ROOT))
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry));
+        }
+        this.from = from;
+        this.workers = workers;
+        this.batchSize = batchSize;
+
+        this.executor = Executors.newFixedThreadPool(
+                workers,
+                new CustomizableThreadFactory("email-delivery-"));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void start() {
+        running = true;
+
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::run);
+        }
+
+        log.info("Started {} email delivery workers, batch size {}", workers, batchSize);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+
+        executor.shutdown();
+
+        if (!executor.awaitTermination(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+            executor.shutdownNow();
+        }
+
+        if (emailQueue.size() > 0) {
+            log.info("Stopped with {} emails still queued, they will be sent after restart", emailQueue.size());
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                List<EmailMessage> batch = emailQueue.takeBatch(batchSize, POLL_TIMEOUT);
+
+                if (!batch.isEmpty()) {
+                    deliver(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Email delivery worker failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void deliver(List<EmailMessage> batch) {
+        Map<MimeMessage, EmailMessage> messages = new LinkedHashMap<>();
+
+        for (EmailMessage message : batch) {
+            try {
+                messages.put(toMimeMessage(message), message);
+                emailDeliveryStore.update(message.id(), EmailDelivery::sending);
+            } catch (MessagingException e) {
+                markFailed(message, e);
+            }
+        }
+
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        List<MimeMessage> mimeMessages = new ArrayList<>(messages.keySet());
+
+        try {
+            mailSender.send(mimeMessages.toArray(MimeMessage[]::new));
+
+            messages.values().forEach(this::markSent);
+        } catch (MailSendException e) {
+            Map<Object, Exception> failedMessages = e.getFailedMessages();
+
+            messages.forEach((mimeMessage, message) -> {
+                Exception failure = failedMessages.isEmpty() ? e : failedMessages.get(mimeMessage);
+
+                if (failure == null) {
+                    markSent(message);
+                } else {
+                    markFailed(message, failure);
+                }
+            });
+        } catch (MailException e) {
+            messages.values().forEach(message -> markFailed(message, e));
+        }
+    }
+
+    private MimeMessage toMimeMessage(EmailMessage message) throws MessagingException {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(
+                mimeMessage, message.html() != null, StandardCharsets.UTF_8.name());
+
+        helper.setFrom(from);
+        helper.setTo(message.to());
+        helper.setSubject(message.subject());
+
+        if (message.html() == null) {
+            helper.setText(message.body());
+        } else {
+            helper.setText(message.body(), message.html());
+        }
+
+        return mimeMessage;
+    }
+
+    private void markSent(EmailMessage message) {
+        deliveryTimers.get(message.priority()).record(Duration.between(message.acceptedAt(), Instant.now()));
+        emailJournal.appendCompleted(message.id());
+        emailDeliveryStore.update(message.id(), EmailDelivery::sent);
+        log.info("Email {} sent to {}", message.id(), message.to());
+    }
+
+    private void markFailed(EmailMessage message, Exception e) {
+        emailRetryScheduler.onFailure(message, e);
+    }
+
+}
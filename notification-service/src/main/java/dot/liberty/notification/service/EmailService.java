@@ -1,33 +1,149 @@
 package dot.liberty.notification.service;
 
+import dot.liberty.notification.dto.request.SendEmailRequest;
+import dot.liberty.notification.exception.MessageNotFoundException;
+import dot.liberty.notification.idempotency.IdempotencyKey;
+import dot.liberty.notification.idempotency.IdempotencyWindow;
+import dot.liberty.notification.idempotency.IdempotentEmail;
+import dot.liberty.notification.journal.EmailJournal;
+import dot.liberty.notification.queue.EmailDelivery;
+import dot.liberty.notification.queue.EmailDeliveryStore;
+import dot.liberty.notification.queue.EmailMessage;
+import dot.liberty.notification.queue.EmailQueue;
+import dot.liberty.notification.queue.Priority;
+import dot.liberty.notification.template.EmailTemplateRegistry;
+import dot.liberty.notification.template.RenderedEmail;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Accepts emails for delivery by {@link EmailDeliveryWorker}.
+ * <p>
+ * Template emails are rendered when accepted, so an unknown template
+ * or a missing parameter is rejected right away. Repeats of an email
+ * within the idempotency window are answered with the first one and
+ * not sent again. Every accepted email is journaled before it is queued,
+ * its idempotency key only after, and emails left pending by the previous
+ * run are queued again on startup.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EmailService {
 
-    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
-    private final JavaMailSender mailSender;
+    private final EmailQueue emailQueue;
+    private final EmailDeliveryStore emailDeliveryStore;
+    private final EmailJournal emailJournal;
+    private final EmailTemplateRegistry emailTemplateRegistry;
+    private final IdempotencyWindow idempotencyWindow;
+
+    public QueuedEmail queueEmail(SendEmailRequest request) {
+        EmailMessage message = toMessage(request);
+        Optional<IdempotencyKey> key = idempotencyWindow.keyOf(request);
+        IdempotentEmail idempotentEmail = null;
+
+        if (key.isPresent()) {
+            idempotentEmail = idempotencyWindow.claim(key.get(), message.id(), message.acceptedAt());
+
+            if (!idempotentEmail.messageId().equals(message.id())) {
+                log.debug("Email to {} is a duplicate of {}", request.getTo(), idempotentEmail.messageId());
+
+                return new QueuedEmail(
+                        idempotentEmail.messageId(), request.getTo(), idempotentEmail.acceptedAt(), true);
+            }
+        }
 
-    public void sendEmail(String to, String subject, String body) {
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
+            queue(message, idempotentEmail);
+        } catch (RuntimeException e) {
+            key.ifPresent(claimed -> idempotencyWindow.release(claimed, message.id()));
+            throw e;
+        }
+
+        return new QueuedEmail(message.id(), message.to(), message.acceptedAt(), false);
+    }
+
+    private EmailMessage toMessage(SendEmailRequest request) {
+        String id = UUID.randomUUID().toString();
+        Priority priority = request.getPriority() == null ? Priority.TRANSACTIONAL : request.getPriority();
+
+        if (request.getTemplateId() == null) {
+            return EmailMessage.accepted(
+                    id, request.getTo(), request.getSubject(), request.getBody(), null, priority);
+        }
 
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(body);
-            message.setFrom("noreply@dot.liberty");
+        RenderedEmail rendered = emailTemplateRegistry
+                .find(request.getTemplateId(), request.getTemplateVersion())
+                .render(request.getParams());
 
-            mailSender.send(message);
-            log.info("Email sent to {}", to);
-        } catch (Exception e) {
-            log.error("Failed to send email to {}: {}", to, e.getMessage());
+        return EmailMessage.accepted(
+                id, request.getTo(), rendered.subject(), rendered.text(), rendered.html(), priority);
+    }
+
+    private void queue(EmailMessage message, IdempotentEmail idempotentEmail) {
+        emailDeliveryStore.put(EmailDelivery.queued(message));
+        emailJournal.appendAccepted(message);
+
+        try {
+            emailQueue.offer(message);
+        } catch (RuntimeException e) {
+            emailJournal.appendCompleted(message.id());
+            emailDeliveryStore.remove(message.id());
+            throw e;
         }
+
+        if (idempotentEmail != null) {
+            journalIdempotencyKey(idempotentEmail);
+        }
+
+        log.debug("Email {} to {} queued", message.id(), message.to());
+    }
+
+    /**
+     * The email is queued by now, so failing the request would only make
+     * the caller send it again. Without the record the key is just not
+     * restored after a restart.
+     */
+    private void journalIdempotencyKey(IdempotentEmail idempotentEmail) {
+        try {
+            emailJournal.appendIdempotencyKey(idempotentEmail);
+        } catch (RuntimeException e) {
+            log.warn("Failed to journal the idempotency key of email {}: {}",
+                    idempotentEmail.messageId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Runs after the workers have started, since the recovered
+     * messages may not all fit into the queue at once.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void requeueRecoveredEmails() throws InterruptedException {
+        List<EmailMessage> recovered = emailJournal.recoveredMessages();
+
+        for (EmailMessage message : recovered) {
+            emailDeliveryStore.put(EmailDelivery.queued(message));
+            emailQueue.put(message);
+        }
+
+        if (!recovered.isEmpty()) {
+            log.info("Queued {} emails recovered from the journal", recovered.size());
+        }
+    }
+
+    public EmailDelivery getDelivery(String messageId) {
+        return emailDeliveryStore.find(messageId)
+                .orElseThrow(() -> new MessageNotFoundException(messageId));
     }
 
 }
@@ -0,0 +1,15 @@
+package dot.liberty.notification.service;
+
+import java.time.Instant;
+
+/**
+ * @param duplicate the request repeated an email accepted within the
+ *                  idempotency window, which is the one described here
+ */
+public record QueuedEmail(
+        String messageId,
+        String recipient,
+        Instant acceptedAt,
+        boolean duplicate
+) {
+}
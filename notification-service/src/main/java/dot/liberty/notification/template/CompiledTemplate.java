@@ -0,0 +1,87 @@
+package dot.liberty.notification.template;
+
+import dot.liberty.notification.exception.InvalidTemplateException;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A template version compiled into render plans for its subject, text
+ * and optional HTML part. Parameter values are HTML-escaped in the HTML
+ * part only.
+ */
+public final class CompiledTemplate {
+
+    private final String id;
+    private final int version;
+
+    private final TemplatePlan subject;
+    private final TemplatePlan text;
+    private final TemplatePlan html;
+
+    private final Set<String> parameters;
+
+    private CompiledTemplate(String id, int version, TemplatePlan subject, TemplatePlan text, TemplatePlan html) {
+        this.id = id;
+        this.version = version;
+        this.subject = subject;
+        this.text = text;
+        this.html = html;
+
+        Set<String> parameters = new LinkedHashSet<>(subject.parameters());
+        parameters.addAll(text.parameters());
+
+        if (html != null) {
+            parameters.addAll(html.parameters());
+        }
+
+        this.parameters = Set.copyOf(parameters);
+    }
+
+    static CompiledTemplate compile(String id, EmailTemplateDefinition definition) {
+        if (definition.subject() == null || definition.text() == null) {
+            throw new IllegalArgumentException("subject and text are required");
+        }
+
+        return new CompiledTemplate(
+                id,
+                definition.version(),
+                TemplatePlan.compile(definition.subject()),
+                TemplatePlan.compile(definition.text()),
+                definition.html() == null ? null : TemplatePlan.compile(definition.html())
+        );
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public int version() {
+        return version;
+    }
+
+    public Set<String> parameters() {
+        return parameters;
+    }
+
+    public RenderedEmail render(Map<String, String> values) {
+        Map<String, String> params = values == null ? Map.of() : values;
+
+        for (String parameter : parameters) {
+            if (params.get(parameter) == null) {
+                Set<String> missing = new LinkedHashSet<>(parameters);
+                missing.removeIf(name -> params.get(name) != null);
+
+                throw InvalidTemplateException.byMissingParameters(id, version, missing);
+            }
+        }
+
+        return new RenderedEmail(
+                subject.render(params, false),
+                text.render(params, false),
+                html == null ? null : html.render(params, true)
+        );
+    }
+
+}
@@ -0,0 +1,14 @@
+package dot.liberty.notification.template;
+
+/**
+ * One version of a template as written in the configuration, under
+ * {@code notification.templates.<id>}. Placeholders are written as
+ * {@code {{name}}}; {@code html} is optional.
+ */
+public record EmailTemplateDefinition(
+        int version,
+        String subject,
+        String text,
+        String html
+) {
+}
@@ -0,0 +1,117 @@
+package dot.liberty.notification.template;
+
+import dot.liberty.notification.exception.InvalidTemplateException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Templates from {@code notification.templates}, compiled once and kept
+ * by id and version. Requests that name no version get the latest one.
+ * <p>
+ * Templates are recompiled when the configuration is refreshed from the
+ * config server. A refresh that fails to compile keeps the templates
+ * already in use, while a broken configuration at startup fails it.
+ */
+@Component
+@Slf4j
+public class EmailTemplateRegistry {
+
+    private static final String PREFIX = "notification.templates";
+
+    private static final Bindable<Map<String, List<EmailTemplateDefinition>>> DEFINITIONS = Bindable.of(
+            ResolvableType.forClassWithGenerics(Map.class,
+                    ResolvableType.forClass(String.class),
+                    ResolvableType.forClassWithGenerics(List.class, EmailTemplateDefinition.class)));
+
+    private final Environment environment;
+
+    private volatile Map<String, NavigableMap<Integer, CompiledTemplate>> templates;
+
+    public EmailTemplateRegistry(Environment environment) {
+        this.environment = environment;
+        this.templates = compile();
+
+        log.info("Loaded {} email templates", templates.size());
+    }
+
+    public CompiledTemplate find(String templateId, Integer version) {
+        NavigableMap<Integer, CompiledTemplate> versions = templates.get(templateId);
+
+        if (versions == null) {
+            throw InvalidTemplateException.byUnknownTemplate(templateId);
+        }
+
+        if (version == null) {
+            return versions.lastEntry().getValue();
+        }
+
+        CompiledTemplate template = versions.get(version);
+
+        if (template == null) {
+            throw InvalidTemplateException.byUnknownVersion(templateId, version);
+        }
+
+        return template;
+    }
+
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().noneMatch(key -> key.startsWith(PREFIX))) {
+            return;
+        }
+
+        try {
+            templates = compile();
+            log.info("Reloaded {} email templates", templates.size());
+        } catch (RuntimeException e) {
+            log.error("Failed to reload email templates, keeping the previous ones: {}", e.getMessage());
+        }
+    }
+
+    private Map<String, NavigableMap<Integer, CompiledTemplate>> compile() {
+        Map<String, List<EmailTemplateDefinition>> definitions = Binder.get(environment)
+                .bind(PREFIX, DEFINITIONS)
+                .orElse(Map.of());
+
+        Map<String, NavigableMap<Integer, CompiledTemplate>> compiled = new HashMap<>();
+
+        definitions.forEach((id, versions) -> {
+            NavigableMap<Integer, CompiledTemplate> byVersion = new TreeMap<>();
+
+            for (EmailTemplateDefinition definition : versions) {
+                CompiledTemplate template;
+
+                try {
+                    template = CompiledTemplate.compile(id, definition);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalStateException(
+                            "Invalid template " + id + " v" + definition.version() + ": " + e.getMessage(), e);
+                }
+
+                if (byVersion.put(definition.version(), template) != null) {
+                    throw new IllegalStateException("Duplicate version " + definition.version() + " of template " + id);
+                }
+            }
+
+            if (!byVersion.isEmpty()) {
+                compiled.put(id, Collections.unmodifiableNavigableMap(byVersion));
+            }
+        });
+
+        return Map.copyOf(compiled);
+    }
+
+}
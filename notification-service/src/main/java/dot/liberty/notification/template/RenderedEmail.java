@@ -0,0 +1,11 @@
+package dot.liberty.notification.template;
+
+/**
+ * @param html {@code null} when the template has no HTML alternative
+ */
+public record RenderedEmail(
+        String subject,
+        String text,
+        String html
+) {
+}
@@ -0,0 +1,97 @@
+package dot.liberty.notification.template;
+
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A template string split once into literal text and placeholders, so
+ * rendering is a single pass of appends with no parsing.
+ * <p>
+ * {@code literals} always has one more element than {@code parameters}:
+ * the text before the first placeholder, between each pair and after
+ * the last one.
+ */
+final class TemplatePlan {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final String[] literals;
+    private final String[] parameters;
+    private final int literalLength;
+
+    private TemplatePlan(String[] literals, String[] parameters) {
+        this.literals = literals;
+        this.parameters = parameters;
+
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    static TemplatePlan compile(String template) {
+        List<String> literals = new ArrayList<>();
+        List<String> parameters = new ArrayList<>();
+
+        int position = 0;
+
+        while (true) {
+            int open = template.indexOf(OPEN, position);
+
+            if (open < 0) {
+                literals.add(template.substring(position));
+                break;
+            }
+
+            int close = template.indexOf(CLOSE, open + OPEN.length());
+
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at offset " + open);
+            }
+
+            String name = template.substring(open + OPEN.length(), close).strip();
+
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException("Empty placeholder at offset " + open);
+            }
+
+            literals.add(template.substring(position, open));
+            parameters.add(name);
+            position = close + CLOSE.length();
+        }
+
+        return new TemplatePlan(literals.toArray(String[]::new), parameters.toArray(String[]::new));
+    }
+
+    Set<String> parameters() {
+        return new LinkedHashSet<>(List.of(parameters));
+    }
+
+    /**
+     * Expects every parameter to be present; callers check that up front.
+     */
+    String render(Map<String, String> values, boolean escapeHtml) {
+        if (parameters.length == 0) {
+            return literals[0];
+        }
+
+        StringBuilder result = new StringBuilder(literalLength + 16 * parameters.length);
+
+        for (int i = 0; i < parameters.length; i++) {
+            String value = values.get(parameters[i]);
+
+            result.append(literals[i]);
+            result.append(escapeHtml ? HtmlUtils.htmlEscape(value) : value);
+        }
+
+        return result.append(literals[parameters.length]).toString();
+    }
+
+}
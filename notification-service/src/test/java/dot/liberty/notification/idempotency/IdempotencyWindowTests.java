@@ -0,0 +1,118 @@
+package dot.liberty.notification.idempotency;
+
+import dot.liberty.notification.dto.request.SendEmailRequest;
+import dot.liberty.notification.journal.EmailJournal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IdempotencyWindowTests {
+
+	private final EmailJournal journal = mock(EmailJournal.class);
+
+	private final IdempotencyKey key = IdempotencyKey.of("order-42-confirmation");
+
+	@Test
+	void repeatWithinTheWindowGetsTheFirstEmail() {
+		IdempotencyWindow window = window(Duration.ofMinutes(10));
+
+		IdempotentEmail first = window.claim(key, "first", Instant.now());
+
+		assertThat(window.claim(key, "second", Instant.now())).isEqualTo(first);
+	}
+
+	@Test
+	void keyIsFreeAgainOnceTheWindowHasPassed() throws InterruptedException {
+		IdempotencyWindow window = window(Duration.ofMillis(50));
+
+		window.claim(key, "first", Instant.now());
+
+		Thread.sleep(100);
+
+		assertThat(window.claim(key, "second", Instant.now()).messageId()).isEqualTo("second");
+	}
+
+	@Test
+	void releaseFreesOnlyTheKeyOfTheGivenMessage() {
+		IdempotencyWindow window = window(Duration.ofMinutes(10));
+
+		window.claim(key, "first", Instant.now());
+		window.release(key, "other");
+
+		assertThat(window.claim(key, "second", Instant.now()).messageId()).isEqualTo("first");
+
+		window.release(key, "first");
+
+		assertThat(window.claim(key, "third", Instant.now()).messageId()).isEqualTo("third");
+	}
+
+	@Test
+	void restoresJournaledKeysThatHaveNotExpired() {
+		IdempotencyKey expiredKey = IdempotencyKey.of("order-41-confirmation");
+		Instant now = Instant.now();
+
+		IdempotentEmail live = new IdempotentEmail(key, "live", now.minusSeconds(60), now.plusSeconds(540));
+		IdempotentEmail expired = new IdempotentEmail(expiredKey, "expired", now.minusSeconds(660), now.minusSeconds(60));
+
+		when(journal.recoveredIdempotentEmails()).thenReturn(List.of(live, expired));
+
+		IdempotencyWindow window = window(Duration.ofMinutes(10));
+
+		assertThat(window.claim(key, "repeat", now)).isEqualTo(live);
+		assertThat(window.claim(expiredKey, "fresh", now).messageId()).isEqualTo("fresh");
+	}
+
+	@Test
+	void derivesKeysFromRecipientAndContentUnlessAKeyIsGiven() {
+		IdempotencyWindow window = window(Duration.ofMinutes(10));
+
+		SendEmailRequest request = request("user@dot.liberty", null);
+		SendEmailRequest sameContent = request("user@dot.liberty", null);
+		SendEmailRequest otherRecipient = request("other@dot.liberty", null);
+		SendEmailRequest withKey = request("user@dot.liberty", "order-42-confirmation");
+
+		assertThat(window.keyOf(request)).isEqualTo(window.keyOf(sameContent));
+		assertThat(window.keyOf(request)).isNotEqualTo(window.keyOf(otherRecipient));
+		assertThat(window.keyOf(withKey)).contains(key);
+	}
+
+	@Test
+	void derivedKeyDoesNotDependOnTheDefaultLocale() {
+		IdempotencyWindow window = window(Duration.ofMinutes(10));
+		Locale defaultLocale = Locale.getDefault();
+
+		Optional<IdempotencyKey> derived = window.keyOf(request("INFO@dot.liberty", null));
+
+		try {
+			Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+
+			assertThat(window.keyOf(request("INFO@dot.liberty", null))).isEqualTo(derived);
+			assertThat(window.keyOf(request("info@dot.liberty", null))).isEqualTo(derived);
+		} finally {
+			Locale.setDefault(defaultLocale);
+		}
+	}
+
+	private static SendEmailRequest request(String to, String idempotencyKey) {
+		return SendEmailRequest.builder()
+				.to(to)
+				.subject("Subject")
+				.body("Body")
+				.idempotencyKey(idempotencyKey)
+				.build();
+	}
+
+	private IdempotencyWindow window(Duration duration) {
+		return new IdempotencyWindow(journal, new SimpleMeterRegistry(), duration, true, 1000);
+	}
+
+}
@@ -0,0 +1,280 @@
+package dot.liberty.notification.journal;
+
+import dot.liberty.notification.idempotency.IdempotencyKey;
+import dot.liberty.notification.idempotency.IdempotentEmail;
+import dot.liberty.notification.queue.DeadLetter;
+import dot.liberty.notification.queue.EmailMessage;
+import dot.liberty.notification.queue.Priority;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmailJournalTests {
+
+	private static final int COMPACT_AFTER_SEGMENTS = 3;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void replaysOnlyMessagesThatWereNotCompleted() throws IOException {
+		EmailJournal journal = open(DataSize.ofMegabytes(1));
+
+		EmailMessage sent = message("sent");
+		EmailMessage pending = message("pending");
+
+		journal.appendAccepted(sent);
+		journal.appendAccepted(pending);
+		journal.appendCompleted(sent.id());
+		journal.close();
+
+		assertThat(open(DataSize.ofMegabytes(1)).recoveredMessages())
+				.containsExactly(pending);
+	}
+
+	@Test
+	void replaysTheHtmlPartAndPriorityOfMessages() throws IOException {
+		EmailJournal journal = open(DataSize.ofMegabytes(1));
+
+		EmailMessage plain = message("plain");
+		EmailMessage html = new EmailMessage("html", "html@dot.liberty", "Subject html", "Body of html",
+				"<p>Body of html</p>", Priority.BULK, Instant.now().truncatedTo(ChronoUnit.MILLIS), 0);
+
+		journal.appendAccepted(plain);
+		journal.appendAccepted(html);
+		journal.close();
+
+		assertThat(open(DataSize.ofMegabytes(1)).recoveredMessages())
+				.containsExactly(plain, html);
+	}
+
+	@Test
+	void replaysTheAttemptsOfMessagesWaitingForARetry() throws IOException {
+		EmailJournal journal = open(DataSize.ofMegabytes(1));
+
+		EmailMessage retried = message("retried");
+
+		journal.appendAccepted(retried);
+		journal.appendRetryScheduled(retried.id(), 1);
+		journal.appendRetryScheduled(retried.id(), 2);
+		journal.close();
+
+		assertThat(open(DataSize.ofMegabytes(1)).recoveredMessages())
+				.containsExactly(retried.withAttempts(2));
+	}
+
+	@Test
+	void restoresDeadLettersUntilTheyAreRequeued() throws IOException {
+		EmailJournal journal = open(DataSize.ofMegabytes(1));
+
+		EmailMessage dead = message("dead");
+		EmailMessage requeued = message("requeued");
+
+		journal.appendAccepted(dead);
+		journal.appendAccepted(requeued);
+		journal.appendDeadLettered(new DeadLetter(dead.failedAttempt(), "550 mailbox unavailable", Instant.now()));
+		journal.appendDeadLettered(new DeadLetter(requeued.failedAttempt(), "550 mailbox unavailable", Instant.now()));
+		journal.appendRequeued(requeued.id());
+		journal.close();
+
+		EmailJournal reopened = open(DataSize.ofMegabytes(1));
+
+		assertThat(reopened.recoveredMessages()).containsExactly(requeued);
+		assertThat(reopened.recoveredDeadLetters())
+				.singleElement()
+				.satisfies(deadLetter -> {
+					assertThat(deadLetter.message().id()).isEqualTo(dead.id());
+					assertThat(deadLetter.message().attempts()).isEqualTo(1);
+					assertThat(deadLetter.reason()).isEqualTo("550 mailbox unavailable");
+				});
+	}
+
+	@Test
+	void deletesSegmentsOnceAllTheirMessagesAreCompleted() throws IOException {
+		EmailJournal journal = open(DataSize.ofKilobytes(1));
+
+		List<EmailMessage> messages = Stream.of("a", "b", "c", "d", "e", "f", "g", "h")
+				.map(EmailJournalTests::message)
+				.toList();
+
+		messages.forEach(journal::appendAccepted);
+		assertThat(segmentCount()).isGreaterThan(2);
+
+		messages.subList(0, 7).forEach(message -> journal.appendCompleted(message.id()));
+		journal.close();
+
+		assertThat(segmentCount()).isLessThanOrEqualTo(2);
+		assertThat(open(DataSize.ofKilobytes(1)).recoveredMessages())
+				.containsExactly(messages.get(7));
+	}
+
+	@Test
+	void deadLetterOutlivingSeveralRolloversIsCompactedForward() throws IOException {
+		EmailJournal journal = open(DataSize.ofKilobytes(2));
+
+		EmailMessage dead = message("dead");
+		EmailMessage retried = message("retried");
+
+		journal.appendAccepted(dead);
+		journal.appendAccepted(retried);
+		journal.appendDeadLettered(new DeadLetter(dead.failedAttempt(), "550 mailbox unavailable", Instant.now()));
+		journal.appendRetryScheduled(retried.id(), 2);
+
+		for (int i = 0; i < 100; i++) {
+			EmailMessage sent = message("sent-" + i);
+
+			journal.appendAccepted(sent);
+			journal.appendCompleted(sent.id());
+
+			assertThat(segmentCount()).isLessThanOrEqualTo(COMPACT_AFTER_SEGMENTS + 1);
+		}
+
+		journal.close();
+
+		EmailJournal reopened = open(DataSize.ofKilobytes(2));
+
+		assertThat(reopened.recoveredMessages())
+				.singleElement()
+				.satisfies(message -> {
+					assertThat(message.id()).isEqualTo(retried.id());
+					assertThat(message.attempts()).isEqualTo(2);
+				});
+		assertThat(reopened.recoveredDeadLetters())
+				.singleElement()
+				.satisfies(deadLetter -> {
+					assertThat(deadLetter.message()).isEqualTo(dead.failedAttempt());
+					assertThat(deadLetter.reason()).isEqualTo("550 mailbox unavailable");
+				});
+
+		reopened.appendRequeued(dead.id());
+		reopened.close();
+
+		assertThat(open(DataSize.ofKilobytes(2)).recoveredMessages())
+				.extracting(EmailMessage::id)
+				.containsExactlyInAnyOrder(dead.id(), retried.id());
+	}
+
+	@Test
+	void keepsIdempotencyKeysOfSentMessagesUntilTheyExpire() throws IOException {
+		EmailJournal journal = open(DataSize.ofKilobytes(1));
+
+		EmailMessage sent = message("sent");
+		IdempotentEmail live = idempotentEmail(sent, Duration.ofMinutes(10));
+		EmailMessage old = message("old");
+		IdempotentEmail expired = idempotentEmail(old, Duration.ofMinutes(-1));
+
+		journal.appendAccepted(sent);
+		journal.appendIdempotencyKey(live);
+		journal.appendAccepted(old);
+		journal.appendIdempotencyKey(expired);
+		journal.appendCompleted(sent.id());
+		journal.appendCompleted(old.id());
+
+		for (int i = 0; i < 3; i++) {
+			EmailMessage filler = message("filler-" + i);
+			journal.appendAccepted(filler);
+			journal.appendCompleted(filler.id());
+		}
+
+		journal.close();
+
+		EmailJournal reopened = open(DataSize.ofKilobytes(1));
+
+		assertThat(reopened.recoveredMessages()).isEmpty();
+		assertThat(reopened.recoveredIdempotentEmails()).contains(live);
+	}
+
+	@Test
+	void skipsAcceptedRecordsOfAnUnknownVersion() throws IOException {
+		EmailJournal journal = open(DataSize.ofMegabytes(1));
+
+		EmailMessage known = message("known");
+
+		journal.appendAccepted(known);
+		journal.close();
+
+		byte[] id = "future".getBytes(StandardCharsets.UTF_8);
+		ByteBuffer record = ByteBuffer.allocate(1 + Integer.BYTES + id.length + 1 + Long.BYTES)
+				.put((byte) 1)
+				.putInt(id.length)
+				.put(id)
+				.put((byte) 99)
+				.putLong(42);
+
+		JournalSegment segment = JournalSegment.create(
+				99, directory.resolve("segment-00000000000000000099.journal"), 1024);
+		segment.append(record.array());
+		segment.force();
+
+		assertThat(open(DataSize.ofMegabytes(1)).recoveredMessages())
+				.containsExactly(known);
+	}
+
+	@Test
+	void stopsReadingAtATornRecord() throws IOException {
+		EmailJournal journal = open(DataSize.ofMegabytes(1));
+
+		EmailMessage first = message("first");
+
+		journal.appendAccepted(first);
+		journal.appendAccepted(message("torn"));
+		journal.close();
+
+		Path segment;
+
+		try (Stream<Path> files = Files.list(directory)) {
+			segment = files.findFirst().orElseThrow();
+		}
+
+		// flip the last written byte, which belongs to the second record
+		byte[] content = Files.readAllBytes(segment);
+		int last = content.length - 1;
+
+		while (content[last] == 0) {
+			last--;
+		}
+
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.wrap(new byte[] {(byte) ~content[last]}), last);
+		}
+
+		assertThat(open(DataSize.ofMegabytes(1)).recoveredMessages())
+				.containsExactly(first);
+	}
+
+	private EmailJournal open(DataSize segmentSize) throws IOException {
+		return new EmailJournal(directory, segmentSize, FsyncPolicy.OS, Duration.ofSeconds(1), COMPACT_AFTER_SEGMENTS);
+	}
+
+	private long segmentCount() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.count();
+		}
+	}
+
+	private static IdempotentEmail idempotentEmail(EmailMessage message, Duration expiresIn) {
+		return new IdempotentEmail(IdempotencyKey.of(message.id()), message.id(),
+				message.acceptedAt(), message.acceptedAt().plus(expiresIn));
+	}
+
+	private static EmailMessage message(String name) {
+		return new EmailMessage(name, name + "@dot.liberty", "Subject " + name,
+				"Body of " + name + " ".repeat(200), null, Priority.TRANSACTIONAL, Instant.now().truncatedTo(ChronoUnit.MILLIS), 0);
+	}
+
+}
@@ -0,0 +1,115 @@
+package dot.liberty.notification.queue;
+
+import dot.liberty.notification.config.DomainRateLimitProperties;
+import dot.liberty.notification.config.EmailQueueProperties;
+import dot.liberty.notification.exception.EmailQueueFullException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EmailQueueTests {
+
+	@Test
+	void takesWhatIsQueuedUpToTheBatchSize() throws InterruptedException {
+		EmailQueue queue = queue(lanes(100, 1, 100, 1), new DomainRateLimitProperties());
+
+		for (int i = 0; i < 5; i++) {
+			queue.offer(message("m" + i, "user@dot.liberty", Priority.TRANSACTIONAL));
+		}
+
+		assertThat(queue.takeBatch(3, Duration.ZERO))
+				.extracting(EmailMessage::id)
+				.containsExactly("m0", "m1", "m2");
+		assertThat(queue.takeBatch(3, Duration.ZERO))
+				.extracting(EmailMessage::id)
+				.containsExactly("m3", "m4");
+		assertThat(queue.takeBatch(3, Duration.ofMillis(10))).isEmpty();
+	}
+
+	@Test
+	void servesLanesInProportionToTheirWeights() throws InterruptedException {
+		EmailQueue queue = queue(lanes(100, 3, 100, 1), new DomainRateLimitProperties());
+
+		for (int i = 0; i < 20; i++) {
+			queue.offer(message("t" + i, "user@dot.liberty", Priority.TRANSACTIONAL));
+			queue.offer(message("b" + i, "user@dot.liberty", Priority.BULK));
+		}
+
+		List<Priority> served = new ArrayList<>();
+
+		for (int i = 0; i < 8; i++) {
+			served.add(queue.takeBatch(1, Duration.ZERO).getFirst().priority());
+		}
+
+		assertThat(served).filteredOn(Priority.TRANSACTIONAL::equals).hasSize(6);
+		assertThat(served).filteredOn(Priority.BULK::equals).hasSize(2);
+	}
+
+	@Test
+	void takesOtherDomainsWhileARateLimitedOneWaits() throws InterruptedException {
+		DomainRateLimitProperties rateLimits = new DomainRateLimitProperties();
+		DomainRateLimitProperties.Limit limit = new DomainRateLimitProperties.Limit();
+		limit.setRate(0.1);
+		limit.setBurst(1);
+		rateLimits.getDomains().put("gmail.com", limit);
+
+		EmailQueue queue = queue(lanes(100, 1, 100, 1), rateLimits);
+
+		queue.offer(message("g1", "first@gmail.com", Priority.TRANSACTIONAL));
+		queue.offer(message("g2", "second@GMAIL.com", Priority.TRANSACTIONAL));
+		queue.offer(message("o1", "other@dot.liberty", Priority.TRANSACTIONAL));
+
+		assertThat(queue.takeBatch(10, Duration.ZERO))
+				.extracting(EmailMessage::id)
+				.containsExactly("g1", "o1");
+		assertThat(queue.takeBatch(10, Duration.ofMillis(50))).isEmpty();
+		assertThat(queue.size()).isEqualTo(1);
+	}
+
+	@Test
+	void rejectsMessagesOnlyWhenTheirOwnLaneIsFull() {
+		EmailQueue queue = queue(lanes(10, 1, 1, 1), new DomainRateLimitProperties());
+
+		queue.offer(message("b1", "user@dot.liberty", Priority.BULK));
+
+		assertThatThrownBy(() -> queue.offer(message("b2", "user@dot.liberty", Priority.BULK)))
+				.isInstanceOf(EmailQueueFullException.class);
+
+		queue.offer(message("t1", "user@dot.liberty", Priority.TRANSACTIONAL));
+
+		assertThat(queue.size()).isEqualTo(2);
+	}
+
+	private static EmailQueue queue(EmailQueueProperties properties, DomainRateLimitProperties rateLimits) {
+		return new EmailQueue(properties, rateLimits, new SimpleMeterRegistry());
+	}
+
+	private static EmailQueueProperties lanes(
+			int transactionalCapacity, int transactionalWeight, int bulkCapacity, int bulkWeight) {
+
+		EmailQueueProperties properties = new EmailQueueProperties();
+		properties.getLanes().put(Priority.TRANSACTIONAL, lane(transactionalCapacity, transactionalWeight));
+		properties.getLanes().put(Priority.BULK, lane(bulkCapacity, bulkWeight));
+
+		return properties;
+	}
+
+	private static EmailQueueProperties.Lane lane(int capacity, int weight) {
+		EmailQueueProperties.Lane lane = new EmailQueueProperties.Lane();
+		lane.setCapacity(capacity);
+		lane.setWeight(weight);
+
+		return lane;
+	}
+
+	private static EmailMessage message(String id, String to, Priority priority) {
+		return EmailMessage.accepted(id, to, "Subject", "Body", null, priority);
+	}
+
+}
@@ -0,0 +1,133 @@
+package dot.liberty.notification.retry;
+
+import dot.liberty.notification.config.DomainRateLimitProperties;
+import dot.liberty.notification.config.EmailQueueProperties;
+import dot.liberty.notification.journal.EmailJournal;
+import dot.liberty.notification.queue.EmailDeliveryStore;
+import dot.liberty.notification.queue.EmailMessage;
+import dot.liberty.notification.queue.EmailQueue;
+import dot.liberty.notification.queue.Priority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.InternetAddress;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class EmailRetrySchedulerTests {
+
+	private final EmailQueue queue = new EmailQueue(
+			new EmailQueueProperties(), new DomainRateLimitProperties(), new SimpleMeterRegistry());
+	private final DeadLetterStore deadLetterStore = mock(DeadLetterStore.class);
+	private final EmailJournal journal = mock(EmailJournal.class);
+
+	private final EmailRetryScheduler scheduler = scheduler(0);
+
+	@AfterEach
+	void tearDown() {
+		scheduler.shutdown();
+	}
+
+	@Test
+	void backoffDoublesPerAttemptUpToTheMaximum() {
+		assertThat(scheduler.backoff(1)).isEqualTo(Duration.ofMillis(100));
+		assertThat(scheduler.backoff(2)).isEqualTo(Duration.ofMillis(200));
+		assertThat(scheduler.backoff(3)).isEqualTo(Duration.ofMillis(400));
+		assertThat(scheduler.backoff(5)).isEqualTo(Duration.ofSeconds(1));
+		assertThat(scheduler.backoff(40)).isEqualTo(Duration.ofSeconds(1));
+	}
+
+	@Test
+	void jitterSpreadsTheBackoffAroundItsValue() {
+		EmailRetryScheduler jittered = scheduler(0.2);
+
+		try {
+			for (int i = 0; i < 100; i++) {
+				assertThat(jittered.backoff(2)).isBetween(Duration.ofMillis(160), Duration.ofMillis(240));
+			}
+		} finally {
+			jittered.shutdown();
+		}
+	}
+
+	@Test
+	void classifiesSmtpRepliesAndMalformedAddresses() throws AddressException {
+		InternetAddress recipient = new InternetAddress("user@dot.liberty");
+
+		assertThat(EmailRetryScheduler.isPermanent(
+				new SMTPAddressFailedException(recipient, "RCPT TO", 550, "mailbox unavailable"))).isTrue();
+		assertThat(EmailRetryScheduler.isPermanent(
+				new SMTPAddressFailedException(recipient, "RCPT TO", 452, "mailbox full"))).isFalse();
+		assertThat(EmailRetryScheduler.isPermanent(new AddressException("Illegal address"))).isTrue();
+		assertThat(EmailRetryScheduler.isPermanent(new MessagingException("Connection refused"))).isFalse();
+	}
+
+	@Test
+	void findsTheSmtpReplyBehindWrappingExceptions() {
+		MessagingException sendFailed = new MessagingException("Send failed");
+		sendFailed.setNextException(new SMTPSendFailedException(
+				"DATA", 554, "message rejected", null, null, null, null));
+
+		assertThat(EmailRetryScheduler.isPermanent(new MailSendException("Mail server rejected", sendFailed)))
+				.isTrue();
+	}
+
+	@Test
+	void transientFailureIsJournaledAndRequeuedAfterTheBackoff() throws InterruptedException {
+		EmailMessage message = message(0);
+
+		scheduler.onFailure(message, new MessagingException("Connection refused"));
+
+		verify(journal).appendRetryScheduled(message.id(), 1);
+		verifyNoInteractions(deadLetterStore);
+
+		List<EmailMessage> requeued = queue.takeBatch(1, Duration.ofSeconds(2));
+
+		assertThat(requeued).containsExactly(message.withAttempts(1));
+	}
+
+	@Test
+	void permanentFailureAndLastAttemptGoToTheDeadLetters() {
+		scheduler.onFailure(message(0), new AddressException("Illegal address"));
+		scheduler.onFailure(message(2), new MessagingException("Connection refused"));
+
+		verify(deadLetterStore).add(argThat(deadLetter -> deadLetter.message().attempts() == 1
+				&& deadLetter.reason().equals("Illegal address")));
+		verify(deadLetterStore).add(argThat(deadLetter -> deadLetter.message().attempts() == 3));
+		verify(journal, never()).appendRetryScheduled(anyString(), anyInt());
+		assertThat(queue.size()).isZero();
+	}
+
+	private EmailRetryScheduler scheduler(double jitter) {
+		return new EmailRetryScheduler(
+				queue,
+				new EmailDeliveryStore(Duration.ofHours(1), 100),
+				deadLetterStore,
+				journal,
+				new SimpleMeterRegistry(),
+				3,
+				Duration.ofMillis(100),
+				Duration.ofSeconds(1),
+				jitter,
+				Duration.ofMillis(10));
+	}
+
+	private static EmailMessage message(int attempts) {
+		return EmailMessage.accepted("m-" + attempts, "user@dot.liberty", "Subject", "Body", null, Priority.TRANSACTIONAL)
+				.withAttempts(attempts);
+	}
+
+}
@@ -0,0 +1,71 @@
+package dot.liberty.notification.retry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HashedWheelTimerTests {
+
+	private final HashedWheelTimer timer = new HashedWheelTimer("test-timer", Duration.ofMillis(10), 4);
+
+	@AfterEach
+	void tearDown() {
+		timer.close();
+	}
+
+	@Test
+	void runsATaskWithinATickOfItsDelay() throws InterruptedException {
+		CountDownLatch fired = new CountDownLatch(1);
+		long scheduledAt = System.nanoTime();
+
+		timer.schedule(fired::countDown, Duration.ofMillis(25));
+
+		assertThat(fired.await(1, TimeUnit.SECONDS)).isTrue();
+		assertThat(elapsedMillis(scheduledAt)).isGreaterThanOrEqualTo(20);
+	}
+
+	@Test
+	void delayBeyondOneTurnOfTheWheelWaitsForItsRounds() throws InterruptedException {
+		CountDownLatch fired = new CountDownLatch(1);
+		long scheduledAt = System.nanoTime();
+
+		// the wheel turns once every 40 ms, so this task needs 3 more rounds in its bucket
+		timer.schedule(fired::countDown, Duration.ofMillis(150));
+
+		assertThat(fired.await(100, TimeUnit.MILLISECONDS)).isFalse();
+		assertThat(timer.pending()).isEqualTo(1);
+
+		assertThat(fired.await(1, TimeUnit.SECONDS)).isTrue();
+		assertThat(elapsedMillis(scheduledAt)).isGreaterThanOrEqualTo(140);
+		assertThat(timer.pending()).isZero();
+	}
+
+	@Test
+	void failingTaskDoesNotStopTheTimer() throws InterruptedException {
+		CountDownLatch fired = new CountDownLatch(1);
+
+		timer.schedule(() -> {
+			throw new IllegalStateException("task failed");
+		}, Duration.ZERO);
+		timer.schedule(fired::countDown, Duration.ofMillis(30));
+
+		assertThat(fired.await(1, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	void wheelSizeMustBeAPowerOfTwo() {
+		assertThatThrownBy(() -> new HashedWheelTimer("invalid-timer", Duration.ofMillis(10), 6))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static long elapsedMillis(long sinceNanos) {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sinceNanos);
+	}
+
+}
@@ -0,0 +1,132 @@
+package dot.liberty.notification.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dot.liberty.notification.dto.request.SendEmailRequest;
+import dot.liberty.notification.dto.response.BatchItemResult;
+import dot.liberty.notification.dto.response.SendBatchResponse;
+import dot.liberty.notification.exception.EmailQueueFullException;
+import dot.liberty.notification.exception.InvalidBatchException;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class EmailBatchServiceTests {
+
+	private final EmailService emailService = mock(EmailService.class);
+
+	private final EmailBatchService batchService = new EmailBatchService(
+			new ObjectMapper(),
+			Validation.buildDefaultValidatorFactory().getValidator(),
+			emailService,
+			3);
+
+	@Test
+	void reportsEachMessageOnItsOwn() {
+		when(emailService.queueEmail(any())).thenAnswer(invocation -> queued(invocation.getArgument(0)));
+
+		SendBatchResponse response = batchService.queueBatch(body("""
+				[
+				  {"to": "full@dot.liberty", "subject": "S", "body": "B"},
+				  {"to": "not-an-email", "subject": "S", "body": "B"},
+				  {"to": "broken@dot.liberty", "subject": "S", "body": "B"}
+				]
+				"""));
+
+		assertThat(response.getAccepted()).isZero();
+		assertThat(response.getRejected()).isEqualTo(3);
+		assertThat(response.getResults().get(0).getErrors()).containsKey("queue");
+		assertThat(response.getResults().get(1).getErrors()).containsKey("to");
+		assertThat(response.getResults().get(2).getErrors()).containsKey("error");
+
+		verify(emailService, times(2)).queueEmail(any());
+	}
+
+	@Test
+	void failingMessageDoesNotStopTheOnesAfterIt() {
+		when(emailService.queueEmail(any())).thenAnswer(invocation -> queued(invocation.getArgument(0)));
+
+		SendBatchResponse response = batchService.queueBatch(body("""
+				[
+				  {"to": "first@dot.liberty", "subject": "S", "body": "B"},
+				  {"to": "broken@dot.liberty", "subject": "S", "body": "B"},
+				  {"to": "last@dot.liberty", "subject": "S", "body": "B"}
+				]
+				"""));
+
+		assertThat(response.getAccepted()).isEqualTo(2);
+		assertThat(response.getResults())
+				.extracting(BatchItemResult::isAccepted)
+				.containsExactly(true, false, true);
+		assertThat(response.getResults().get(2).getMessageId()).isEqualTo("id-last@dot.liberty");
+	}
+
+	@Test
+	void malformedElementRejectsTheBatchBeforeAnythingIsQueued() {
+		assertThatThrownBy(() -> batchService.queueBatch(body("""
+				[{"to": "first@dot.liberty", "subject": "S", "body": "B"}, {"to": ]
+				""")))
+				.isInstanceOf(InvalidBatchException.class)
+				.hasMessageStartingWith("Malformed batch");
+
+		verifyNoInteractions(emailService);
+	}
+
+	@Test
+	void stopsReadingOnceTheBatchIsTooLarge() {
+		String message = "{\"to\": \"user@dot.liberty\", \"subject\": \"S\", \"body\": \"B\"},";
+		InputStream endless = new SequenceInputStream(Collections.enumeration(List.of(
+				body("[" + message.repeat(4)),
+				new InputStream() {
+					@Override
+					public int read() {
+						throw new AssertionError("read past the size limit");
+					}
+				})));
+
+		assertThatThrownBy(() -> batchService.queueBatch(endless))
+				.isInstanceOf(InvalidBatchException.class)
+				.hasMessage("A batch may contain at most 3 messages");
+
+		verifyNoInteractions(emailService);
+	}
+
+	@Test
+	void rejectsBodiesThatAreNotANonEmptyArray() {
+		assertThatThrownBy(() -> batchService.queueBatch(body("{\"to\": \"user@dot.liberty\"}")))
+				.isInstanceOf(InvalidBatchException.class)
+				.hasMessage("Malformed batch: expected a JSON array of messages");
+		assertThatThrownBy(() -> batchService.queueBatch(body("[]")))
+				.isInstanceOf(InvalidBatchException.class)
+				.hasMessage("A batch must contain at least one message");
+	}
+
+	private static QueuedEmail queued(SendEmailRequest request) {
+		if (request.getTo().startsWith("full")) {
+			throw new EmailQueueFullException(Duration.ofSeconds(1));
+		}
+
+		if (request.getTo().startsWith("broken")) {
+			throw new IllegalStateException("journal unavailable");
+		}
+
+		return new QueuedEmail("id-" + request.getTo(), request.getTo(), Instant.now(), false);
+	}
+
+	private static InputStream body(String json) {
+		return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
@@ -0,0 +1,123 @@
+package dot.liberty.notification.service;
+
+import dot.liberty.notification.config.DomainRateLimitProperties;
+import dot.liberty.notification.config.EmailQueueProperties;
+import dot.liberty.notification.journal.EmailJournal;
+import dot.liberty.notification.queue.DeliveryStatus;
+import dot.liberty.notification.queue.EmailDelivery;
+import dot.liberty.notification.queue.EmailDeliveryStore;
+import dot.liberty.notification.queue.EmailMessage;
+import dot.liberty.notification.queue.EmailQueue;
+import dot.liberty.notification.queue.Priority;
+import dot.liberty.notification.retry.EmailRetryScheduler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class EmailDeliveryWorkerTests {
+
+	private final JavaMailSender mailSender = mock(JavaMailSender.class);
+
+	private final EmailQueue queue = new EmailQueue(
+			new EmailQueueProperties(), new DomainRateLimitProperties(), new SimpleMeterRegistry());
+	private final EmailDeliveryStore store = new EmailDeliveryStore(Duration.ofHours(1), 100);
+	private final EmailJournal journal = mock(EmailJournal.class);
+	private final EmailRetryScheduler retryScheduler = mock(EmailRetryScheduler.class);
+
+	private final AtomicInteger sendCalls = new AtomicInteger();
+
+	private final EmailDeliveryWorker worker = new EmailDeliveryWorker(
+			mailSender, queue, store, journal, retryScheduler, new SimpleMeterRegistry(), "noreply@dot.liberty", 1, 10);
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		worker.stop();
+	}
+
+	@Test
+	void sendsABatchOverOneConnectionAndRetriesOnlyTheRejectedMessage() throws InterruptedException {
+		when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage(Session.getInstance(new Properties())));
+		doAnswer(invocation -> {
+			sendCalls.incrementAndGet();
+
+			Map<Object, Exception> failed = new HashMap<>();
+
+			for (Object argument : invocation.getArguments()) {
+				MimeMessage mimeMessage = (MimeMessage) argument;
+
+				if (recipient(mimeMessage).startsWith("rejected")) {
+					failed.put(mimeMessage, new MessagingException("550 mailbox unavailable"));
+				}
+			}
+
+			if (!failed.isEmpty()) {
+				throw new MailSendException(failed);
+			}
+
+			return null;
+		}).when(mailSender).send(any(MimeMessage[].class));
+
+		queue(message("m1", "first@dot.liberty"));
+		queue(message("m2", "rejected@dot.liberty"));
+		queue(message("m3", "third@dot.liberty"));
+
+		worker.start();
+
+		awaitCompletion("m1", "m3");
+
+		assertThat(sendCalls).hasValue(1);
+		assertThat(status("m1")).isEqualTo(DeliveryStatus.SENT);
+		assertThat(status("m3")).isEqualTo(DeliveryStatus.SENT);
+
+		verify(retryScheduler, timeout(5000)).onFailure(argThat(message -> message.id().equals("m2")), any(MessagingException.class));
+		verify(retryScheduler, never()).onFailure(argThat(message -> !message.id().equals("m2")), any());
+		verify(journal).appendCompleted("m1");
+		verify(journal).appendCompleted("m3");
+		verify(journal, never()).appendCompleted("m2");
+	}
+
+	private void queue(EmailMessage message) {
+		store.put(EmailDelivery.queued(message));
+		queue.offer(message);
+	}
+
+	private void awaitCompletion(String... ids) throws InterruptedException {
+		long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+
+		for (String id : ids) {
+			while (store.find(id).orElseThrow().completedAt() == null && System.nanoTime() < deadline) {
+				Thread.sleep(10);
+			}
+		}
+	}
+
+	private DeliveryStatus status(String id) {
+		return store.find(id).orElseThrow().status();
+	}
+
+	private static String recipient(MimeMessage message) throws MessagingException {
+		return message.getRecipients(Message.RecipientType.TO)[0].toString();
+	}
+
+	private static EmailMessage message(String id, String to) {
+		return EmailMessage.accepted(id, to, "Subject", "Body", null, Priority.TRANSACTIONAL);
+	}
+
+}
@@ -0,0 +1,79 @@
+package dot.liberty.notification.service;
+
+import dot.liberty.notification.dto.request.SendEmailRequest;
+import dot.liberty.notification.exception.EmailQueueFullException;
+import dot.liberty.notification.idempotency.IdempotencyWindow;
+import dot.liberty.notification.journal.EmailJournal;
+import dot.liberty.notification.queue.EmailDeliveryStore;
+import dot.liberty.notification.queue.EmailQueue;
+import dot.liberty.notification.template.EmailTemplateRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class EmailServiceTests {
+
+	private final EmailQueue queue = mock(EmailQueue.class);
+	private final EmailJournal journal = mock(EmailJournal.class);
+
+	private final EmailService emailService = new EmailService(
+			queue,
+			new EmailDeliveryStore(Duration.ofHours(1), 100),
+			journal,
+			mock(EmailTemplateRegistry.class),
+			new IdempotencyWindow(journal, new SimpleMeterRegistry(), Duration.ofMinutes(10), true, 1000));
+
+	private final SendEmailRequest request = SendEmailRequest.builder()
+			.to("user@dot.liberty")
+			.subject("Subject")
+			.body("Body")
+			.idempotencyKey("order-42-confirmation")
+			.build();
+
+	@Test
+	void journalsTheIdempotencyKeyOnceTheEmailIsQueued() {
+		QueuedEmail queued = emailService.queueEmail(request);
+
+		InOrder order = inOrder(journal, queue);
+		order.verify(journal).appendAccepted(any());
+		order.verify(queue).offer(any());
+		order.verify(journal).appendIdempotencyKey(argThat(email -> email.messageId().equals(queued.messageId())));
+
+		assertThat(emailService.queueEmail(request).duplicate()).isTrue();
+	}
+
+	@Test
+	void emailTurnedAwayByAFullQueueLeavesNoKeyBehind() {
+		doThrow(new EmailQueueFullException(Duration.ofSeconds(1)))
+				.doNothing()
+				.when(queue).offer(any());
+
+		assertThatThrownBy(() -> emailService.queueEmail(request)).isInstanceOf(EmailQueueFullException.class);
+
+		verify(journal, never()).appendIdempotencyKey(any());
+
+		QueuedEmail retried = emailService.queueEmail(request);
+
+		assertThat(retried.duplicate()).isFalse();
+		verify(journal).appendIdempotencyKey(argThat(email -> email.messageId().equals(retried.messageId())));
+	}
+
+	@Test
+	void failureToJournalTheKeyDoesNotFailTheQueuedEmail() {
+		doThrow(new IllegalStateException("journal full")).when(journal).appendIdempotencyKey(any());
+
+		QueuedEmail queued = emailService.queueEmail(request);
+
+		assertThat(queued.duplicate()).isFalse();
+		verify(queue).offer(argThat(message -> message.id().equals(queued.messageId())));
+	}
+
+}
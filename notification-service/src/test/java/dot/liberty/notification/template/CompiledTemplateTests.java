@@ -0,0 +1,59 @@
+package dot.liberty.notification.template;
+
+import dot.liberty.notification.exception.InvalidTemplateException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompiledTemplateTests {
+
+	private final CompiledTemplate template = CompiledTemplate.compile("greeting", new EmailTemplateDefinition(
+			1,
+			"Hello {{ name }}",
+			"Hi {{name}}, your code is {{code}}.",
+			"<p>Hi {{name}}, your code is <b>{{code}}</b>.</p>"));
+
+	@Test
+	void rendersEveryPartAndEscapesValuesOnlyInHtml() {
+		RenderedEmail rendered = template.render(Map.of("name", "Tom & Jerry", "code", "123456"));
+
+		assertThat(rendered.subject()).isEqualTo("Hello Tom & Jerry");
+		assertThat(rendered.text()).isEqualTo("Hi Tom & Jerry, your code is 123456.");
+		assertThat(rendered.html()).isEqualTo("<p>Hi Tom &amp; Jerry, your code is <b>123456</b>.</p>");
+	}
+
+	@Test
+	void collectsParametersFromAllParts() {
+		assertThat(template.parameters()).containsExactlyInAnyOrder("name", "code");
+	}
+
+	@Test
+	void rejectsMissingParameters() {
+		assertThatThrownBy(() -> template.render(Map.of("name", "Tom")))
+				.isInstanceOf(InvalidTemplateException.class)
+				.hasMessageContaining("[code]");
+	}
+
+	@Test
+	void keepsTextWithoutPlaceholdersAsIs() {
+		CompiledTemplate plain = CompiledTemplate.compile("plain",
+				new EmailTemplateDefinition(1, "Subject", "Just {text}", null));
+
+		RenderedEmail rendered = plain.render(null);
+
+		assertThat(rendered.text()).isEqualTo("Just {text}");
+		assertThat(rendered.html()).isNull();
+	}
+
+	@Test
+	void rejectsUnclosedPlaceholders() {
+		assertThatThrownBy(() -> CompiledTemplate.compile("broken",
+				new EmailTemplateDefinition(1, "Subject", "Hi {{name", null)))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("Unclosed placeholder");
+	}
+
+}
@@ -0,0 +1,39 @@
+package dot.liberty.order.controller;
+
+import dot.liberty.order.dispatch.CourierPool;
+import dot.liberty.order.dto.request.CourierAvailabilityRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Where couriers report that they are free to take an order, and from
+ * where; the next dispatch window considers them. A courier reports
+ * again after moving, and again after delivering.
+ */
+@RestController
+@RequestMapping("api/couriers/{courierId}/availability")
+@RequiredArgsConstructor
+public class CourierAvailabilityController {
+
+    private final CourierPool courierPool;
+
+    @PutMapping
+    public ResponseEntity<Void> available(
+            @PathVariable long courierId,
+            @Valid @RequestBody CourierAvailabilityRequest request) {
+
+        courierPool.available(courierId, request.getLatitude(), request.getLongitude());
+
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> unavailable(@PathVariable long courierId) {
+        courierPool.unavailable(courierId);
+
+        return ResponseEntity.noContent().build();
+    }
+
+}
@@ -0,0 +1,50 @@
+package dot.liberty.order.dispatch;
+
+import java.util.Arrays;
+
+/**
+ * Couriers and orders of one dispatch window, with a cost for each
+ * courier-order pair that may be assigned. Pairs without an edge are
+ * too far apart to be assigned at all.
+ */
+public final class AssignmentProblem {
+
+    private final int couriers;
+    private final int orders;
+
+    int[] edgeCourier = new int[64];
+    int[] edgeOrder = new int[64];
+    double[] edgeCost = new double[64];
+    int edges;
+
+    public AssignmentProblem(int couriers, int orders) {
+        this.couriers = couriers;
+        this.orders = orders;
+    }
+
+    public void addEdge(int courier, int order, double cost) {
+        if (edges == edgeCourier.length) {
+            edgeCourier = Arrays.copyOf(edgeCourier, edges * 2);
+            edgeOrder = Arrays.copyOf(edgeOrder, edges * 2);
+            edgeCost = Arrays.copyOf(edgeCost, edges * 2);
+        }
+
+        edgeCourier[edges] = courier;
+        edgeOrder[edges] = order;
+        edgeCost[edges] = cost;
+        edges++;
+    }
+
+    public int couriers() {
+        return couriers;
+    }
+
+    public int orders() {
+        return orders;
+    }
+
+    public int edges() {
+        return edges;
+    }
+
+}
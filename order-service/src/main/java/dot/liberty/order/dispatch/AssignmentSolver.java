@@ -0,0 +1,286 @@
+package dot.liberty.order.dispatch;
+
+import java.util.Arrays;
+
+/**
+ * Assigns couriers to orders at minimum total cost.
+ * <p>
+ * Windows with at most {@code hungarianLimit} couriers and orders are
+ * solved exactly with the Hungarian algorithm, which first maximizes
+ * the number of assigned pairs. Larger windows, where its cubic time
+ * would not fit into the window, take the cheapest pairs greedily and
+ * then improve the result with passes of moves to cheaper free orders
+ * and pairwise swaps.
+ */
+public final class AssignmentSolver {
+
+    private static final double UNASSIGNABLE = 1e12;
+    private static final double EPSILON = 1e-9;
+
+    private final int hungarianLimit;
+    private final int improvementPasses;
+
+    public AssignmentSolver(int hungarianLimit, int improvementPasses) {
+        this.hungarianLimit = hungarianLimit;
+        this.improvementPasses = improvementPasses;
+    }
+
+    /**
+     * @return for each courier the assigned order, or -1
+     */
+    public int[] solve(AssignmentProblem problem) {
+        if (Math.max(problem.couriers(), problem.orders()) <= hungarianLimit) {
+            return hungarian(problem);
+        }
+
+        return greedy(problem, improvementPasses);
+    }
+
+    static int[] hungarian(AssignmentProblem problem) {
+        boolean transposed = problem.couriers() > problem.orders();
+        int rows = transposed ? problem.orders() : problem.couriers();
+        int columns = transposed ? problem.couriers() : problem.orders();
+
+        int[] orderOf = new int[problem.couriers()];
+        Arrays.fill(orderOf, -1);
+
+        if (rows == 0) {
+            return orderOf;
+        }
+
+        double[][] cost = new double[rows + 1][columns + 1];
+
+        for (double[] row : cost) {
+            Arrays.fill(row, UNASSIGNABLE);
+        }
+
+        for (int e = 0; e < problem.edges; e++) {
+            int courier = problem.edgeCourier[e] + 1;
+            int order = problem.edgeOrder[e] + 1;
+
+            if (transposed) {
+                cost[order][courier] = Math.min(cost[order][courier], problem.edgeCost[e]);
+            } else {
+                cost[courier][order] = Math.min(cost[courier][order], problem.edgeCost[e]);
+            }
+        }
+
+        int[] rowOfColumn = hungarian(cost, rows, columns);
+
+        for (int column = 1; column <= columns; column++) {
+            int row = rowOfColumn[column];
+
+            if (row == 0 || cost[row][column] >= UNASSIGNABLE) {
+                continue;
+            }
+
+            if (transposed) {
+                orderOf[column - 1] = row - 1;
+            } else {
+                orderOf[row - 1] = column - 1;
+            }
+        }
+
+        return orderOf;
+    }
+
+    /**
+     * Shortest augmenting paths with row and column potentials, for
+     * {@code rows <= columns}; indexes start at 1.
+     *
+     * @return the row assigned to each column, 0 for none
+     */
+    private static int[] hungarian(double[][] cost, int rows, int columns) {
+        double[] rowPotential = new double[rows + 1];
+        double[] columnPotential = new double[columns + 1];
+        int[] rowOfColumn = new int[columns + 1];
+        int[] previousColumn = new int[columns + 1];
+
+        double[] minSlack = new double[columns + 1];
+        boolean[] visited = new boolean[columns + 1];
+
+        for (int row = 1; row <= rows; row++) {
+            rowOfColumn[0] = row;
+            int column = 0;
+
+            Arrays.fill(minSlack, Double.POSITIVE_INFINITY);
+            Arrays.fill(visited, false);
+
+            do {
+                visited[column] = true;
+
+                int currentRow = rowOfColumn[column];
+                double delta = Double.POSITIVE_INFINITY;
+                int nextColumn = 0;
+
+                for (int j = 1; j <= columns; j++) {
+                    if (visited[j]) {
+                        continue;
+                    }
+
+                    double slack = cost[currentRow][j] - rowPotential[currentRow] - columnPotential[j];
+
+                    if (slack < minSlack[j]) {
+                        minSlack[j] = slack;
+                        previousColumn[j] = column;
+                    }
+
+                    if (minSlack[j] < delta) {
+                        delta = minSlack[j];
+                        nextColumn = j;
+                    }
+                }
+
+                for (int j = 0; j <= columns; j++) {
+                    if (visited[j]) {
+                        rowPotential[rowOfColumn[j]] += delta;
+                        columnPotential[j] -= delta;
+                    } else {
+                        minSlack[j] -= delta;
+                    }
+                }
+
+                column = nextColumn;
+            } while (rowOfColumn[column] != 0);
+
+            do {
+                int previous = previousColumn[column];
+                rowOfColumn[column] = rowOfColumn[previous];
+                column = previous;
+            } while (column != 0);
+        }
+
+        return rowOfColumn;
+    }
+
+    static int[] greedy(AssignmentProblem problem, int improvementPasses) {
+        int[] orderOf = new int[problem.couriers()];
+        int[] courierOf = new int[problem.orders()];
+        double[] assignedCost = new double[problem.couriers()];
+
+        Arrays.fill(orderOf, -1);
+        Arrays.fill(courierOf, -1);
+
+        Integer[] byCost = new Integer[problem.edges];
+
+        for (int e = 0; e < problem.edges; e++) {
+            byCost[e] = e;
+        }
+
+        Arrays.sort(byCost, (a, b) -> Double.compare(problem.edgeCost[a], problem.edgeCost[b]));
+
+        for (int e : byCost) {
+            int courier = problem.edgeCourier[e];
+            int order = problem.edgeOrder[e];
+
+            if (orderOf[courier] < 0 && courierOf[order] < 0) {
+                orderOf[courier] = order;
+                courierOf[order] = courier;
+                assignedCost[courier] = problem.edgeCost[e];
+            }
+        }
+
+        improve(problem, orderOf, courierOf, assignedCost, improvementPasses);
+
+        return orderOf;
+    }
+
+    /**
+     * Moves couriers to cheaper free orders and swaps the orders of two
+     * couriers when that lowers their combined cost, until a pass finds
+     * nothing to improve.
+     */
+    private static void improve(
+            AssignmentProblem problem,
+            int[] orderOf,
+            int[] courierOf,
+            double[] assignedCost,
+            int passes) {
+
+        int[] start = new int[problem.couriers() + 1];
+
+        for (int e = 0; e < problem.edges; e++) {
+            start[problem.edgeCourier[e] + 1]++;
+        }
+
+        for (int c = 0; c < problem.couriers(); c++) {
+            start[c + 1] += start[c];
+        }
+
+        int[] adjacentOrder = new int[problem.edges];
+        double[] adjacentCost = new double[problem.edges];
+        int[] next = Arrays.copyOf(start, problem.couriers());
+
+        for (int e = 0; e < problem.edges; e++) {
+            int slot = next[problem.edgeCourier[e]]++;
+            adjacentOrder[slot] = problem.edgeOrder[e];
+            adjacentCost[slot] = problem.edgeCost[e];
+        }
+
+        for (int pass = 0; pass < passes; pass++) {
+            boolean improved = false;
+
+            for (int a = 0; a < problem.couriers(); a++) {
+                for (int slot = start[a]; slot < start[a + 1]; slot++) {
+                    int x = orderOf[a];
+                    int y = adjacentOrder[slot];
+                    double costAY = adjacentCost[slot];
+
+                    if (y == x) {
+                        continue;
+                    }
+
+                    int b = courierOf[y];
+
+                    if (b < 0) {
+                        if (x < 0 || costAY < assignedCost[a] - EPSILON) {
+                            if (x >= 0) {
+                                courierOf[x] = -1;
+                            }
+
+                            orderOf[a] = y;
+                            courierOf[y] = a;
+                            assignedCost[a] = costAY;
+                            improved = true;
+                        }
+
+                        continue;
+                    }
+
+                    if (x < 0) {
+                        continue;
+                    }
+
+                    double costBX = cost(start, adjacentOrder, adjacentCost, b, x);
+
+                    if (costAY + costBX < assignedCost[a] + assignedCost[b] - EPSILON) {
+                        orderOf[a] = y;
+                        courierOf[y] = a;
+                        assignedCost[a] = costAY;
+
+                        orderOf[b] = x;
+                        courierOf[x] = b;
+                        assignedCost[b] = costBX;
+
+                        improved = true;
+                    }
+                }
+            }
+
+            if (!improved) {
+                return;
+            }
+        }
+    }
+
+    private static double cost(int[] start, int[] adjacentOrder, double[] adjacentCost, int courier, int order) {
+        for (int slot = start[courier]; slot < start[courier + 1]; slot++) {
+            if (adjacentOrder[slot] == order) {
+                return adjacentCost[slot];
+            }
+        }
+
+        return Double.POSITIVE_INFINITY;
+    }
+
+}
@@ -0,0 +1,11 @@
+package dot.liberty.order.dispatch;
+
+/**
+ * A courier waiting for an order, at the location last reported.
+ */
+public record AvailableCourier(
+        long courierId,
+        double latitude,
+        double longitude
+) {
+}
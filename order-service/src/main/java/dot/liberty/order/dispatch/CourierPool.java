@@ -0,0 +1,40 @@
+package dot.liberty.order.dispatch;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Couriers reported available to this instance, see
+ * {@link dot.liberty.order.controller.CourierAvailabilityController}.
+ * A courier leaves the pool when dispatched, and comes back by
+ * reporting again once free.
+ */
+@Component
+public class CourierPool {
+
+    private final Map<Long, AvailableCourier> couriers = new ConcurrentHashMap<>();
+
+    /**
+     * Adds the courier, or moves one already waiting.
+     */
+    public void available(long courierId, double latitude, double longitude) {
+        couriers.put(courierId, new AvailableCourier(courierId, latitude, longitude));
+    }
+
+    public void unavailable(long courierId) {
+        couriers.remove(courierId);
+    }
+
+    public List<AvailableCourier> snapshot() {
+        return new ArrayList<>(couriers.values());
+    }
+
+    public int size() {
+        return couriers.size();
+    }
+
+}
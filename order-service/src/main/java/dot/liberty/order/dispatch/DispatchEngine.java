@@ -0,0 +1,123 @@
+package dot.liberty.order.dispatch;
+
+import dot.liberty.order.geo.OpenOrderIndex;
+import dot.liberty.order.repository.OrderAssignmentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Assigns available couriers to open orders in batches, once per
+ * dispatch window.
+ * <p>
+ * Orders and couriers that arrive during a window wait for its end and
+ * are then assigned together, which gives shorter pickups than letting
+ * each courier claim the nearest order the moment it shows up. Orders
+ * left without a courier stay open for the next window.
+ * <p>
+ * The pool only holds couriers that reported to this instance. Orders
+ * are assigned only while still open, so instances dispatching the
+ * same order can't both win it.
+ * <p>
+ * Can be turned off with {@code orders.dispatch.enabled}, which leaves
+ * reported couriers waiting in the pool.
+ */
+@Component
+@ConditionalOnProperty(name = "orders.dispatch.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class DispatchEngine {
+
+    private final CourierPool courierPool;
+    private final OpenOrderIndex openOrderIndex;
+    private final OrderAssignmentRepository orderAssignmentRepository;
+    private final DispatchPlanner planner;
+
+    private final Timer windowTimer;
+    private final Counter assignedCounter;
+    private final Counter conflictCounter;
+    private final DistributionSummary pickupDistance;
+
+    public DispatchEngine(
+            CourierPool courierPool,
+            OpenOrderIndex openOrderIndex,
+            OrderAssignmentRepository orderAssignmentRepository,
+            MeterRegistry meterRegistry,
+            @Value("${orders.dispatch.candidates-per-courier:8}") int candidatesPerCourier,
+            @Value("${orders.dispatch.max-pickup-distance-meters:5000}") double maxPickupDistanceMeters,
+            @Value("${orders.dispatch.hungarian-limit:300}") int hungarianLimit,
+            @Value("${orders.dispatch.improvement-passes:10}") int improvementPasses) {
+
+        this.courierPool = courierPool;
+        this.openOrderIndex = openOrderIndex;
+        this.orderAssignmentRepository = orderAssignmentRepository;
+        this.planner = new DispatchPlanner(
+                new AssignmentSolver(hungarianLimit, improvementPasses),
+                candidatesPerCourier,
+                maxPickupDistanceMeters);
+
+        this.windowTimer = Timer.builder("orders.dispatch.window")
+                .description("Time to plan and write the assignments of a dispatch window")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+
+        this.assignedCounter = Counter.builder("orders.dispatch.assigned")
+                .description("Orders assigned to a courier")
+                .register(meterRegistry);
+
+        this.conflictCounter = Counter.builder("orders.dispatch.conflicts")
+                .description("Planned assignments dropped because the order was no longer open")
+                .register(meterRegistry);
+
+        this.pickupDistance = DistributionSummary.builder("orders.dispatch.pickup.distance")
+                .description("Distance from the courier to the pickup of the assigned order")
+                .baseUnit("meters")
+                .publishPercentiles(0.5, 0.95)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(
+            initialDelayString = "${orders.dispatch.window:2s}",
+            fixedDelayString = "${orders.dispatch.window:2s}")
+    public void dispatch() {
+        List<AvailableCourier> couriers = courierPool.snapshot();
+
+        if (couriers.isEmpty() || openOrderIndex.size() == 0) {
+            return;
+        }
+
+        windowTimer.record(() -> dispatch(couriers));
+    }
+
+    private void dispatch(List<AvailableCourier> couriers) {
+        List<OrderAssignment> planned = planner.plan(couriers, openOrderIndex);
+
+        if (planned.isEmpty()) {
+            return;
+        }
+
+        List<OrderAssignment> assigned = orderAssignmentRepository.assign(planned);
+
+        // orders that lost their courier to a conflict are no longer open either
+        planned.forEach(assignment -> openOrderIndex.remove(assignment.orderId()));
+
+        for (OrderAssignment assignment : assigned) {
+            courierPool.unavailable(assignment.courierId());
+            pickupDistance.record(assignment.pickupDistanceMeters());
+        }
+
+        assignedCounter.increment(assigned.size());
+        conflictCounter.increment(planned.size() - assigned.size());
+
+        log.debug("Dispatched {} of {} available couriers, {} conflicts",
+                assigned.size(), couriers.size(), planned.size() - assigned.size());
+    }
+
+}
@@ -0,0 +1,89 @@
+package dot.liberty.order.dispatch;
+
+import dot.liberty.order.geo.NearbyOrder;
+import dot.liberty.order.geo.OpenOrderIndex;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plans one dispatch window: looks up the nearest open orders of each
+ * available courier and solves the assignment over those candidates,
+ * with the pickup distance as cost.
+ * <p>
+ * Limiting each courier to a few candidates keeps the problem sparse.
+ * Orders beyond {@code maxPickupDistanceMeters} are never offered.
+ */
+public class DispatchPlanner {
+
+    private final AssignmentSolver solver;
+    private final int candidatesPerCourier;
+    private final double maxPickupDistanceMeters;
+
+    public DispatchPlanner(AssignmentSolver solver, int candidatesPerCourier, double maxPickupDistanceMeters) {
+        this.solver = solver;
+        this.candidatesPerCourier = candidatesPerCourier;
+        this.maxPickupDistanceMeters = maxPickupDistanceMeters;
+    }
+
+    public List<OrderAssignment> plan(List<AvailableCourier> couriers, OpenOrderIndex openOrders) {
+        Map<Long, Integer> orderIndexes = new HashMap<>();
+        List<NearbyOrder> orders = new ArrayList<>();
+
+        List<List<NearbyOrder>> candidates = new ArrayList<>(couriers.size());
+
+        for (AvailableCourier courier : couriers) {
+            List<NearbyOrder> nearest = openOrders.nearest(
+                    courier.latitude(), courier.longitude(), candidatesPerCourier, maxPickupDistanceMeters);
+            candidates.add(nearest);
+
+            for (NearbyOrder order : nearest) {
+                if (orderIndexes.putIfAbsent(order.orderId(), orders.size()) == null) {
+                    orders.add(order);
+                }
+            }
+        }
+
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+
+        AssignmentProblem problem = new AssignmentProblem(couriers.size(), orders.size());
+
+        for (int courier = 0; courier < couriers.size(); courier++) {
+            for (NearbyOrder order : candidates.get(courier)) {
+                problem.addEdge(courier, orderIndexes.get(order.orderId()), order.distanceMeters());
+            }
+        }
+
+        int[] orderOf = solver.solve(problem);
+
+        List<OrderAssignment> assignments = new ArrayList<>();
+
+        for (int courier = 0; courier < orderOf.length; courier++) {
+            if (orderOf[courier] < 0) {
+                continue;
+            }
+
+            NearbyOrder order = orders.get(orderOf[courier]);
+            double distance = distance(candidates.get(courier), order.orderId());
+
+            assignments.add(new OrderAssignment(order.orderId(), couriers.get(courier).courierId(), distance));
+        }
+
+        return assignments;
+    }
+
+    private static double distance(List<NearbyOrder> candidates, long orderId) {
+        for (NearbyOrder candidate : candidates) {
+            if (candidate.orderId() == orderId) {
+                return candidate.distanceMeters();
+            }
+        }
+
+        throw new IllegalStateException("Order " + orderId + " was not a candidate of its courier");
+    }
+
+}
@@ -0,0 +1,12 @@
+package dot.liberty.order.dispatch;
+
+/**
+ * An order given to a courier, with the distance the courier travels
+ * to its pickup.
+ */
+public record OrderAssignment(
+        long orderId,
+        long courierId,
+        double pickupDistanceMeters
+) {
+}
@@ -0,0 +1,26 @@
+package dot.liberty.order.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import dot.liberty.order.repository.OrderSummary;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OrderSummaryPage {
+
+    private List<OrderSummary> items;
+
+    /**
+     * Passed back to get the next page; absent on the last page.
+     */
+    private String nextCursor;
+
+}
@@ -1,5 +1,6 @@
 package dot.liberty.order.entity;
 
+import dot.liberty.order.geo.OpenOrderIndexListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -11,7 +12,14 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "orders")
+@EntityListeners(OpenOrderIndexListener.class)
+@Table(
+        name = "orders",
+        indexes = {
+                @Index(name = "idx_orders_customer_created_at_id", columnList = "customer_id, created_at, id"),
+                @Index(name = "idx_orders_courier_created_at_id", columnList = "courier_id, created_at, id"),
+                @Index(name = "idx_orders_status_created_at_id", columnList = "status, created_at, id")
+        })
 @Data
 @Builder
 @NoArgsConstructor
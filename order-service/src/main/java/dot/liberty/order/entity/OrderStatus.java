@@ -1,5 +1,14 @@
 package dot.liberty.order.entity;
 
 public enum OrderStatus {
-    CREATED
+    CREATED,
+    ASSIGNED;
+
+    /**
+     * Waiting for a courier, and so listed in the open order index.
+     */
+    public boolean isOpen() {
+        return this == CREATED;
+    }
+
 }
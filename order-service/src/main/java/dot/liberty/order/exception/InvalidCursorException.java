@@ -0,0 +1,13 @@
+package dot.liberty.order.exception;
+
+public class InvalidCursorException extends RuntimeException {
+
+    private InvalidCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public static InvalidCursorException byMalformedCursor(String cursor, Throwable cause) {
+        return new InvalidCursorException("Malformed page cursor: " + cursor, cause);
+    }
+
+}
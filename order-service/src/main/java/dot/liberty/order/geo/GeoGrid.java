@@ -0,0 +1,404 @@
+package dot.liberty.order.geo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Points bucketed into cells of {@code cellSize} degrees of latitude and
+ * longitude. Each cell keeps its ids and coordinates in primitive arrays,
+ * so a query touches a few small arrays instead of scanning every point.
+ * <p>
+ * Distances are great-circle distances on a spherical Earth. Cells don't
+ * wrap around the antimeridian. Not thread-safe.
+ */
+final class GeoGrid {
+
+    static final double EARTH_RADIUS_METERS = 6_371_008.8;
+
+    private final double cellSize;
+
+    private final Map<Long, Cell> cells = new HashMap<>();
+    private final Map<Long, Cell> cellById = new HashMap<>();
+
+    /**
+     * Non-empty cells per row and per column, so the bounds below shrink
+     * again when the outermost cells empty.
+     */
+    private final TreeMap<Integer, Integer> cellsByLatIndex = new TreeMap<>();
+    private final TreeMap<Integer, Integer> cellsByLonIndex = new TreeMap<>();
+
+    private int minLatIndex = Integer.MAX_VALUE;
+    private int maxLatIndex = Integer.MIN_VALUE;
+    private int minLonIndex = Integer.MAX_VALUE;
+    private int maxLonIndex = Integer.MIN_VALUE;
+
+    GeoGrid(double cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    void put(long id, double latitude, double longitude) {
+        int latIndex = latIndex(latitude);
+        int lonIndex = lonIndex(longitude);
+        long key = key(latIndex, lonIndex);
+
+        Cell current = cellById.get(id);
+
+        if (current != null) {
+            if (current.key == key) {
+                current.move(id, latitude, longitude);
+                return;
+            }
+
+            remove(id);
+        }
+
+        Cell cell = cells.get(key);
+
+        if (cell == null) {
+            cell = new Cell(key);
+            cells.put(key, cell);
+
+            cellsByLatIndex.merge(latIndex, 1, Integer::sum);
+            cellsByLonIndex.merge(lonIndex, 1, Integer::sum);
+            updateBounds();
+        }
+
+        cell.add(id, latitude, longitude);
+        cellById.put(id, cell);
+    }
+
+    void remove(long id) {
+        Cell cell = cellById.remove(id);
+
+        if (cell != null) {
+            cell.remove(id);
+
+            if (cell.size == 0) {
+                cells.remove(cell.key);
+
+                decrement(cellsByLatIndex, latIndexOf(cell.key));
+                decrement(cellsByLonIndex, lonIndexOf(cell.key));
+                updateBounds();
+            }
+        }
+    }
+
+    int size() {
+        return cellById.size();
+    }
+
+    /**
+     * @return points within {@code radiusMeters}, nearest first
+     */
+    List<NearbyOrder> withinRadius(double latitude, double longitude, double radiusMeters) {
+        if (cells.isEmpty()) {
+            return List.of();
+        }
+
+        double latSpan = Math.toDegrees(radiusMeters / EARTH_RADIUS_METERS);
+        double lonSpan = lonSpan(Math.abs(latitude) + latSpan, radiusMeters);
+
+        int fromLat = Math.max(minLatIndex, latIndex(latitude - latSpan));
+        int toLat = Math.min(maxLatIndex, latIndex(latitude + latSpan));
+        int fromLon = Math.max(minLonIndex, lonSpan < 0 ? minLonIndex : lonIndex(longitude - lonSpan));
+        int toLon = Math.min(maxLonIndex, lonSpan < 0 ? maxLonIndex : lonIndex(longitude + lonSpan));
+
+        List<NearbyOrder> found = new ArrayList<>();
+
+        for (int latIndex = fromLat; latIndex <= toLat; latIndex++) {
+            for (int lonIndex = fromLon; lonIndex <= toLon; lonIndex++) {
+                Cell cell = cells.get(key(latIndex, lonIndex));
+
+                if (cell == null) {
+                    continue;
+                }
+
+                for (int i = 0; i < cell.size; i++) {
+                    double distance = distance(latitude, longitude, cell.latitudes[i], cell.longitudes[i]);
+
+                    if (distance <= radiusMeters) {
+                        found.add(new NearbyOrder(cell.ids[i], cell.latitudes[i], cell.longitudes[i], distance));
+                    }
+                }
+            }
+        }
+
+        found.sort(Comparator.comparingDouble(NearbyOrder::distanceMeters));
+
+        return found;
+    }
+
+    /**
+     * Searches rings of cells around the point's cell, outwards, until
+     * no point beyond the searched rings can be nearer than the k-th
+     * nearest found.
+     *
+     * @return up to {@code k} points, nearest first
+     */
+    List<NearbyOrder> nearest(double latitude, double longitude, int k) {
+        return nearest(latitude, longitude, k, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Like {@link #nearest(double, double, int)}, but stops searching at
+     * {@code maxDistanceMeters}, which keeps a query cheap when there are
+     * fewer than {@code k} points around.
+     */
+    List<NearbyOrder> nearest(double latitude, double longitude, int k, double maxDistanceMeters) {
+        if (cells.isEmpty() || k <= 0) {
+            return List.of();
+        }
+
+        PriorityQueue<NearbyOrder> nearest = new PriorityQueue<>(
+                k, Comparator.comparingDouble(NearbyOrder::distanceMeters).reversed());
+
+        int centerLat = latIndex(latitude);
+        int centerLon = lonIndex(longitude);
+
+        // rings that don't reach the bounding box hold no points, so a
+        // query far from every point starts at the first ring that does
+        int firstRing = Math.max(0, Math.max(
+                Math.max(minLatIndex - centerLat, centerLat - maxLatIndex),
+                Math.max(minLonIndex - centerLon, centerLon - maxLonIndex)));
+        int lastRing = Math.max(
+                Math.max(centerLat - minLatIndex, maxLatIndex - centerLat),
+                Math.max(centerLon - minLonIndex, maxLonIndex - centerLon));
+
+        if (firstRing > 0 && minDistanceBeyond(latitude, firstRing - 1) > maxDistanceMeters) {
+            return List.of();
+        }
+
+        for (int ring = firstRing; ring <= lastRing; ring++) {
+            collectRing(ring, centerLat, centerLon, latitude, longitude, k, maxDistanceMeters, nearest);
+
+            double minDistanceBeyond = minDistanceBeyond(latitude, ring);
+
+            if (minDistanceBeyond > maxDistanceMeters
+                    || nearest.size() == k && nearest.peek().distanceMeters() <= minDistanceBeyond) {
+                break;
+            }
+        }
+
+        NearbyOrder[] sorted = nearest.toArray(NearbyOrder[]::new);
+        Arrays.sort(sorted, Comparator.comparingDouble(NearbyOrder::distanceMeters));
+
+        return List.of(sorted);
+    }
+
+    /**
+     * Collects the cells of one ring that lie within the bounding box:
+     * the clamped top and bottom rows, and the two side columns between
+     * them.
+     */
+    private void collectRing(
+            int ring,
+            int centerLat,
+            int centerLon,
+            double latitude,
+            double longitude,
+            int k,
+            double maxDistanceMeters,
+            PriorityQueue<NearbyOrder> nearest) {
+
+        int fromLat = Math.max(centerLat - ring, minLatIndex);
+        int toLat = Math.min(centerLat + ring, maxLatIndex);
+        int fromLon = Math.max(centerLon - ring, minLonIndex);
+        int toLon = Math.min(centerLon + ring, maxLonIndex);
+
+        for (int latIndex = fromLat; latIndex <= toLat; latIndex++) {
+            boolean edgeRow = latIndex == centerLat - ring || latIndex == centerLat + ring;
+
+            if (edgeRow) {
+                for (int lonIndex = fromLon; lonIndex <= toLon; lonIndex++) {
+                    collect(cells.get(key(latIndex, lonIndex)),
+                            latitude, longitude, k, maxDistanceMeters, nearest);
+                }
+            } else {
+                if (centerLon - ring >= minLonIndex) {
+                    collect(cells.get(key(latIndex, centerLon - ring)),
+                            latitude, longitude, k, maxDistanceMeters, nearest);
+                }
+
+                if (centerLon + ring <= maxLonIndex) {
+                    collect(cells.get(key(latIndex, centerLon + ring)),
+                            latitude, longitude, k, maxDistanceMeters, nearest);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param cell may be {@code null} for an empty cell
+     */
+    private void collect(
+            Cell cell,
+            double latitude,
+            double longitude,
+            int k,
+            double maxDistanceMeters,
+            PriorityQueue<NearbyOrder> nearest) {
+
+        if (cell == null) {
+            return;
+        }
+
+        for (int i = 0; i < cell.size; i++) {
+            double distance = distance(latitude, longitude, cell.latitudes[i], cell.longitudes[i]);
+
+            if (distance > maxDistanceMeters) {
+                continue;
+            }
+
+            if (nearest.size() < k) {
+                nearest.add(new NearbyOrder(cell.ids[i], cell.latitudes[i], cell.longitudes[i], distance));
+            } else if (distance < nearest.peek().distanceMeters()) {
+                nearest.poll();
+                nearest.add(new NearbyOrder(cell.ids[i], cell.latitudes[i], cell.longitudes[i], distance));
+            }
+        }
+    }
+
+    /**
+     * A lower bound on the distance to any point outside the first
+     * {@code ring} rings: such a point is at least {@code ring} whole
+     * cells away in latitude or in longitude.
+     */
+    private double minDistanceBeyond(double latitude, int ring) {
+        double span = Math.toRadians(ring * cellSize);
+        double byLatitude = EARTH_RADIUS_METERS * span;
+
+        double farthestLatitude = Math.toRadians(Math.min(90, Math.abs(latitude) + (ring + 1) * cellSize));
+        double byLongitude = 2 * EARTH_RADIUS_METERS
+                * Math.asin(Math.min(1, Math.cos(farthestLatitude) * Math.sin(span / 2)));
+
+        return Math.min(byLatitude, byLongitude);
+    }
+
+    /**
+     * Longitude span in degrees that covers {@code radiusMeters} up to
+     * the given latitude, or -1 if it covers every longitude.
+     */
+    private static double lonSpan(double farthestLatitude, double radiusMeters) {
+        if (farthestLatitude >= 90) {
+            return -1;
+        }
+
+        double sine = Math.sin(radiusMeters / (2 * EARTH_RADIUS_METERS)) / Math.cos(Math.toRadians(farthestLatitude));
+
+        return sine >= 1 ? -1 : Math.toDegrees(2 * Math.asin(sine));
+    }
+
+    static double distance(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double lat1 = Math.toRadians(latitude1);
+        double lat2 = Math.toRadians(latitude2);
+        double sinLat = Math.sin((lat2 - lat1) / 2);
+        double sinLon = Math.sin(Math.toRadians(longitude2 - longitude1) / 2);
+
+        double a = sinLat * sinLat + Math.cos(lat1) * Math.cos(lat2) * sinLon * sinLon;
+
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static void decrement(TreeMap<Integer, Integer> counts, int index) {
+        counts.computeIfPresent(index, (key, count) -> count == 1 ? null : count - 1);
+    }
+
+    private void updateBounds() {
+        if (cells.isEmpty()) {
+            minLatIndex = Integer.MAX_VALUE;
+            maxLatIndex = Integer.MIN_VALUE;
+            minLonIndex = Integer.MAX_VALUE;
+            maxLonIndex = Integer.MIN_VALUE;
+            return;
+        }
+
+        minLatIndex = cellsByLatIndex.firstKey();
+        maxLatIndex = cellsByLatIndex.lastKey();
+        minLonIndex = cellsByLonIndex.firstKey();
+        maxLonIndex = cellsByLonIndex.lastKey();
+    }
+
+    private int latIndex(double latitude) {
+        return (int) Math.floor((latitude + 90) / cellSize);
+    }
+
+    private int lonIndex(double longitude) {
+        return (int) Math.floor((longitude + 180) / cellSize);
+    }
+
+    private static long key(int latIndex, int lonIndex) {
+        return ((long) latIndex << 32) | (lonIndex & 0xFFFFFFFFL);
+    }
+
+    private static int latIndexOf(long key) {
+        return (int) (key >> 32);
+    }
+
+    private static int lonIndexOf(long key) {
+        return (int) key;
+    }
+
+    private static final class Cell {
+
+        private final long key;
+
+        private long[] ids = new long[4];
+        private double[] latitudes = new double[4];
+        private double[] longitudes = new double[4];
+        private int size;
+
+        private Cell(long key) {
+            this.key = key;
+        }
+
+        private void add(long id, double latitude, double longitude) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                latitudes = Arrays.copyOf(latitudes, size * 2);
+                longitudes = Arrays.copyOf(longitudes, size * 2);
+            }
+
+            ids[size] = id;
+            latitudes[size] = latitude;
+            longitudes[size] = longitude;
+            size++;
+        }
+
+        private void move(long id, double latitude, double longitude) {
+            int index = indexOf(id);
+
+            latitudes[index] = latitude;
+            longitudes[index] = longitude;
+        }
+
+        /**
+         * Moves the last point into the gap, order within a cell doesn't matter.
+         */
+        private void remove(long id) {
+            int index = indexOf(id);
+            int last = --size;
+
+            ids[index] = ids[last];
+            latitudes[index] = latitudes[last];
+            longitudes[index] = longitudes[last];
+        }
+
+        private int indexOf(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    return i;
+                }
+            }
+
+            throw new IllegalStateException("Point " + id + " is not in its cell");
+        }
+
+    }
+
+}
@@ -0,0 +1,13 @@
+package dot.liberty.order.geo;
+
+/**
+ * An open order found near a point, with the great-circle distance to
+ * its pickup location.
+ */
+public record NearbyOrder(
+        long orderId,
+        double pickupLatitude,
+        double pickupLongitude,
+        double distanceMeters
+) {
+}
@@ -0,0 +1,175 @@
+package dot.liberty.order.geo;
+
+import dot.liberty.order.entity.OrderStatus;
+import dot.liberty.order.repository.OrderLocation;
+import dot.liberty.order.repository.OrderRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Pickup locations of open orders, for finding work near a courier
+ * without querying the orders table.
+ * <p>
+ * Orders created or changed through this instance are applied when
+ * their transaction commits, see {@link OpenOrderIndexListener}.
+ * Changes made by other instances show up after the next rebuild.
+ * Changes applied while a rebuild reads the table are replayed onto
+ * the rebuilt index, so they are never lost to the older snapshot.
+ */
+@Component
+@Slf4j
+public class OpenOrderIndex {
+
+    private static final List<OrderStatus> OPEN_STATUSES = Arrays.stream(OrderStatus.values())
+            .filter(OrderStatus::isOpen)
+            .toList();
+
+    private final OrderRepository orderRepository;
+    private final double cellSize;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private GeoGrid grid;
+    private List<Consumer<GeoGrid>> changesDuringRebuild;
+
+    public OpenOrderIndex(
+            OrderRepository orderRepository,
+            MeterRegistry meterRegistry,
+            @Value("${orders.geo-index.cell-size-degrees:0.005}") double cellSize) {
+
+        this.orderRepository = orderRepository;
+        this.cellSize = cellSize;
+        this.grid = new GeoGrid(cellSize);
+
+        Gauge.builder("orders.geo-index.size", this, OpenOrderIndex::size)
+                .description("Open orders in the proximity index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return up to {@code k} open orders, nearest pickup first
+     */
+    public List<NearbyOrder> nearest(double latitude, double longitude, int k) {
+        lock.readLock().lock();
+
+        try {
+            return grid.nearest(latitude, longitude, k);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return up to {@code k} open orders with a pickup within
+     * {@code maxDistanceMeters}, nearest first
+     */
+    public List<NearbyOrder> nearest(double latitude, double longitude, int k, double maxDistanceMeters) {
+        lock.readLock().lock();
+
+        try {
+            return grid.nearest(latitude, longitude, k, maxDistanceMeters);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return open orders with a pickup within {@code radiusMeters}, nearest first
+     */
+    public List<NearbyOrder> withinRadius(double latitude, double longitude, double radiusMeters) {
+        lock.readLock().lock();
+
+        try {
+            return grid.withinRadius(latitude, longitude, radiusMeters);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+
+        try {
+            return grid.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds or moves an open order, or removes one that is no longer open.
+     */
+    public void update(long orderId, OrderStatus status, double pickupLatitude, double pickupLongitude) {
+        if (status.isOpen()) {
+            apply(grid -> grid.put(orderId, pickupLatitude, pickupLongitude));
+        } else {
+            remove(orderId);
+        }
+    }
+
+    public void remove(long orderId) {
+        apply(grid -> grid.remove(orderId));
+    }
+
+    /**
+     * Builds a fresh index from the orders table and swaps it in.
+     */
+    @Scheduled(
+            initialDelayString = "0",
+            fixedDelayString = "${orders.geo-index.rebuild-interval:5m}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        GeoGrid rebuilt = new GeoGrid(cellSize);
+
+        withWriteLock(() -> changesDuringRebuild = new ArrayList<>());
+
+        try (Stream<OrderLocation> orders = orderRepository.streamByStatusIn(OPEN_STATUSES)) {
+            orders.forEach(order -> rebuilt.put(order.getId(), order.getPickupLatitude(), order.getPickupLongitude()));
+        } catch (RuntimeException e) {
+            withWriteLock(() -> changesDuringRebuild = null);
+            throw e;
+        }
+
+        withWriteLock(() -> {
+            changesDuringRebuild.forEach(change -> change.accept(rebuilt));
+            changesDuringRebuild = null;
+            grid = rebuilt;
+        });
+
+        log.info("Open order index rebuilt with {} orders", rebuilt.size());
+    }
+
+    private void apply(Consumer<GeoGrid> change) {
+        withWriteLock(() -> {
+            change.accept(grid);
+
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        });
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+}
@@ -0,0 +1,60 @@
+package dot.liberty.order.geo;
+
+import dot.liberty.order.entity.Order;
+import dot.liberty.order.entity.OrderStatus;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps {@link OpenOrderIndex} up to date with orders written through
+ * JPA. Changes are applied after the transaction commits, so a rolled
+ * back order never shows up in the index.
+ * <p>
+ * The index is looked up lazily: it depends on the repository, which
+ * depends on the entity manager factory that creates this listener.
+ */
+@Component
+@RequiredArgsConstructor
+public class OpenOrderIndexListener {
+
+    private final ObjectProvider<OpenOrderIndex> openOrderIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Order order) {
+        long orderId = order.getId();
+        OrderStatus status = order.getStatus();
+        double latitude = order.getPickupLatitude();
+        double longitude = order.getPickupLongitude();
+
+        afterCommit(() -> openOrderIndex.ifAvailable(index -> index.update(orderId, status, latitude, longitude)));
+    }
+
+    @PostRemove
+    public void onRemove(Order order) {
+        long orderId = order.getId();
+
+        afterCommit(() -> openOrderIndex.ifAvailable(index -> index.remove(orderId)));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+}
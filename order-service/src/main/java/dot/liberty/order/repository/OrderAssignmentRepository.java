@@ -0,0 +1,100 @@
+package dot.liberty.order.repository;
+
+import dot.liberty.order.dispatch.OrderAssignment;
+import dot.liberty.order.entity.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the assignments of a dispatch window as one JDBC batch rather
+ * than loading and saving each order.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderAssignmentRepository {
+
+    private static final String ASSIGN = """
+            update orders
+            set courier_id = ?, status = ?, updated_at = ?
+            where id = ? and status = ?
+            """;
+
+    private static final String ASSIGNED_COURIERS = """
+            select id, courier_id
+            from orders
+            where status = ? and id in (%s)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Only orders still waiting for a courier are assigned, so an order
+     * changed since the window was planned keeps its state.
+     * <p>
+     * Drivers that report {@link Statement#SUCCESS_NO_INFO} instead of
+     * row counts leave it unknown which orders were open, so those are
+     * read back and kept if they now carry the planned courier.
+     *
+     * @return the assignments that were written
+     */
+    @Transactional
+    public List<OrderAssignment> assign(List<OrderAssignment> assignments) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        int[] updated = jdbcTemplate.batchUpdate(ASSIGN, assignments, assignments.size(), (statement, assignment) -> {
+            statement.setLong(1, assignment.courierId());
+            statement.setString(2, OrderStatus.ASSIGNED.name());
+            statement.setTimestamp(3, now);
+            statement.setLong(4, assignment.orderId());
+            statement.setString(5, OrderStatus.CREATED.name());
+        })[0];
+
+        List<OrderAssignment> written = new ArrayList<>(assignments.size());
+        List<OrderAssignment> unknown = new ArrayList<>();
+
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == Statement.SUCCESS_NO_INFO) {
+                unknown.add(assignments.get(i));
+            } else if (updated[i] > 0) {
+                written.add(assignments.get(i));
+            }
+        }
+
+        if (!unknown.isEmpty()) {
+            written.addAll(readBack(unknown));
+        }
+
+        return written;
+    }
+
+    private List<OrderAssignment> readBack(List<OrderAssignment> assignments) {
+        Map<Long, Long> couriers = new HashMap<>();
+        List<Object> arguments = new ArrayList<>(assignments.size() + 1);
+
+        arguments.add(OrderStatus.ASSIGNED.name());
+        assignments.forEach(assignment -> arguments.add(assignment.orderId()));
+
+        jdbcTemplate.query(
+                ASSIGNED_COURIERS.formatted(String.join(", ", Collections.nCopies(assignments.size(), "?"))),
+                row -> {
+                    couriers.put(row.getLong("id"), row.getLong("courier_id"));
+                },
+                arguments.toArray());
+
+        return assignments.stream()
+                .filter(assignment -> Long.valueOf(assignment.courierId()).equals(couriers.get(assignment.orderId())))
+                .toList();
+    }
+
+}
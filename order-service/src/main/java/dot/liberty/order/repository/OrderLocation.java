@@ -0,0 +1,14 @@
+package dot.liberty.order.repository;
+
+/**
+ * Pickup location of an order, as loaded into the proximity index.
+ */
+public interface OrderLocation {
+
+    Long getId();
+
+    Double getPickupLatitude();
+
+    Double getPickupLongitude();
+
+}
@@ -2,18 +2,38 @@ package dot.liberty.order.repository;
 
 import dot.liberty.order.entity.Order;
 import dot.liberty.order.entity.OrderStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+/**
+ * Order lists are scrolled by keyset on {@code (created_at, id)}, newest
+ * first, so every page is an index range scan of the matching
+ * {@code idx_orders_*_created_at_id} index however deep it is.
+ */
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
-    List<Order> findByCustomerIdOrderByCreatedAtDesc(Long customerId);
-    List<Order> findByCourierIdOrderByCreatedAtDesc(Long courierId);
-    List<Order> findByStatusOrderByCreatedAtDesc(OrderStatus status);
+    Window<OrderSummary> findByCustomerIdOrderByCreatedAtDescIdDesc(
+            Long customerId, ScrollPosition position, Limit limit);
+
+    Window<OrderSummary> findByCourierIdOrderByCreatedAtDescIdDesc(
+            Long courierId, ScrollPosition position, Limit limit);
+
+    Window<OrderSummary> findByStatusOrderByCreatedAtDescIdDesc(
+            OrderStatus status, ScrollPosition position, Limit limit);
 
     List<Order> findByCustomerIdAndStatus(Long customerId, OrderStatus status);
 
+    /**
+     * Must be consumed inside a transaction and closed.
+     */
+    Stream<OrderLocation> streamByStatusIn(Collection<OrderStatus> statuses);
+
 }
@@ -0,0 +1,25 @@
+package dot.liberty.order.repository;
+
+import dot.liberty.order.entity.OrderStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns order lists need, without the description and addresses.
+ * {@code createdAt} and {@code id} are also the keyset of the lists.
+ */
+public interface OrderSummary {
+
+    Long getId();
+
+    Long getCustomerId();
+
+    Long getCourierId();
+
+    OrderStatus getStatus();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+
+}
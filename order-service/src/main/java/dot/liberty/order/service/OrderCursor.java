@@ -0,0 +1,63 @@
+package dot.liberty.order.service;
+
+import dot.liberty.order.exception.InvalidCursorException;
+import dot.liberty.order.repository.OrderSummary;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Opaque page cursor holding the {@code (createdAt, id)} keyset of the
+ * last order of a page.
+ * <p>
+ * It isn't signed: it only positions a query the caller may run anyway,
+ * so an edited but well-formed cursor just moves the page. Anything else
+ * is rejected.
+ */
+final class OrderCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private OrderCursor() {
+    }
+
+    static String after(OrderSummary order) {
+        String keyset = order.getCreatedAt().toString() + SEPARATOR + order.getId();
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(keyset.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor {@code null} for the first page
+     */
+    static ScrollPosition position(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return ScrollPosition.keyset();
+        }
+
+        try {
+            String keyset = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = keyset.indexOf(SEPARATOR);
+
+            LocalDateTime createdAt = LocalDateTime.parse(keyset.substring(0, separator));
+            long id = Long.parseLong(keyset.substring(separator + 1));
+
+            if (id <= 0) {
+                throw new IllegalArgumentException("Order ids are positive: " + id);
+            }
+
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put("createdAt", createdAt);
+            keys.put("id", id);
+
+            return ScrollPosition.forward(keys);
+        } catch (RuntimeException e) {
+            throw InvalidCursorException.byMalformedCursor(cursor, e);
+        }
+    }
+
+}
@@ -0,0 +1,66 @@
+package dot.liberty.order.service;
+
+import dot.liberty.order.dto.response.OrderSummaryPage;
+import dot.liberty.order.entity.OrderStatus;
+import dot.liberty.order.repository.OrderRepository;
+import dot.liberty.order.repository.OrderSummary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.function.BiFunction;
+
+/**
+ * Order lists for customers, couriers and dispatch, newest first, one
+ * page of summaries at a time.
+ */
+@Service
+@Transactional(readOnly = true)
+public class OrderQueryService {
+
+    private final OrderRepository orderRepository;
+    private final int maxPageSize;
+
+    public OrderQueryService(
+            OrderRepository orderRepository,
+            @Value("${orders.listing.max-page-size:100}") int maxPageSize) {
+
+        this.orderRepository = orderRepository;
+        this.maxPageSize = maxPageSize;
+    }
+
+    public OrderSummaryPage findByCustomer(Long customerId, String cursor, int size) {
+        return page(cursor, size, (position, limit) ->
+                orderRepository.findByCustomerIdOrderByCreatedAtDescIdDesc(customerId, position, limit));
+    }
+
+    public OrderSummaryPage findByCourier(Long courierId, String cursor, int size) {
+        return page(cursor, size, (position, limit) ->
+                orderRepository.findByCourierIdOrderByCreatedAtDescIdDesc(courierId, position, limit));
+    }
+
+    public OrderSummaryPage findByStatus(OrderStatus status, String cursor, int size) {
+        return page(cursor, size, (position, limit) ->
+                orderRepository.findByStatusOrderByCreatedAtDescIdDesc(status, position, limit));
+    }
+
+    private OrderSummaryPage page(
+            String cursor,
+            int size,
+            BiFunction<ScrollPosition, Limit, Window<OrderSummary>> query) {
+
+        Limit limit = Limit.of(Math.clamp(size, 1, maxPageSize));
+        Window<OrderSummary> window = query.apply(OrderCursor.position(cursor), limit);
+
+        return OrderSummaryPage.builder()
+                .items(window.getContent())
+                .nextCursor(window.hasNext() && !window.isEmpty()
+                        ? OrderCursor.after(window.getContent().getLast())
+                        : null)
+                .build();
+    }
+
+}
@@ -0,0 +1,153 @@
+package dot.liberty.order.dispatch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class AssignmentSolverTests {
+
+	private final Random random = new Random(42);
+
+	@Test
+	void hungarianFindsTheCheapestOfTheLargestAssignments() {
+		for (int round = 0; round < 300; round++) {
+			double[][] cost = randomCosts(1 + random.nextInt(6), 1 + random.nextInt(6), 0.6);
+			int[] orderOf = AssignmentSolver.hungarian(problem(cost));
+
+			assertValid(cost, orderOf);
+
+			double[] best = bruteForce(cost, 0, new boolean[cost[0].length]);
+
+			assertThat(assigned(orderOf)).isEqualTo((int) best[0]);
+			assertThat(total(cost, orderOf)).isCloseTo(best[1], offset(1e-6));
+		}
+	}
+
+	@Test
+	void improvementPassesNeverLeaveTheGreedyAssignmentWorse() {
+		for (int round = 0; round < 100; round++) {
+			double[][] cost = randomCosts(30, 40, 0.3);
+			AssignmentProblem problem = problem(cost);
+
+			int[] greedy = AssignmentSolver.greedy(problem, 0);
+			int[] improved = AssignmentSolver.greedy(problem, 10);
+
+			assertValid(cost, improved);
+			assertThat(assigned(improved)).isGreaterThanOrEqualTo(assigned(greedy));
+
+			if (assigned(improved) == assigned(greedy)) {
+				assertThat(total(cost, improved)).isLessThanOrEqualTo(total(cost, greedy) + 1e-6);
+			}
+		}
+	}
+
+	@Test
+	void swapsOrdersWhenGreedyTakesTheCheapestPairFirst() {
+		// greedy gives courier 0 order 0 for 1, leaving courier 1 with order 1 for 10
+		double[][] cost = {
+				{1, 2},
+				{3, 10}
+		};
+
+		int[] orderOf = AssignmentSolver.greedy(problem(cost), 10);
+
+		assertThat(orderOf).containsExactly(1, 0);
+	}
+
+	private double[][] randomCosts(int couriers, int orders, double density) {
+		double[][] cost = new double[couriers][orders];
+
+		for (int courier = 0; courier < couriers; courier++) {
+			for (int order = 0; order < orders; order++) {
+				cost[courier][order] = random.nextDouble() < density ? random.nextInt(5000) : Double.NaN;
+			}
+		}
+
+		return cost;
+	}
+
+	private static AssignmentProblem problem(double[][] cost) {
+		AssignmentProblem problem = new AssignmentProblem(cost.length, cost[0].length);
+
+		for (int courier = 0; courier < cost.length; courier++) {
+			for (int order = 0; order < cost[courier].length; order++) {
+				if (!Double.isNaN(cost[courier][order])) {
+					problem.addEdge(courier, order, cost[courier][order]);
+				}
+			}
+		}
+
+		return problem;
+	}
+
+	/**
+	 * @return the most pairs that can be assigned and their least total cost
+	 */
+	private static double[] bruteForce(double[][] cost, int courier, boolean[] taken) {
+		if (courier == cost.length) {
+			return new double[]{0, 0};
+		}
+
+		double[] best = bruteForce(cost, courier + 1, taken);
+
+		for (int order = 0; order < taken.length; order++) {
+			if (taken[order] || Double.isNaN(cost[courier][order])) {
+				continue;
+			}
+
+			taken[order] = true;
+			double[] rest = bruteForce(cost, courier + 1, taken);
+			taken[order] = false;
+
+			double pairs = rest[0] + 1;
+			double total = rest[1] + cost[courier][order];
+
+			if (pairs > best[0] || pairs == best[0] && total < best[1]) {
+				best = new double[]{pairs, total};
+			}
+		}
+
+		return best;
+	}
+
+	private static void assertValid(double[][] cost, int[] orderOf) {
+		Set<Integer> orders = new HashSet<>();
+
+		for (int courier = 0; courier < orderOf.length; courier++) {
+			if (orderOf[courier] >= 0) {
+				assertThat(cost[courier][orderOf[courier]]).isNotNaN();
+				assertThat(orders.add(orderOf[courier])).isTrue();
+			}
+		}
+	}
+
+	private static int assigned(int[] orderOf) {
+		int assigned = 0;
+
+		for (int order : orderOf) {
+			if (order >= 0) {
+				assigned++;
+			}
+		}
+
+		return assigned;
+	}
+
+	private static double total(double[][] cost, int[] orderOf) {
+		double total = 0;
+
+		for (int courier = 0; courier < orderOf.length; courier++) {
+			if (orderOf[courier] >= 0) {
+				total += cost[courier][orderOf[courier]];
+			}
+		}
+
+		return total;
+	}
+
+}
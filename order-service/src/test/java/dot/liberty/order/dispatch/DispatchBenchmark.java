@@ -0,0 +1,314 @@
+package dot.liberty.order.dispatch;
+
+import dot.liberty.order.entity.OrderStatus;
+import dot.liberty.order.geo.NearbyOrder;
+import dot.liberty.order.geo.OpenOrderIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares first-come claiming, where a free courier takes the nearest
+ * open order at once, with batched dispatch over windows of several
+ * lengths, planned greedily and with the Hungarian method.
+ * <p>
+ * {@link #main(String[])} first replays the same synthetic city traffic
+ * through each strategy and prints pickup distances and how long orders
+ * wait for a courier, then runs the JMH benchmarks, which time one
+ * window of that traffic: loading its orders, assigning its couriers
+ * and taking the assigned orders off the index. Run it after
+ * {@code mvn test-compile}; the GC profiler reports allocation rate as
+ * {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DispatchBenchmark {
+
+	// a 26 km square around the city center
+	private static final double CENTER_LATITUDE = 50.45;
+	private static final double CENTER_LONGITUDE = 30.52;
+	private static final double HALF_HEIGHT_DEGREES = 0.117;
+	private static final double HALF_WIDTH_DEGREES = 0.183;
+
+	private static final double ORDERS_PER_SECOND = 15;
+	private static final double COURIERS_PER_SECOND = 15;
+
+	private static final double REPLAY_SECONDS = 600;
+	private static final int REPLAY_INITIAL_COURIERS = 300;
+
+	private static final int CANDIDATES_PER_COURIER = 8;
+	private static final double MAX_PICKUP_DISTANCE_METERS = 5000;
+
+	private static final double[] WINDOWS = {1, 2, 5, 10};
+
+	private static final DispatchPlanner GREEDY = new DispatchPlanner(
+			new AssignmentSolver(0, 10), CANDIDATES_PER_COURIER, MAX_PICKUP_DISTANCE_METERS);
+
+	private static final DispatchPlanner HUNGARIAN = new DispatchPlanner(
+			new AssignmentSolver(Integer.MAX_VALUE, 0), CANDIDATES_PER_COURIER, MAX_PICKUP_DISTANCE_METERS);
+
+	@Param({"1", "2", "5", "10"})
+	private int windowSeconds;
+
+	private Arrivals orders;
+	private List<AvailableCourier> couriers;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+
+		orders = Arrivals.generate(random, 0, ORDERS_PER_SECOND, windowSeconds);
+		couriers = new ArrayList<>();
+
+		Arrivals arrived = Arrivals.generate(random, 0, COURIERS_PER_SECOND, windowSeconds);
+
+		for (int i = 0; i < arrived.size(); i++) {
+			couriers.add(new AvailableCourier(i, arrived.latitudes[i], arrived.longitudes[i]));
+		}
+	}
+
+	@Benchmark
+	public Object planGreedy() {
+		return dispatchWindow(GREEDY);
+	}
+
+	@Benchmark
+	public Object planHungarian() {
+		return dispatchWindow(HUNGARIAN);
+	}
+
+	/**
+	 * The couriers of the window claim in arrival order, each taking
+	 * the nearest order still open.
+	 */
+	@Benchmark
+	public Object claimNearest() {
+		OpenOrderIndex openOrders = load(orders);
+		List<NearbyOrder> claimed = new ArrayList<>(couriers.size());
+
+		for (AvailableCourier courier : couriers) {
+			List<NearbyOrder> nearest = openOrders.nearest(
+					courier.latitude(), courier.longitude(), 1, MAX_PICKUP_DISTANCE_METERS);
+
+			if (!nearest.isEmpty()) {
+				openOrders.remove(nearest.getFirst().orderId());
+				claimed.add(nearest.getFirst());
+			}
+		}
+
+		return claimed;
+	}
+
+	private List<OrderAssignment> dispatchWindow(DispatchPlanner planner) {
+		OpenOrderIndex openOrders = load(orders);
+		List<OrderAssignment> assignments = planner.plan(couriers, openOrders);
+
+		assignments.forEach(assignment -> openOrders.remove(assignment.orderId()));
+
+		return assignments;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		report(new Random(42));
+
+		Options options = new OptionsBuilder()
+				.include(DispatchBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build();
+
+		new Runner(options).run();
+	}
+
+	private static void report(Random random) {
+		Arrivals orders = Arrivals.generate(random, 0, ORDERS_PER_SECOND, REPLAY_SECONDS);
+		Arrivals couriers = Arrivals.generate(random, REPLAY_INITIAL_COURIERS, COURIERS_PER_SECOND, REPLAY_SECONDS);
+
+		System.out.printf("%d orders and %d couriers over %.0f s%n%n", orders.size(), couriers.size(), REPLAY_SECONDS);
+		System.out.printf("%-10s %7s %9s %12s %12s %11s %10s%n",
+				"strategy", "window", "assigned", "mean pickup", "p95 pickup", "mean wait", "p95 wait");
+
+		replayClaims(orders, couriers).print("claim", "-");
+
+		for (double window : WINDOWS) {
+			replayWindows(GREEDY, orders, couriers, window).print("greedy", "%.0fs".formatted(window));
+			replayWindows(HUNGARIAN, orders, couriers, window).print("hungarian", "%.0fs".formatted(window));
+		}
+
+		System.out.println();
+	}
+
+	/**
+	 * Free couriers claim the nearest open order at once, and idle ones
+	 * look again every second.
+	 */
+	private static Quality replayClaims(Arrivals orders, Arrivals couriers) {
+		OpenOrderIndex openOrders = openOrderIndex();
+		Quality quality = new Quality();
+		Deque<Integer> idle = new ArrayDeque<>();
+
+		int nextOrder = 0;
+		int nextCourier = 0;
+
+		for (double now = 1; now <= REPLAY_SECONDS; now++) {
+			while (nextOrder < orders.size() && orders.times[nextOrder] <= now) {
+				openOrders.update(nextOrder, OrderStatus.CREATED,
+						orders.latitudes[nextOrder], orders.longitudes[nextOrder]);
+				nextOrder++;
+			}
+
+			while (nextCourier < couriers.size() && couriers.times[nextCourier] <= now) {
+				idle.addLast(nextCourier++);
+			}
+
+			int waiting = idle.size();
+
+			for (int i = 0; i < waiting; i++) {
+				int courier = idle.pollFirst();
+				List<NearbyOrder> nearest = openOrders.nearest(
+						couriers.latitudes[courier], couriers.longitudes[courier], 1, MAX_PICKUP_DISTANCE_METERS);
+
+				if (nearest.isEmpty()) {
+					idle.addLast(courier);
+					continue;
+				}
+
+				NearbyOrder order = nearest.getFirst();
+				openOrders.remove(order.orderId());
+				quality.add(order.distanceMeters(), now - orders.times[(int) order.orderId()]);
+			}
+		}
+
+		return quality;
+	}
+
+	/**
+	 * Orders and couriers wait for the end of their window and are then
+	 * assigned together; couriers left over stay in the pool.
+	 */
+	private static Quality replayWindows(DispatchPlanner planner, Arrivals orders, Arrivals couriers, double window) {
+		OpenOrderIndex openOrders = openOrderIndex();
+		CourierPool pool = new CourierPool();
+		Quality quality = new Quality();
+
+		int nextOrder = 0;
+		int nextCourier = 0;
+
+		for (double now = window; now <= REPLAY_SECONDS; now += window) {
+			while (nextOrder < orders.size() && orders.times[nextOrder] <= now) {
+				openOrders.update(nextOrder, OrderStatus.CREATED,
+						orders.latitudes[nextOrder], orders.longitudes[nextOrder]);
+				nextOrder++;
+			}
+
+			while (nextCourier < couriers.size() && couriers.times[nextCourier] <= now) {
+				pool.available(nextCourier, couriers.latitudes[nextCourier], couriers.longitudes[nextCourier]);
+				nextCourier++;
+			}
+
+			for (OrderAssignment assignment : planner.plan(pool.snapshot(), openOrders)) {
+				openOrders.remove(assignment.orderId());
+				pool.unavailable(assignment.courierId());
+				quality.add(assignment.pickupDistanceMeters(), now - orders.times[(int) assignment.orderId()]);
+			}
+		}
+
+		return quality;
+	}
+
+	private static OpenOrderIndex load(Arrivals orders) {
+		OpenOrderIndex openOrders = openOrderIndex();
+
+		for (int i = 0; i < orders.size(); i++) {
+			openOrders.update(i, OrderStatus.CREATED, orders.latitudes[i], orders.longitudes[i]);
+		}
+
+		return openOrders;
+	}
+
+	private static OpenOrderIndex openOrderIndex() {
+		return new OpenOrderIndex(null, new SimpleMeterRegistry(), 0.005);
+	}
+
+	/**
+	 * Poisson arrivals at uniformly random points of the city.
+	 */
+	private record Arrivals(double[] times, double[] latitudes, double[] longitudes) {
+
+		static Arrivals generate(Random random, int initial, double perSecond, double seconds) {
+			List<Double> times = new ArrayList<>();
+
+			for (int i = 0; i < initial; i++) {
+				times.add(0.0);
+			}
+
+			for (double time = -Math.log(1 - random.nextDouble()) / perSecond; time <= seconds;
+					time += -Math.log(1 - random.nextDouble()) / perSecond) {
+				times.add(time);
+			}
+
+			double[] latitudes = new double[times.size()];
+			double[] longitudes = new double[times.size()];
+
+			for (int i = 0; i < times.size(); i++) {
+				latitudes[i] = CENTER_LATITUDE + (random.nextDouble() * 2 - 1) * HALF_HEIGHT_DEGREES;
+				longitudes[i] = CENTER_LONGITUDE + (random.nextDouble() * 2 - 1) * HALF_WIDTH_DEGREES;
+			}
+
+			return new Arrivals(times.stream().mapToDouble(Double::doubleValue).toArray(), latitudes, longitudes);
+		}
+
+		int size() {
+			return times.length;
+		}
+
+	}
+
+	private static final class Quality {
+
+		private final List<Double> distances = new ArrayList<>();
+		private final List<Double> waits = new ArrayList<>();
+
+		void add(double distanceMeters, double waitSeconds) {
+			distances.add(distanceMeters);
+			waits.add(waitSeconds);
+		}
+
+		void print(String strategy, String window) {
+			System.out.printf("%-10s %7s %9d %10.0f m %10.0f m %9.2f s %8.2f s%n",
+					strategy,
+					window,
+					distances.size(),
+					mean(distances),
+					p95(distances),
+					mean(waits),
+					p95(waits));
+		}
+
+		private static double mean(List<Double> values) {
+			return values.stream().mapToDouble(Double::doubleValue).average().orElse(0);
+		}
+
+		private static double p95(List<Double> values) {
+			double[] sorted = values.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+
+			return sorted.length == 0 ? 0 : sorted[(int) (sorted.length * 0.95)];
+		}
+
+	}
+
+}
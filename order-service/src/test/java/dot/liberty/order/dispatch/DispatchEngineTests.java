@@ -0,0 +1,127 @@
+package dot.liberty.order.dispatch;
+
+import dot.liberty.order.controller.CourierAvailabilityController;
+import dot.liberty.order.entity.Order;
+import dot.liberty.order.entity.OrderStatus;
+import dot.liberty.order.geo.NearbyOrder;
+import dot.liberty.order.geo.OpenOrderIndex;
+import dot.liberty.order.repository.OrderAssignmentRepository;
+import dot.liberty.order.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@DataJpaTest(properties = {
+		"spring.cloud.config.enabled=false",
+		"eureka.client.enabled=false"
+})
+@Import(OrderAssignmentRepository.class)
+class DispatchEngineTests {
+
+	@Autowired
+	OrderRepository orderRepository;
+
+	@Autowired
+	OrderAssignmentRepository orderAssignmentRepository;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final CourierPool courierPool = new CourierPool();
+
+	private OpenOrderIndex openOrderIndex;
+	private DispatchEngine dispatchEngine;
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		openOrderIndex = new OpenOrderIndex(orderRepository, meterRegistry, 0.005);
+		dispatchEngine = new DispatchEngine(
+				courierPool, openOrderIndex, orderAssignmentRepository, meterRegistry, 8, 5000, 300, 10);
+		mockMvc = MockMvcBuilders.standaloneSetup(new CourierAvailabilityController(courierPool)).build();
+	}
+
+	@Test
+	void reportedCourierIsAssignedTheNearestOpenOrderInTheNextWindow() throws Exception {
+		Order near = save(50.4510, 30.5210);
+		Order far = save(50.4900, 30.6000);
+		openOrderIndex.rebuild();
+
+		mockMvc.perform(put("/api/couriers/7/availability")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"latitude\": 50.4500, \"longitude\": 30.5200}"))
+				.andExpect(status().isNoContent());
+
+		dispatchEngine.dispatch();
+
+		assertThat(jdbcTemplate.queryForMap("SELECT status, courier_id FROM orders WHERE id = ?", near.getId()))
+				.containsEntry("STATUS", "ASSIGNED")
+				.containsEntry("COURIER_ID", 7L);
+
+		assertThat(jdbcTemplate.queryForObject("SELECT status FROM orders WHERE id = ?", String.class, far.getId()))
+				.isEqualTo("CREATED");
+
+		assertThat(courierPool.size()).isZero();
+		assertThat(openOrderIndex.nearest(50.45, 30.52, 10))
+				.extracting(NearbyOrder::orderId)
+				.containsExactly(far.getId());
+		assertThat(meterRegistry.get("orders.dispatch.assigned").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void courierThatWithdrawsIsNotDispatched() throws Exception {
+		Order order = save(50.4510, 30.5210);
+		openOrderIndex.rebuild();
+
+		mockMvc.perform(put("/api/couriers/7/availability")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"latitude\": 50.4500, \"longitude\": 30.5200}"))
+				.andExpect(status().isNoContent());
+
+		mockMvc.perform(delete("/api/couriers/7/availability"))
+				.andExpect(status().isNoContent());
+
+		dispatchEngine.dispatch();
+
+		assertThat(jdbcTemplate.queryForObject("SELECT status FROM orders WHERE id = ?", String.class, order.getId()))
+				.isEqualTo("CREATED");
+	}
+
+	@Test
+	void rejectsReportsWithoutALocation() throws Exception {
+		mockMvc.perform(put("/api/couriers/7/availability")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"latitude\": 95.0}"))
+				.andExpect(status().isBadRequest());
+
+		assertThat(courierPool.size()).isZero();
+	}
+
+	private Order save(double pickupLatitude, double pickupLongitude) {
+		return orderRepository.saveAndFlush(Order.builder()
+				.customerId(1L)
+				.customerEmail("customer@dot.liberty")
+				.pickupAddress("Pickup")
+				.deliveryAddress("Delivery")
+				.pickupLatitude(pickupLatitude)
+				.pickupLongitude(pickupLongitude)
+				.deliveryLatitude(50.40)
+				.deliveryLongitude(30.60)
+				.description("Parcel")
+				.build());
+	}
+
+}
@@ -0,0 +1,114 @@
+package dot.liberty.order.geo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GeoGridTests {
+
+	private static final int POINTS = 5000;
+
+	private final Random random = new Random(42);
+
+	private final GeoGrid grid = new GeoGrid(0.01);
+	private final double[][] points = new double[POINTS][];
+
+	GeoGridTests() {
+		for (int id = 0; id < POINTS; id++) {
+			points[id] = new double[]{50.35 + random.nextDouble() * 0.2, 30.35 + random.nextDouble() * 0.35};
+			grid.put(id, points[id][0], points[id][1]);
+		}
+	}
+
+	@Test
+	void findsTheSameNearestOrdersAsAFullScan() {
+		for (int query = 0; query < 200; query++) {
+			double latitude = 50.3 + random.nextDouble() * 0.3;
+			double longitude = 30.3 + random.nextDouble() * 0.45;
+
+			assertThat(ids(grid.nearest(latitude, longitude, 10)))
+					.isEqualTo(ids(scan(latitude, longitude, Double.MAX_VALUE).subList(0, 10)));
+		}
+	}
+
+	@Test
+	void findsTheSameNearestOrdersWithinADistanceAsAFullScan() {
+		for (int query = 0; query < 200; query++) {
+			double latitude = 50.3 + random.nextDouble() * 0.3;
+			double longitude = 30.3 + random.nextDouble() * 0.45;
+
+			List<NearbyOrder> scanned = scan(latitude, longitude, 400);
+
+			assertThat(ids(grid.nearest(latitude, longitude, 10, 400)))
+					.isEqualTo(ids(scanned.subList(0, Math.min(10, scanned.size()))));
+		}
+	}
+
+	@Test
+	void findsTheSameOrdersWithinARadiusAsAFullScan() {
+		for (int query = 0; query < 200; query++) {
+			double latitude = 50.3 + random.nextDouble() * 0.3;
+			double longitude = 30.3 + random.nextDouble() * 0.45;
+
+			assertThat(ids(grid.withinRadius(latitude, longitude, 1500)))
+					.isEqualTo(ids(scan(latitude, longitude, 1500)));
+		}
+	}
+
+	@Test
+	@Timeout(5)
+	void distantQueryStartsAtTheRingThatReachesTheOrders() {
+		for (double[] query : new double[][]{{10.0, 10.0}, {-45.0, 170.0}, {89.9, 30.5}}) {
+			assertThat(ids(grid.nearest(query[0], query[1], 10)))
+					.isEqualTo(ids(scan(query[0], query[1], Double.MAX_VALUE).subList(0, 10)));
+			assertThat(grid.nearest(query[0], query[1], 10, 5000)).isEmpty();
+		}
+	}
+
+	@Test
+	@Timeout(5)
+	void boundsShrinkWhenTheOutermostOrderIsRemoved() {
+		grid.put(POINTS, -60.0, -170.0);
+		grid.remove(POINTS);
+
+		// asking for more than there are searches every ring up to the bounds
+		assertThat(grid.nearest(50.45, 30.5, POINTS + 1)).hasSize(POINTS);
+	}
+
+	@Test
+	void movesAndRemovesOrders() {
+		grid.put(0, 10.0, 10.0);
+		grid.remove(1);
+
+		assertThat(grid.size()).isEqualTo(POINTS - 1);
+		assertThat(grid.nearest(10.0, 10.0, 1)).extracting(NearbyOrder::orderId).containsExactly(0L);
+		assertThat(ids(grid.withinRadius(points[1][0], points[1][1], 1))).doesNotContain(1L);
+	}
+
+	private List<NearbyOrder> scan(double latitude, double longitude, double radiusMeters) {
+		List<NearbyOrder> found = new ArrayList<>();
+
+		for (int id = 0; id < POINTS; id++) {
+			double distance = GeoGrid.distance(latitude, longitude, points[id][0], points[id][1]);
+
+			if (distance <= radiusMeters) {
+				found.add(new NearbyOrder(id, points[id][0], points[id][1], distance));
+			}
+		}
+
+		found.sort(Comparator.comparingDouble(NearbyOrder::distanceMeters));
+
+		return found;
+	}
+
+	private static List<Long> ids(List<NearbyOrder> orders) {
+		return orders.stream().map(NearbyOrder::orderId).toList();
+	}
+
+}
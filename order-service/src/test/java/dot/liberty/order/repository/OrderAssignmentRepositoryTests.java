@@ -0,0 +1,99 @@
+package dot.liberty.order.repository;
+
+import dot.liberty.order.dispatch.OrderAssignment;
+import dot.liberty.order.entity.Order;
+import dot.liberty.order.entity.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+@DataJpaTest(properties = {
+		"spring.cloud.config.enabled=false",
+		"eureka.client.enabled=false"
+})
+@Import(OrderAssignmentRepository.class)
+class OrderAssignmentRepositoryTests {
+
+	@Autowired
+	OrderRepository orderRepository;
+
+	@Autowired
+	OrderAssignmentRepository orderAssignmentRepository;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Test
+	void assignsOnlyOrdersThatAreStillOpen() {
+		Order open = save(OrderStatus.CREATED);
+		Order taken = save(OrderStatus.ASSIGNED);
+
+		List<OrderAssignment> written = orderAssignmentRepository.assign(List.of(
+				new OrderAssignment(open.getId(), 7L, 120),
+				new OrderAssignment(taken.getId(), 8L, 80)));
+
+		assertThat(written).extracting(OrderAssignment::orderId).containsExactly(open.getId());
+
+		assertThat(jdbcTemplate.queryForMap("SELECT status, courier_id FROM orders WHERE id = ?", open.getId()))
+				.containsEntry("STATUS", "ASSIGNED")
+				.containsEntry("COURIER_ID", 7L);
+
+		assertThat(jdbcTemplate.queryForObject("SELECT courier_id FROM orders WHERE id = ?", Long.class, taken.getId()))
+				.isNull();
+	}
+
+	@Test
+	void readsBackAssignmentsWhenTheDriverReportsNoRowCounts() {
+		Order open = save(OrderStatus.CREATED);
+		Order taken = save(OrderStatus.ASSIGNED);
+
+		JdbcTemplate withoutRowCounts = spy(jdbcTemplate);
+
+		doAnswer(invocation -> {
+			int[][] updated = (int[][]) invocation.callRealMethod();
+
+			for (int[] batch : updated) {
+				Arrays.fill(batch, Statement.SUCCESS_NO_INFO);
+			}
+
+			return updated;
+		}).when(withoutRowCounts).batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+
+		List<OrderAssignment> written = new OrderAssignmentRepository(withoutRowCounts).assign(List.of(
+				new OrderAssignment(open.getId(), 7L, 120),
+				new OrderAssignment(taken.getId(), 8L, 80)));
+
+		assertThat(written).extracting(OrderAssignment::orderId).containsExactly(open.getId());
+	}
+
+	private Order save(OrderStatus status) {
+		return orderRepository.saveAndFlush(Order.builder()
+				.customerId(1L)
+				.customerEmail("customer@dot.liberty")
+				.status(status)
+				.pickupAddress("Pickup")
+				.deliveryAddress("Delivery")
+				.pickupLatitude(50.45)
+				.pickupLongitude(30.52)
+				.deliveryLatitude(50.40)
+				.deliveryLongitude(30.60)
+				.description("Parcel")
+				.build());
+	}
+
+}
@@ -0,0 +1,77 @@
+package dot.liberty.order.repository;
+
+import dot.liberty.order.entity.Order;
+import dot.liberty.order.entity.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+		"spring.cloud.config.enabled=false",
+		"eureka.client.enabled=false"
+})
+class OrderRepositoryTests {
+
+	@Autowired
+	OrderRepository orderRepository;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Test
+	void scrollsThroughOrdersWithEqualCreationTimesWithoutSkippingOrRepeating() {
+		LocalDateTime createdAt = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+		for (int i = 0; i < 7; i++) {
+			save(1L, createdAt.plusMinutes(i / 3));
+		}
+
+		save(2L, createdAt);
+
+		List<Long> newestFirst = jdbcTemplate.queryForList(
+				"SELECT id FROM orders WHERE customer_id = 1 ORDER BY created_at DESC, id DESC", Long.class);
+
+		List<Long> scrolled = new ArrayList<>();
+		ScrollPosition position = ScrollPosition.keyset();
+		Window<OrderSummary> window;
+
+		do {
+			window = orderRepository.findByCustomerIdOrderByCreatedAtDescIdDesc(1L, position, Limit.of(3));
+			window.forEach(order -> scrolled.add(order.getId()));
+
+			if (!window.isEmpty()) {
+				position = window.positionAt(window.size() - 1);
+			}
+		} while (window.hasNext());
+
+		assertThat(scrolled).hasSize(7).isEqualTo(newestFirst);
+	}
+
+	private void save(Long customerId, LocalDateTime createdAt) {
+		Order order = orderRepository.saveAndFlush(Order.builder()
+				.customerId(customerId)
+				.customerEmail("customer@dot.liberty")
+				.status(OrderStatus.CREATED)
+				.pickupAddress("Pickup")
+				.deliveryAddress("Delivery")
+				.pickupLatitude(50.45)
+				.pickupLongitude(30.52)
+				.deliveryLatitude(50.40)
+				.deliveryLongitude(30.60)
+				.description("Parcel")
+				.build());
+
+		jdbcTemplate.update("UPDATE orders SET created_at = ? WHERE id = ?", createdAt, order.getId());
+	}
+
+}
@@ -0,0 +1,83 @@
+package dot.liberty.order.service;
+
+import dot.liberty.order.exception.InvalidCursorException;
+import dot.liberty.order.repository.OrderSummary;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrderCursorTests {
+
+	private static final LocalDateTime CREATED_AT = LocalDateTime.of(2025, 1, 1, 12, 30, 15, 123_000_000);
+
+	@Test
+	void positionResumesAfterTheOrderTheCursorWasMadeFrom() {
+		String cursor = OrderCursor.after(summary(42L, CREATED_AT));
+
+		ScrollPosition position = OrderCursor.position(cursor);
+
+		assertThat(position).isInstanceOf(KeysetScrollPosition.class);
+		assertThat(((KeysetScrollPosition) position).getKeys())
+				.containsEntry("createdAt", CREATED_AT)
+				.containsEntry("id", 42L);
+		assertThat(cursor).doesNotContain("=", "+", "/");
+	}
+
+	@Test
+	void missingCursorStartsAtTheFirstPage() {
+		assertThat(OrderCursor.position(null).isInitial()).isTrue();
+		assertThat(OrderCursor.position("").isInitial()).isTrue();
+	}
+
+	@Test
+	void tamperedKeysetIsRejected() {
+		List<String> keysets = List.of(
+				"2025-01-01T12:30:15.123|abc",
+				"2025-01-01T12:30:15.123|-1",
+				"2025-01-01T12:30:15.123|0",
+				"2025-01-01T12:30:15.123|42|43",
+				"42|2025-01-01T12:30:15.123",
+				"2025-13-01T12:30:15.123|42",
+				"2025-01-01T12:30:15.123");
+
+		for (String keyset : keysets) {
+			assertThatThrownBy(() -> OrderCursor.position(encode(keyset)))
+					.as(keyset)
+					.isInstanceOf(InvalidCursorException.class);
+		}
+	}
+
+	@Test
+	void malformedCursorIsRejected() {
+		for (String cursor : List.of("not base64!", "%%%", "=", "abc")) {
+			assertThatThrownBy(() -> OrderCursor.position(cursor))
+					.as(cursor)
+					.isInstanceOf(InvalidCursorException.class)
+					.hasMessageStartingWith("Malformed page cursor");
+		}
+	}
+
+	static OrderSummary summary(Long id, LocalDateTime createdAt) {
+		OrderSummary summary = mock(OrderSummary.class);
+
+		when(summary.getId()).thenReturn(id);
+		when(summary.getCreatedAt()).thenReturn(createdAt);
+
+		return summary;
+	}
+
+	private static String encode(String keyset) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(keyset.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
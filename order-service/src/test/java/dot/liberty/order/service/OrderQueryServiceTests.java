@@ -0,0 +1,64 @@
+package dot.liberty.order.service;
+
+import dot.liberty.order.dto.response.OrderSummaryPage;
+import dot.liberty.order.repository.OrderRepository;
+import dot.liberty.order.repository.OrderSummary;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static dot.liberty.order.service.OrderCursorTests.summary;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class OrderQueryServiceTests {
+
+	private final OrderRepository orderRepository = mock(OrderRepository.class);
+
+	private final OrderQueryService orderQueryService = new OrderQueryService(orderRepository, 100);
+
+	@Test
+	void pageSizeIsClampedToTheConfiguredRange() {
+		when(orderRepository.findByCustomerIdOrderByCreatedAtDescIdDesc(eq(1L), any(), any()))
+				.thenReturn(Window.from(List.of(), ScrollPosition::offset));
+
+		orderQueryService.findByCustomer(1L, null, 0);
+		orderQueryService.findByCustomer(1L, null, 25);
+		orderQueryService.findByCustomer(1L, null, 10_000);
+
+		verify(orderRepository).findByCustomerIdOrderByCreatedAtDescIdDesc(1L, ScrollPosition.keyset(), Limit.of(1));
+		verify(orderRepository).findByCustomerIdOrderByCreatedAtDescIdDesc(1L, ScrollPosition.keyset(), Limit.of(25));
+		verify(orderRepository).findByCustomerIdOrderByCreatedAtDescIdDesc(1L, ScrollPosition.keyset(), Limit.of(100));
+	}
+
+	@Test
+	void nextCursorPointsAfterTheLastOrderOfAFullPage() {
+		OrderSummary newer = summary(2L, LocalDateTime.of(2025, 1, 1, 12, 1));
+		OrderSummary older = summary(1L, LocalDateTime.of(2025, 1, 1, 12, 0));
+
+		when(orderRepository.findByCustomerIdOrderByCreatedAtDescIdDesc(eq(1L), any(), any()))
+				.thenReturn(Window.from(List.of(newer, older), ScrollPosition::offset, true));
+
+		OrderSummaryPage page = orderQueryService.findByCustomer(1L, null, 2);
+
+		assertThat(page.getItems()).containsExactly(newer, older);
+		assertThat(page.getNextCursor()).isEqualTo(OrderCursor.after(older));
+	}
+
+	@Test
+	void lastPageHasNoNextCursor() {
+		OrderSummary last = summary(1L, LocalDateTime.of(2025, 1, 1, 12, 0));
+
+		when(orderRepository.findByCustomerIdOrderByCreatedAtDescIdDesc(eq(1L), any(), any()))
+				.thenReturn(Window.from(List.of(last), ScrollPosition::offset, false));
+
+		assertThat(orderQueryService.findByCustomer(1L, null, 2).getNextCursor()).isNull();
+	}
+
+}